@@ -0,0 +1,242 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Small JMH-style benchmark harness.
+ *
+ * Every benchmark runs in its own forked JVM (so one benchmark's JIT profile
+ * can't slow down another), with timed warm-up and measurement iterations.
+ * It reports average time per operation with a 99.9% confidence interval,
+ * and bytes allocated per operation (what JMH's -prof gc calls
+ * gc.alloc.rate.norm).
+ *
+ * Options: [-wi warmupIterations] [-i iterations] [-r iterationMillis]
+ * [-f forks] [regex]; the regex picks benchmarks by name.
+ */
+public final class Bench {
+
+    /**
+     * One benchmark: runs the operation {@code ops} times and returns a
+     * value derived from the results, so the JIT can't remove the work
+     */
+    public interface Body {
+        long run(int ops);
+    }
+
+    private static final String FORK_FLAG = "--fork";
+    private static final String RESULT_PREFIX = "#result ";
+
+    // Student's t for a two-sided 99.9% interval, by degrees of freedom (1-10)
+    private static final double[] T_999 = {
+            636.6, 31.60, 12.92, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587 };
+
+    private final Map<String, Supplier<Body>> benchmarks = new LinkedHashMap<>();
+    private int warmupIterations = 3;
+    private int iterations = 5;
+    private long iterationMillis = 1000;
+    private int forks = 1;
+    private Pattern filter = Pattern.compile(".*");
+
+    // Written so results can't be optimised away
+    private static volatile long sink;
+
+    /**
+     * @param setup creates fresh state for the benchmark (runs in the fork)
+     */
+    public Bench add(String name, Supplier<Body> setup) {
+        benchmarks.put(name, setup);
+        return this;
+    }
+
+    /**
+     * Entry point for the benchmark main method
+     */
+    public void main(String[] args) throws Exception {
+        if (args.length >= 2 && args[0].equals(FORK_FLAG)) {
+            parseOptions(Arrays.copyOfRange(args, 2, args.length));
+            measureInFork(args[1]);
+            return;
+        }
+        parseOptions(args);
+
+        System.out.printf("# JVM: %s %s%n", System.getProperty("java.vm.name"), System.getProperty("java.version"));
+        System.out.printf("# Warm-up: %d x %d ms, measurement: %d x %d ms, forks: %d%n",
+                warmupIterations, iterationMillis, iterations, iterationMillis, forks);
+        System.out.println();
+        System.out.printf("%-28s %5s %12s %10s %7s %12s%n", "Benchmark", "Cnt", "Score", "Error", "Units",
+                "Alloc B/op");
+
+        for (String name : benchmarks.keySet()) {
+            if (!filter.matcher(name).find()) {
+                continue;
+            }
+            List<Double> nanosPerOp = new ArrayList<>();
+            double bytesPerOp = 0;
+            for (int fork = 0; fork < forks; fork++) {
+                double[] result = fork(name);
+                for (int i = 0; i < iterations; i++) {
+                    nanosPerOp.add(result[i]);
+                }
+                bytesPerOp += result[iterations] / forks;
+            }
+            printResult(name, nanosPerOp, bytesPerOp);
+        }
+    }
+
+    private void parseOptions(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-wi":
+                    warmupIterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-i":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-r":
+                    iterationMillis = Long.parseLong(args[++i]);
+                    break;
+                case "-f":
+                    forks = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    filter = Pattern.compile(args[i]);
+            }
+        }
+    }
+
+    // ===== FORKING =====
+
+    /**
+     * Run one benchmark in a fresh JVM with the same class path and options
+     *
+     * @return ns/op for each measured iteration, then bytes/op
+     */
+    private double[] fork(String name) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(System.getProperty("sun.java.command").split(" ")[0]);
+        command.add(FORK_FLAG);
+        command.add(name);
+        command.add("-wi");
+        command.add(Integer.toString(warmupIterations));
+        command.add("-i");
+        command.add(Integer.toString(iterations));
+        command.add("-r");
+        command.add(Long.toString(iterationMillis));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        double[] result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    String[] values = line.substring(RESULT_PREFIX.length()).split(",");
+                    result = new double[values.length];
+                    for (int i = 0; i < values.length; i++) {
+                        result[i] = Double.parseDouble(values[i]);
+                    }
+                } else {
+                    System.out.println("  " + line);
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("Benchmark " + name + " failed in its fork");
+        }
+        return result;
+    }
+
+    /**
+     * Body of a forked JVM: set up, calibrate, warm up and measure one benchmark
+     */
+    private void measureInFork(String name) {
+        Supplier<Body> setup = benchmarks.get(name);
+        if (setup == null) {
+            throw new IllegalArgumentException("Unknown benchmark: " + name);
+        }
+        Body body = setup.get();
+        AllocationMeter allocations = new AllocationMeter();
+
+        // Size batches to ~10 ms so timer and loop overhead stay negligible
+        int batch = 1;
+        while (batch < (1 << 30)) {
+            long batchStart = System.nanoTime();
+            sink += body.run(batch);
+            if (System.nanoTime() - batchStart >= 10_000_000L) {
+                break;
+            }
+            batch *= 2;
+        }
+
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(body, batch);
+        }
+
+        StringBuilder result = new StringBuilder(RESULT_PREFIX);
+        long allocatedBefore = allocations.allocatedBytes();
+        long totalOps = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] timing = runIteration(body, batch);
+            totalOps += timing[1];
+            result.append((double) timing[0] / timing[1]).append(',');
+        }
+        long allocated = allocations.allocatedBytes() - allocatedBefore;
+        result.append(allocatedBefore < 0 ? Double.NaN : (double) allocated / totalOps);
+        System.out.println(result);
+    }
+
+    /**
+     * @return elapsed nanos and operations run
+     */
+    private long[] runIteration(Body body, int batch) {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+        long ops = 0;
+        long elapsed = 0;
+        while (true) {
+            long start = System.nanoTime();
+            sink += body.run(batch);
+            long end = System.nanoTime();
+            elapsed += end - start;
+            ops += batch;
+            if (end >= deadline) {
+                return new long[] { elapsed, ops };
+            }
+        }
+    }
+
+    // ===== REPORTING =====
+
+    private static void printResult(String name, List<Double> samples, double bytesPerOp) {
+        int n = samples.size();
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample;
+        }
+        mean /= n;
+
+        double error = Double.NaN;
+        if (n > 1) {
+            double variance = 0;
+            for (double sample : samples) {
+                variance += (sample - mean) * (sample - mean);
+            }
+            double stdev = Math.sqrt(variance / (n - 1));
+            double t = n - 1 <= T_999.length ? T_999[n - 2] : 3.291;
+            error = t * stdev / Math.sqrt(n);
+        }
+
+        System.out.printf("%-28s %5d %12.3f ± %8.3f %7s %12.1f%n", name, n, mean, error, "ns/op", bytesPerOp);
+    }
+}
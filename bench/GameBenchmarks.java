@@ -0,0 +1,280 @@
+import java.util.Random;
+
+/**
+ * Baseline benchmarks for the game's hot paths: bird physics, pipe rules,
+ * finding the obstacles near the bird, particles under burst load, full
+ * simulation ticks with many pipes, and state snapshots and lookahead.
+ *
+ * Usage: bench.bat [-wi N] [-i N] [-r millis] [-f forks] [regex]
+ */
+public class GameBenchmarks {
+    private static final int VARIANTS = 256; // Inputs cycled so results aren't constant
+    private static final int VARIANT_MASK = VARIANTS - 1;
+
+    public static void main(String[] args) throws Exception {
+        new Bench()
+                .add("bird.update", GameBenchmarks::birdUpdate)
+                .add("pipe.collidesWith", GameBenchmarks::pipeCollides)
+                .add("pipe.isPassed", GameBenchmarks::pipePassed)
+                .add("pipe.isNearBird", GameBenchmarks::pipeNearBird)
+                .add("obstacles.scan512", () -> obstacleCollisions(512, false))
+                .add("obstacles.index512", () -> obstacleCollisions(512, true))
+                .add("particles.burst", GameBenchmarks::particleBurst)
+                .add("tick.pipes8", () -> fullTick(8))
+                .add("tick.pipes64", () -> fullTick(64))
+                .add("tick.pipes512", () -> fullTick(512))
+                .add("snapshot.saveRestore", GameBenchmarks::snapshotRoundTrip)
+                .add("autopilot.plan", GameBenchmarks::autopilotPlan)
+                .main(args);
+    }
+
+    // ===== PHYSICS =====
+
+    /**
+     * One Bird.update; birds flap now and then and restart when they fall out
+     */
+    private static Bench.Body birdUpdate() {
+        Bird[] birds = new Bird[VARIANTS];
+        for (int i = 0; i < VARIANTS; i++) {
+            birds[i] = new Bird(GameSimulation.BIRD_START_X, 100 + i);
+        }
+        return ops -> {
+            long checksum = 0;
+            for (int i = 0; i < ops; i++) {
+                Bird bird = birds[i & VARIANT_MASK];
+                bird.update();
+                if ((i & 31) == 0) {
+                    bird.jump();
+                }
+                if (bird.getY() > GameSimulation.getGroundY()) {
+                    bird.reset(GameSimulation.BIRD_START_X, 100 + (i & VARIANT_MASK));
+                }
+                checksum += (long) bird.getY();
+            }
+            return checksum;
+        };
+    }
+
+    // ===== COLLISION =====
+
+    private static Pipe[] pipesAcrossScreen() {
+        Pipe[] pipes = new Pipe[VARIANTS];
+        Random random = new Random(42);
+        for (int i = 0; i < VARIANTS; i++) {
+            pipes[i] = new Pipe(random.nextDouble() * GameSimulation.WORLD_WIDTH,
+                    GameSimulation.gapYFor(random.nextDouble()), i);
+        }
+        return pipes;
+    }
+
+    private static double[] birdHeights() {
+        double[] heights = new double[VARIANTS];
+        Random random = new Random(7);
+        for (int i = 0; i < VARIANTS; i++) {
+            heights[i] = random.nextDouble() * GameSimulation.getGroundY();
+        }
+        return heights;
+    }
+
+    private static Bench.Body pipeCollides() {
+        Pipe[] pipes = pipesAcrossScreen();
+        double[] heights = birdHeights();
+        double radius = Bird.getBirdRadius();
+        return ops -> {
+            long hits = 0;
+            for (int i = 0; i < ops; i++) {
+                // Different strides so every pipe meets every height
+                if (pipes[i & VARIANT_MASK].collidesWith(GameSimulation.BIRD_START_X,
+                        heights[(i >>> 8) & VARIANT_MASK], radius)) {
+                    hits++;
+                }
+            }
+            return hits;
+        };
+    }
+
+    private static Bench.Body pipePassed() {
+        Pipe[] pipes = pipesAcrossScreen();
+        return ops -> {
+            long passed = 0;
+            for (int i = 0; i < ops; i++) {
+                if (pipes[i & VARIANT_MASK].isPassed(GameSimulation.BIRD_START_X)) {
+                    passed++;
+                }
+            }
+            return passed;
+        };
+    }
+
+    private static Bench.Body pipeNearBird() {
+        Pipe[] pipes = pipesAcrossScreen();
+        return ops -> {
+            long near = 0;
+            for (int i = 0; i < ops; i++) {
+                if (pipes[i & VARIANT_MASK].isNearBird(GameSimulation.BIRD_START_X, 80)) {
+                    near++;
+                }
+            }
+            return near;
+        };
+    }
+
+    /**
+     * Collision test of one bird against a dense field of pipes, either
+     * testing them all or only those the x-sorted index says overlap the
+     * bird
+     */
+    private static Bench.Body obstacleCollisions(int obstacleCount, boolean indexed) {
+        PipeManager pipes = new PipeManager();
+        Random random = new Random(42);
+        double spacing = 4 * Pipe.getSpeed();
+        for (int i = 0; i < obstacleCount; i++) {
+            pipes.spawn(i * spacing, GameSimulation.gapYFor(random.nextDouble()), i + 1);
+        }
+        double[] heights = birdHeights();
+        double radius = Bird.getBirdRadius();
+        double span = obstacleCount * spacing;
+        return ops -> {
+            long hits = 0;
+            for (int i = 0; i < ops; i++) {
+                double birdX = (i * 37 % VARIANTS) * span / VARIANTS;
+                double birdY = heights[(i >>> 8) & VARIANT_MASK];
+                int first = indexed ? pipes.firstEndingAfter(birdX - radius) : 0;
+                for (int p = first; p < pipes.size(); p++) {
+                    Pipe pipe = pipes.get(p);
+                    if (indexed && pipe.getX() >= birdX + radius) {
+                        break;
+                    }
+                    if (pipe.collidesWith(birdX, birdY, radius)) {
+                        hits++;
+                    }
+                }
+            }
+            return hits;
+        };
+    }
+
+    // ===== PARTICLES =====
+
+    /**
+     * One ParticleEffect.update while explosions and flaps keep the pool
+     * close to full
+     */
+    private static Bench.Body particleBurst() {
+        ParticleEffect particles = new ParticleEffect();
+        return ops -> {
+            long checksum = 0;
+            for (int i = 0; i < ops; i++) {
+                if ((i & 3) == 0) {
+                    particles.createExplosionParticles(200 + (i & 127), 300);
+                    particles.createJumpParticles(150, 250 + (i & 63));
+                }
+                particles.update();
+                checksum += particles.getParticleCount();
+            }
+            return checksum;
+        };
+    }
+
+    // ===== FULL TICK =====
+
+    /**
+     * One GameEngine update step (particles + simulation) with a tunnel of
+     * extra pipes ahead of the bird, steered through by the headless bot.
+     * Runs restart (and the tunnel is rebuilt) when the bird crashes.
+     */
+    private static Bench.Body fullTick(int pipeCount) {
+        GameSimulation simulation = new GameSimulation(42);
+        ParticleEffect particles = new ParticleEffect();
+        double tunnelY = GameSimulation.WORLD_HEIGHT / 2;
+        double spacing = 4 * Pipe.getSpeed();
+
+        Runnable restart = () -> {
+            particles.clear();
+            simulation.start();
+            fillTunnel(simulation, pipeCount, tunnelY, spacing);
+        };
+        restart.run();
+
+        return ops -> {
+            long checksum = 0;
+            for (int i = 0; i < ops; i++) {
+                Bird bird = simulation.getBird();
+                if (bird.getVelocity() >= 0 && bird.getY() > tunnelY + 20 && simulation.jump()) {
+                    particles.createJumpParticles(bird.getX(), bird.getY());
+                }
+
+                particles.update();
+                simulation.update();
+
+                if (!simulation.isPlaying()) {
+                    restart.run();
+                } else if (simulation.getPipes().size() < pipeCount / 2) {
+                    fillTunnel(simulation, pipeCount, tunnelY, spacing);
+                }
+                checksum += simulation.getPipes().size();
+            }
+            return checksum;
+        };
+    }
+
+    private static void fillTunnel(GameSimulation simulation, int pipeCount, double gapY, double spacing) {
+        PipeManager pipes = simulation.getPipes();
+        double x = pipes.isEmpty() ? GameSimulation.BIRD_START_X + 100
+                : pipes.get(pipes.size() - 1).getX() + spacing;
+        while (pipes.size() < pipeCount) {
+            pipes.spawn(x, gapY, 0);
+            x += spacing;
+        }
+    }
+
+    // ===== LOOKAHEAD =====
+
+    /**
+     * A game a few pipes in, flown there by the headless bot
+     */
+    private static GameSimulation midRun() {
+        GameSimulation simulation = new GameSimulation(42);
+        BirdController.Observation state = new BirdController.Observation();
+        simulation.start();
+        for (int i = 0; i < 10 * GameSimulation.TICKS_PER_SECOND; i++) {
+            if (HeadlessRunner.RULE_BOT.shouldJump(state.observe(simulation))) {
+                simulation.jump();
+            }
+            simulation.update();
+        }
+        return simulation;
+    }
+
+    /**
+     * Save a game mid-run into a reused snapshot and restore it into another
+     */
+    private static Bench.Body snapshotRoundTrip() {
+        GameSimulation simulation = midRun();
+        GameSimulation copy = new GameSimulation(0);
+        SimSnapshot snapshot = new SimSnapshot();
+        return ops -> {
+            long checksum = 0;
+            for (int i = 0; i < ops; i++) {
+                simulation.saveTo(snapshot);
+                copy.restoreFrom(snapshot);
+                checksum += copy.getPipes().size();
+            }
+            return checksum;
+        };
+    }
+
+    /**
+     * One autopilot plan with the default beam, from a game mid-run
+     */
+    private static Bench.Body autopilotPlan() {
+        Autopilot autopilot = new Autopilot(midRun());
+        return ops -> {
+            long checksum = 0;
+            for (int i = 0; i < ops; i++) {
+                checksum += autopilot.plan() ? 1 : autopilot.getTicksExplored();
+            }
+            return checksum;
+        };
+    }
+}
@@ -0,0 +1,202 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load generator for {@link ScoreServer}: many clients submitting recorded
+ * bot runs as fast as the server answers, reporting sustained requests/sec
+ * and latency percentiles. One run in ten claims a higher score than it
+ * reached, to keep the rejection path busy too. The runs are sent over and
+ * over, so after the first pass they're rejected as duplicates, which the
+ * server only finds out after playing them back.
+ *
+ * Without a URL it starts a server in-process on a free port.
+ *
+ * Usage: java -cp out-bench ScoreLoadTest [-c clients] [-d seconds] [-n runs] [url]
+ */
+public class ScoreLoadTest {
+    private static final int SCORE_OFFSET = 21; // Magic, version, seed, ticks (see Replay.toBytes)
+
+    public static void main(String[] args) throws Exception {
+        int clients = 64;
+        int seconds = 10;
+        int runs = 1000;
+        String url = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-c":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "-d":
+                    seconds = Integer.parseInt(args[++i]);
+                    break;
+                case "-n":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    url = args[i];
+            }
+        }
+
+        ScoreServer server = null;
+        if (url == null) {
+            Path snapshot = Files.createTempDirectory("score-load").resolve("top.dat");
+            server = new ScoreServer(snapshot);
+            server.start(0);
+            url = "http://localhost:" + server.getPort();
+        }
+
+        byte[][] submissions = recordRuns(runs);
+        System.out.printf("Recorded %,d runs; %d clients for %d s against %s%n", runs, clients, seconds, url);
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI[] targets = new URI[16];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = URI.create(url + "/scores?avatar=Cabinet" + i);
+        }
+
+        // Warm up both sides before measuring
+        drive(http, targets, submissions, clients, 2);
+        Result result = drive(http, targets, submissions, clients, seconds);
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("Requests: %,d in %d s = %,.0f req/s (%,d accepted, %,d rejected, %,d errors)%n",
+                latencies.length, seconds, (double) latencies.length / seconds,
+                result.accepted, result.rejected, result.errors);
+        System.out.printf("Latency: p50 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n",
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                percentile(latencies, 0.999) / 1e6, latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0.0);
+
+        HttpResponse<String> top = http.send(HttpRequest.newBuilder(URI.create(url + "/top?n=3")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        System.out.print("Top 3:\n" + top.body());
+
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private static final class Result {
+        long[] latencies;
+        long accepted;
+        long rejected;
+        long errors;
+    }
+
+    /**
+     * Submit from every client until the time is up
+     */
+    private static Result drive(HttpClient http, URI[] targets, byte[][] submissions, int clients, int seconds)
+            throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    // Latencies, then accepted, rejected and error counts in three extra slots
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long accepted = 0;
+                    long rejected = 0;
+                    long errors = 0;
+                    for (int i = client; System.nanoTime() < deadline; i += clients) {
+                        HttpRequest request = HttpRequest.newBuilder(targets[i % targets.length])
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(submissions[i % submissions.length]))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 202) {
+                                accepted++;
+                            } else if (status == 422 || status == 409) {
+                                rejected++;
+                            } else {
+                                errors++;
+                            }
+                        } catch (Exception e) {
+                            errors++;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    long[] result = Arrays.copyOf(latencies, count + 3);
+                    result[count] = accepted;
+                    result[count + 1] = rejected;
+                    result[count + 2] = errors;
+                    return result;
+                }));
+            }
+        }
+
+        Result result = new Result();
+        long[][] perClient = new long[futures.size()][];
+        int total = 0;
+        for (int i = 0; i < perClient.length; i++) {
+            perClient[i] = futures.get(i).get();
+            int count = perClient[i].length - 3;
+            total += count;
+            result.accepted += perClient[i][count];
+            result.rejected += perClient[i][count + 1];
+            result.errors += perClient[i][count + 2];
+        }
+        result.latencies = new long[total];
+        int position = 0;
+        for (long[] latencies : perClient) {
+            System.arraycopy(latencies, 0, result.latencies, position, latencies.length - 3);
+            position += latencies.length - 3;
+        }
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (fraction * sorted.length))];
+    }
+
+    /**
+     * Real runs from a bot that misjudges its flaps, encoded as submissions
+     */
+    private static byte[][] recordRuns(int runs) {
+        byte[][] submissions = new byte[runs][];
+        GameSimulation simulation = new GameSimulation(7);
+        ReplayRecorder recorder = new ReplayRecorder();
+        simulation.setRecorder(recorder);
+        Random random = new Random(7);
+
+        for (int run = 0; run < runs; run++) {
+            int slack = 20 + random.nextInt(40);
+            simulation.start();
+            while (simulation.isPlaying()) {
+                Bird bird = simulation.getBird();
+                Pipe next = simulation.getPipes().nextUnscored();
+                double targetY = next != null ? next.getGapY() : GameSimulation.WORLD_HEIGHT / 2;
+                if (bird.getVelocity() >= 0 && bird.getY() > targetY + random.nextInt(slack)) {
+                    simulation.jump();
+                }
+                simulation.update();
+            }
+            byte[] bytes = recorder.getLastReplay().toBytes();
+            if (run % 10 == 9) {
+                bytes[SCORE_OFFSET + 3]++; // Claim a score the inputs don't reach
+            }
+            submissions[run] = bytes;
+        }
+        return submissions;
+    }
+}
@@ -0,0 +1,1195 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Decodes the AAC-LC track of an .m4a/.mp4 file to 16-bit PCM, so sound
+ * effects can be mixed from the assets as shipped (javax.sound has no AAC
+ * support).
+ *
+ * Handles what AAC-LC encoders produce: mono or stereo at 44.1/48 kHz, long
+ * and short windows, M/S and intensity stereo, noise substitution and TNS.
+ * Encoder delay and padding are trimmed using the track's edit list.
+ * HE-AAC, Main/LTP profiles and multichannel layouts are rejected.
+ */
+public final class AacDecoder {
+
+    private static final int FRAME = 1024;
+    private static final int SHORT_FRAME = 128;
+    private static final int MAX_BANDS = 64;
+    private static final int[] SAMPLE_RATES = {
+            96000, 88200, 64000, 48000, 44100, 32000, 24000, 22050, 16000, 12000, 11025, 8000, 7350
+    };
+
+    // Syntax element ids
+    private static final int ID_SCE = 0;
+    private static final int ID_CPE = 1;
+    private static final int ID_DSE = 4;
+    private static final int ID_FIL = 6;
+    private static final int ID_END = 7;
+
+    // Window sequences
+    private static final int ONLY_LONG = 0;
+    private static final int LONG_START = 1;
+    private static final int EIGHT_SHORT = 2;
+    private static final int LONG_STOP = 3;
+
+    // Band types beyond the spectral codebooks 1..11
+    private static final int ZERO_BAND = 0;
+    private static final int ESCAPE_BOOK = 11;
+    private static final int NOISE_BAND = 13;
+    private static final int INTENSITY_OUT_OF_PHASE = 14;
+    private static final int INTENSITY_IN_PHASE = 15;
+
+    // TNS limits for AAC-LC at 44.1/48 kHz
+    private static final int TNS_MAX_ORDER_LONG = 12;
+    private static final int TNS_MAX_ORDER_SHORT = 7;
+    private static final int TNS_MAX_BANDS_SHORT = 14;
+
+    // ===== CODEBOOKS =====
+
+    private static final int[] SCALEFACTOR_TREE = buildTree(AacTables.SCALEFACTOR_CODES, AacTables.SCALEFACTOR_BITS);
+    private static final int[][] BOOK_TREES = {
+            null,
+            buildTree(AacTables.BOOK1_CODES, AacTables.BOOK1_BITS),
+            buildTree(AacTables.BOOK2_CODES, AacTables.BOOK2_BITS),
+            buildTree(AacTables.BOOK3_CODES, AacTables.BOOK3_BITS),
+            buildTree(AacTables.BOOK4_CODES, AacTables.BOOK4_BITS),
+            buildTree(AacTables.BOOK5_CODES, AacTables.BOOK5_BITS),
+            buildTree(AacTables.BOOK6_CODES, AacTables.BOOK6_BITS),
+            buildTree(AacTables.BOOK7_CODES, AacTables.BOOK7_BITS),
+            buildTree(AacTables.BOOK8_CODES, AacTables.BOOK8_BITS),
+            buildTree(AacTables.BOOK9_CODES, AacTables.BOOK9_BITS),
+            buildTree(AacTables.BOOK10_CODES, AacTables.BOOK10_BITS),
+            buildTree(AacTables.BOOK11_CODES, AacTables.BOOK11_BITS)
+    };
+    // Values per codeword, the value range (as a radix) and its offset
+    private static final int[] BOOK_DIMENSION = {0, 4, 4, 4, 4, 2, 2, 2, 2, 2, 2, 2};
+    private static final int[] BOOK_RADIX = {0, 3, 3, 3, 3, 9, 9, 8, 8, 13, 13, 17};
+    private static final int[] BOOK_OFFSET = {0, 1, 1, 0, 0, 4, 4, 0, 0, 0, 0, 0};
+
+    private static final float[] POW_4_3 = new float[8192];
+
+    static {
+        for (int i = 0; i < POW_4_3.length; i++) {
+            POW_4_3[i] = (float) Math.pow(i, 4.0 / 3.0);
+        }
+    }
+
+    // ===== DECODER STATE =====
+
+    private final int channels;
+    private final int tnsMaxBandsLong;
+    private final Imdct longImdct = new Imdct(2 * FRAME);
+    private final Imdct shortImdct = new Imdct(2 * SHORT_FRAME);
+    private final float[][] longWindows = {sineWindow(2 * FRAME), kbdWindow(2 * FRAME, 4)};
+    private final float[][] shortWindows = {sineWindow(2 * SHORT_FRAME), kbdWindow(2 * SHORT_FRAME, 6)};
+
+    private final Ics[] streams = {new Ics(), new Ics()};
+    private final boolean[] msUsed = new boolean[8 * MAX_BANDS];
+    private final float[][] overlap = new float[2][FRAME];
+    private final int[] previousShape = new int[2];
+    private final float[] timeBuffer = new float[2 * FRAME];
+    private final float[] shortBuffer = new float[2 * SHORT_FRAME];
+    private final float[] tnsLpc = new float[TNS_MAX_ORDER_LONG + 1];
+    private final float[] tnsState = new float[TNS_MAX_ORDER_LONG];
+    private int noiseSeed = 0x1F2E3D4C;
+
+    private AacDecoder(int sampleRate, int channels) {
+        this.channels = channels;
+        this.tnsMaxBandsLong = sampleRate == 44100 ? 42 : 40;
+    }
+
+    /**
+     * Decode the first AAC track of an MP4 file
+     *
+     * @return 16-bit little-endian PCM at the track's rate and channel count
+     * @throws IOException if the file is unreadable, corrupt or not AAC-LC
+     */
+    public static AudioInputStream decode(File file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        Mp4Track track = new Mp4Track();
+        track.parse(data, 0, data.limit());
+        if (track.config == null || track.sampleSizes == null || track.chunkOffsets == null) {
+            throw new IOException("No AAC audio track");
+        }
+
+        // AudioSpecificConfig
+        BitReader config = new BitReader(track.config, 0, track.config.length);
+        int objectType = config.read(5);
+        int rateIndex = config.read(4);
+        int sampleRate = rateIndex == 15 ? config.read(24) : rateIndex < SAMPLE_RATES.length ? SAMPLE_RATES[rateIndex] : 0;
+        int channelConfig = config.read(4);
+        if (objectType != 2 || config.read(1) != 0) {
+            throw new IOException("Only AAC-LC with 1024-sample frames is supported (object type " + objectType + ")");
+        }
+        if (sampleRate != 44100 && sampleRate != 48000) {
+            throw new IOException("Unsupported sample rate " + sampleRate);
+        }
+        if (channelConfig != 1 && channelConfig != 2) {
+            throw new IOException("Unsupported channel configuration " + channelConfig);
+        }
+
+        int frames = track.sampleSizes.length;
+        short[] pcm = new short[frames * FRAME * channelConfig];
+        AacDecoder decoder = new AacDecoder(sampleRate, channelConfig);
+        long[] offsets = track.sampleOffsets();
+        byte[] bytes = data.array();
+        for (int i = 0; i < frames; i++) {
+            long end = offsets[i] + track.sampleSizes[i];
+            if (end > bytes.length) {
+                throw new IOException("Truncated AAC track");
+            }
+            decoder.decodeFrame(new BitReader(bytes, (int) offsets[i], track.sampleSizes[i]), pcm, i * FRAME);
+        }
+
+        // Drop the encoder delay and padding
+        long skip = 0;
+        long keep = (long) frames * FRAME;
+        if (track.editMediaTime > 0 && track.mediaTimescale > 0) {
+            skip = track.editMediaTime * sampleRate / track.mediaTimescale;
+        }
+        if (track.editDuration > 0 && track.movieTimescale > 0) {
+            keep = track.editDuration * sampleRate / track.movieTimescale;
+        }
+        skip = Math.min(skip, (long) frames * FRAME);
+        keep = Math.min(keep, (long) frames * FRAME - skip);
+
+        byte[] out = new byte[(int) (keep * channelConfig * 2)];
+        int from = (int) (skip * channelConfig);
+        for (int i = 0; i < out.length / 2; i++) {
+            short sample = pcm[from + i];
+            out[i * 2] = (byte) sample;
+            out[i * 2 + 1] = (byte) (sample >> 8);
+        }
+        AudioFormat format = new AudioFormat(sampleRate, 16, channelConfig, true, false);
+        return new AudioInputStream(new ByteArrayInputStream(out), format, keep);
+    }
+
+    // ===== BITSTREAM =====
+
+    /**
+     * Decode one raw_data_block into the interleaved PCM buffer
+     */
+    private void decodeFrame(BitReader in, short[] pcm, int frameOffset) throws IOException {
+        int decoded = 0;
+        while (true) {
+            int id = in.read(3);
+            switch (id) {
+                case ID_SCE:
+                    in.read(4); // Element instance tag
+                    if (decoded >= channels) {
+                        throw corrupt();
+                    }
+                    decodeStream(in, streams[decoded], false);
+                    reconstruct(streams[decoded], null);
+                    applyTns(streams[decoded]);
+                    synthesize(decoded, pcm, frameOffset);
+                    decoded++;
+                    break;
+                case ID_CPE:
+                    in.read(4);
+                    if (decoded != 0 || channels != 2) {
+                        throw corrupt();
+                    }
+                    decodePair(in);
+                    synthesize(0, pcm, frameOffset);
+                    synthesize(1, pcm, frameOffset);
+                    decoded = 2;
+                    break;
+                case ID_DSE: {
+                    in.read(4);
+                    boolean align = in.read(1) == 1;
+                    int count = in.read(8);
+                    if (count == 255) {
+                        count += in.read(8);
+                    }
+                    if (align) {
+                        in.byteAlign();
+                    }
+                    in.skip(count * 8);
+                    break;
+                }
+                case ID_FIL: {
+                    int count = in.read(4);
+                    if (count == 15) {
+                        count += in.read(8) - 1;
+                    }
+                    in.skip(count * 8);
+                    break;
+                }
+                case ID_END:
+                    // A frame that does not end in its last byte was misparsed
+                    if (decoded != channels || in.remaining() >= 8) {
+                        throw corrupt();
+                    }
+                    return;
+                default:
+                    throw new IOException("Unsupported AAC syntax element " + id);
+            }
+        }
+    }
+
+    private void decodePair(BitReader in) throws IOException {
+        Ics left = streams[0];
+        Ics right = streams[1];
+        boolean commonWindow = in.read(1) == 1;
+        int msMask = 0;
+        if (commonWindow) {
+            readIcsInfo(in, left);
+            right.copyInfo(left);
+            msMask = in.read(2);
+            if (msMask == 3) {
+                throw corrupt();
+            }
+            for (int g = 0; g < left.groups; g++) {
+                for (int band = 0; band < left.maxBand; band++) {
+                    msUsed[g * MAX_BANDS + band] = msMask == 2 || (msMask == 1 && in.read(1) == 1);
+                }
+            }
+        }
+        decodeStream(in, left, commonWindow);
+        decodeStream(in, right, commonWindow);
+
+        reconstruct(left, null);
+        reconstruct(right, msMask != 0 ? left : null);
+        if (msMask != 0) {
+            applyMidSide(left, right);
+        }
+        applyIntensity(left, right, msMask != 0);
+        applyTns(left);
+        applyTns(right);
+    }
+
+    private void readIcsInfo(BitReader in, Ics ics) throws IOException {
+        in.read(1); // Reserved
+        ics.windowSequence = in.read(2);
+        ics.windowShape = in.read(1);
+        if (ics.windowSequence == EIGHT_SHORT) {
+            ics.maxBand = in.read(4);
+            int grouping = in.read(7);
+            ics.windows = 8;
+            ics.groups = 1;
+            ics.groupLength[0] = 1;
+            for (int w = 1; w < 8; w++) {
+                if ((grouping & (1 << (7 - w))) != 0) {
+                    ics.groupLength[ics.groups - 1]++;
+                } else {
+                    ics.groupLength[ics.groups++] = 1;
+                }
+            }
+            ics.bandOffsets = AacTables.SWB_OFFSET_SHORT;
+        } else {
+            ics.maxBand = in.read(6);
+            if (in.read(1) == 1) {
+                throw new IOException("AAC prediction is not supported");
+            }
+            ics.windows = 1;
+            ics.groups = 1;
+            ics.groupLength[0] = 1;
+            ics.bandOffsets = AacTables.SWB_OFFSET_LONG;
+        }
+        if (ics.maxBand > ics.bandCount()) {
+            throw corrupt();
+        }
+    }
+
+    /**
+     * individual_channel_stream: everything one channel needs but the
+     * stereo tools
+     */
+    private void decodeStream(BitReader in, Ics ics, boolean commonWindow) throws IOException {
+        int globalGain = in.read(8);
+        if (!commonWindow) {
+            readIcsInfo(in, ics);
+        }
+        readSections(in, ics);
+        readScalefactors(in, ics, globalGain);
+
+        ics.pulse = in.read(1) == 1;
+        if (ics.pulse) {
+            if (ics.windowSequence == EIGHT_SHORT) {
+                throw corrupt();
+            }
+            ics.pulseCount = in.read(2) + 1;
+            ics.pulseStartBand = in.read(6);
+            if (ics.pulseStartBand >= ics.bandCount()) {
+                throw corrupt();
+            }
+            for (int i = 0; i < ics.pulseCount; i++) {
+                ics.pulseOffset[i] = in.read(5);
+                ics.pulseAmplitude[i] = in.read(4);
+            }
+        }
+        ics.tns = in.read(1) == 1;
+        if (ics.tns) {
+            readTns(in, ics);
+        }
+        if (in.read(1) == 1) {
+            throw new IOException("AAC gain control is not supported");
+        }
+        readSpectrum(in, ics);
+    }
+
+    private static void readSections(BitReader in, Ics ics) throws IOException {
+        int lengthBits = ics.windowSequence == EIGHT_SHORT ? 3 : 5;
+        int escape = (1 << lengthBits) - 1;
+        for (int g = 0; g < ics.groups; g++) {
+            int band = 0;
+            while (band < ics.maxBand) {
+                int type = in.read(4);
+                if (type == 12) {
+                    throw corrupt();
+                }
+                int length = 0;
+                int increment;
+                do {
+                    increment = in.read(lengthBits);
+                    length += increment;
+                } while (increment == escape);
+                if (band + length > ics.maxBand) {
+                    throw corrupt();
+                }
+                for (int end = band + length; band < end; band++) {
+                    ics.bandType[g * MAX_BANDS + band] = type;
+                }
+            }
+        }
+    }
+
+    private static void readScalefactors(BitReader in, Ics ics, int globalGain) throws IOException {
+        int scale = globalGain;
+        int intensity = 0;
+        int noise = globalGain - 90;
+        boolean firstNoise = true;
+        for (int g = 0; g < ics.groups; g++) {
+            for (int band = 0; band < ics.maxBand; band++) {
+                int index = g * MAX_BANDS + band;
+                switch (ics.bandType[index]) {
+                    case ZERO_BAND:
+                        ics.scale[index] = 0;
+                        break;
+                    case INTENSITY_OUT_OF_PHASE:
+                    case INTENSITY_IN_PHASE:
+                        intensity += decodeHuffman(in, SCALEFACTOR_TREE) - 60;
+                        ics.scale[index] = intensity;
+                        break;
+                    case NOISE_BAND:
+                        if (firstNoise) {
+                            noise += in.read(9) - 256;
+                            firstNoise = false;
+                        } else {
+                            noise += decodeHuffman(in, SCALEFACTOR_TREE) - 60;
+                        }
+                        ics.scale[index] = noise;
+                        break;
+                    default:
+                        scale += decodeHuffman(in, SCALEFACTOR_TREE) - 60;
+                        if (scale < 0 || scale > 255) {
+                            throw corrupt();
+                        }
+                        ics.scale[index] = scale;
+                }
+            }
+        }
+    }
+
+    private static void readTns(BitReader in, Ics ics) throws IOException {
+        boolean isShort = ics.windowSequence == EIGHT_SHORT;
+        int maxOrder = isShort ? TNS_MAX_ORDER_SHORT : TNS_MAX_ORDER_LONG;
+        for (int w = 0; w < ics.windows; w++) {
+            int filters = in.read(isShort ? 1 : 2);
+            ics.tnsFilters[w] = filters;
+            int resolution = filters > 0 ? in.read(1) + 3 : 0;
+            for (int f = 0; f < filters; f++) {
+                int i = w * 3 + f;
+                ics.tnsLength[i] = in.read(isShort ? 4 : 6);
+                int order = in.read(isShort ? 3 : 5);
+                if (order > maxOrder) {
+                    throw corrupt();
+                }
+                ics.tnsOrder[i] = order;
+                if (order == 0) {
+                    continue;
+                }
+                ics.tnsDown[i] = in.read(1) == 1;
+                int bits = resolution - in.read(1);
+                double positive = ((1 << (resolution - 1)) - 0.5) / (Math.PI / 2);
+                double negative = ((1 << (resolution - 1)) + 0.5) / (Math.PI / 2);
+                for (int k = 0; k < order; k++) {
+                    int value = in.read(bits);
+                    if (value >= 1 << (bits - 1)) {
+                        value -= 1 << bits;
+                    }
+                    ics.tnsCoefficients[i * TNS_MAX_ORDER_LONG + k] =
+                            (float) Math.sin(value / (value >= 0 ? positive : negative));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the quantized spectrum; short windows are stored window after window
+     */
+    private static void readSpectrum(BitReader in, Ics ics) throws IOException {
+        int[] quant = ics.quant;
+        Arrays.fill(quant, 0);
+        int[] offsets = ics.bandOffsets;
+        int window = 0;
+        for (int g = 0; g < ics.groups; g++) {
+            for (int band = 0; band < ics.maxBand; band++) {
+                int book = ics.bandType[g * MAX_BANDS + band];
+                if (book == ZERO_BAND || book >= NOISE_BAND) {
+                    continue;
+                }
+                int dimension = BOOK_DIMENSION[book];
+                for (int w = window; w < window + ics.groupLength[g]; w++) {
+                    int base = w * SHORT_FRAME;
+                    for (int k = offsets[band]; k < offsets[band + 1]; k += dimension) {
+                        readCodeword(in, book, quant, base + k);
+                    }
+                }
+            }
+            window += ics.groupLength[g];
+        }
+
+        if (ics.pulse) {
+            int k = offsets[ics.pulseStartBand];
+            for (int i = 0; i < ics.pulseCount; i++) {
+                k += ics.pulseOffset[i];
+                if (k >= FRAME) {
+                    throw corrupt();
+                }
+                quant[k] += quant[k] > 0 ? ics.pulseAmplitude[i] : -ics.pulseAmplitude[i];
+            }
+        }
+    }
+
+    private static void readCodeword(BitReader in, int book, int[] quant, int at) throws IOException {
+        int index = decodeHuffman(in, BOOK_TREES[book]);
+        int dimension = BOOK_DIMENSION[book];
+        int radix = BOOK_RADIX[book];
+        int offset = BOOK_OFFSET[book];
+        for (int i = dimension - 1; i >= 0; i--) {
+            quant[at + i] = index % radix - offset;
+            index /= radix;
+        }
+        if (offset != 0) {
+            return; // Signed codebook
+        }
+        for (int i = 0; i < dimension; i++) {
+            if (quant[at + i] != 0 && in.read(1) == 1) {
+                quant[at + i] = -quant[at + i];
+            }
+        }
+        if (book == ESCAPE_BOOK) {
+            for (int i = 0; i < 2; i++) {
+                int value = quant[at + i];
+                if (Math.abs(value) == 16) {
+                    int bits = 4;
+                    while (in.read(1) == 1) {
+                        if (++bits > 12) {
+                            throw corrupt();
+                        }
+                    }
+                    int escaped = (1 << bits) + in.read(bits);
+                    quant[at + i] = value < 0 ? -escaped : escaped;
+                }
+            }
+        }
+    }
+
+    // ===== SPECTRAL PROCESSING =====
+
+    /**
+     * Dequantize and scale the spectrum, and fill noise bands. In a stereo
+     * pair with M/S, a noise band shared by both channels reuses the left
+     * channel's noise.
+     */
+    private void reconstruct(Ics ics, Ics pairedLeft) {
+        float[] spectrum = ics.spectrum;
+        Arrays.fill(spectrum, 0f);
+        int[] offsets = ics.bandOffsets;
+        int window = 0;
+        for (int g = 0; g < ics.groups; g++) {
+            for (int band = 0; band < ics.maxBand; band++) {
+                int index = g * MAX_BANDS + band;
+                int type = ics.bandType[index];
+                if (type == ZERO_BAND || type == INTENSITY_IN_PHASE || type == INTENSITY_OUT_OF_PHASE) {
+                    continue;
+                }
+                if (type == NOISE_BAND) {
+                    if (pairedLeft != null && msUsed[index] && pairedLeft.bandType[index] == NOISE_BAND) {
+                        noiseSeed = pairedLeft.noiseSeed[index];
+                    }
+                    ics.noiseSeed[index] = noiseSeed;
+                }
+                float gain = (float) Math.pow(2, 0.25 * (ics.scale[index] - 100));
+                for (int w = window; w < window + ics.groupLength[g]; w++) {
+                    int start = w * SHORT_FRAME + offsets[band];
+                    int end = w * SHORT_FRAME + offsets[band + 1];
+                    if (type == NOISE_BAND) {
+                        fillNoise(spectrum, start, end, ics.scale[index]);
+                        continue;
+                    }
+                    for (int k = start; k < end; k++) {
+                        int q = ics.quant[k];
+                        spectrum[k] = q >= 0 ? POW_4_3[q] * gain : -POW_4_3[-q] * gain;
+                    }
+                }
+            }
+            window += ics.groupLength[g];
+        }
+    }
+
+    private void fillNoise(float[] spectrum, int start, int end, int energy) {
+        double sum = 0;
+        for (int k = start; k < end; k++) {
+            noiseSeed = noiseSeed * 1664525 + 1013904223;
+            spectrum[k] = noiseSeed;
+            sum += (double) spectrum[k] * spectrum[k];
+        }
+        float scale = (float) (Math.pow(2, 0.25 * Math.max(-100, Math.min(155, energy))) / Math.sqrt(sum));
+        for (int k = start; k < end; k++) {
+            spectrum[k] *= scale;
+        }
+    }
+
+    private void applyMidSide(Ics left, Ics right) {
+        int[] offsets = left.bandOffsets;
+        int window = 0;
+        for (int g = 0; g < left.groups; g++) {
+            for (int band = 0; band < left.maxBand; band++) {
+                int index = g * MAX_BANDS + band;
+                if (!msUsed[index] || left.bandType[index] >= NOISE_BAND || right.bandType[index] >= NOISE_BAND) {
+                    continue;
+                }
+                for (int w = window; w < window + left.groupLength[g]; w++) {
+                    for (int k = w * SHORT_FRAME + offsets[band]; k < w * SHORT_FRAME + offsets[band + 1]; k++) {
+                        float mid = left.spectrum[k];
+                        float side = right.spectrum[k];
+                        left.spectrum[k] = mid + side;
+                        right.spectrum[k] = mid - side;
+                    }
+                }
+            }
+            window += left.groupLength[g];
+        }
+    }
+
+    private void applyIntensity(Ics left, Ics right, boolean msPresent) {
+        int[] offsets = right.bandOffsets;
+        int window = 0;
+        for (int g = 0; g < right.groups; g++) {
+            for (int band = 0; band < right.maxBand; band++) {
+                int index = g * MAX_BANDS + band;
+                int type = right.bandType[index];
+                if (type != INTENSITY_IN_PHASE && type != INTENSITY_OUT_OF_PHASE) {
+                    continue;
+                }
+                float scale = (float) Math.pow(2, -0.25 * right.scale[index]);
+                if ((type == INTENSITY_OUT_OF_PHASE) != (msPresent && msUsed[index])) {
+                    scale = -scale;
+                }
+                for (int w = window; w < window + right.groupLength[g]; w++) {
+                    for (int k = w * SHORT_FRAME + offsets[band]; k < w * SHORT_FRAME + offsets[band + 1]; k++) {
+                        right.spectrum[k] = left.spectrum[k] * scale;
+                    }
+                }
+            }
+            window += right.groupLength[g];
+        }
+    }
+
+    private void applyTns(Ics ics) {
+        if (!ics.tns) {
+            return;
+        }
+        boolean isShort = ics.windowSequence == EIGHT_SHORT;
+        int bands = ics.bandCount();
+        int maxBands = Math.min(isShort ? TNS_MAX_BANDS_SHORT : tnsMaxBandsLong, ics.maxBand);
+        for (int w = 0; w < ics.windows; w++) {
+            int bottom = bands;
+            for (int f = 0; f < ics.tnsFilters[w]; f++) {
+                int i = w * 3 + f;
+                int top = bottom;
+                bottom = Math.max(top - ics.tnsLength[i], 0);
+                int order = ics.tnsOrder[i];
+                if (order == 0) {
+                    continue;
+                }
+                int start = ics.bandOffsets[Math.min(bottom, maxBands)];
+                int end = ics.bandOffsets[Math.min(top, maxBands)];
+                if (end <= start) {
+                    continue;
+                }
+
+                // Reflection coefficients to LPC (step-up recursion)
+                float[] lpc = tnsLpc;
+                lpc[0] = 1f;
+                for (int m = 1; m <= order; m++) {
+                    float k = ics.tnsCoefficients[i * TNS_MAX_ORDER_LONG + m - 1];
+                    for (int j = 1; j <= m / 2; j++) {
+                        float a = lpc[j];
+                        float b = lpc[m - j];
+                        lpc[j] = a + k * b;
+                        lpc[m - j] = b + k * a;
+                    }
+                    lpc[m] = k;
+                }
+
+                // All-pole filter across the band range
+                Arrays.fill(tnsState, 0, order, 0f);
+                int step = ics.tnsDown[i] ? -1 : 1;
+                int k = w * SHORT_FRAME + (ics.tnsDown[i] ? end - 1 : start);
+                for (int n = end - start; n > 0; n--, k += step) {
+                    float y = ics.spectrum[k];
+                    for (int j = 0; j < order; j++) {
+                        y -= lpc[j + 1] * tnsState[j];
+                    }
+                    System.arraycopy(tnsState, 0, tnsState, 1, order - 1);
+                    tnsState[0] = y;
+                    ics.spectrum[k] = y;
+                }
+            }
+        }
+    }
+
+    // ===== FILTERBANK =====
+
+    /**
+     * Inverse MDCT, windowing and overlap-add into the output frame
+     */
+    private void synthesize(int channel, short[] pcm, int frameOffset) {
+        Ics ics = streams[channel];
+        float[] out = timeBuffer;
+        float[] saved = overlap[channel];
+        float[] longPrevious = longWindows[previousShape[channel]];
+        float[] longCurrent = longWindows[ics.windowShape];
+        float[] shortPrevious = shortWindows[previousShape[channel]];
+        float[] shortCurrent = shortWindows[ics.windowShape];
+
+        if (ics.windowSequence == EIGHT_SHORT) {
+            Arrays.fill(out, 0f);
+            for (int w = 0; w < 8; w++) {
+                shortImdct.transform(ics.spectrum, w * SHORT_FRAME, shortBuffer);
+                float[] rising = w == 0 ? shortPrevious : shortCurrent;
+                int base = 448 + w * SHORT_FRAME;
+                for (int n = 0; n < SHORT_FRAME; n++) {
+                    out[base + n] += shortBuffer[n] * rising[n];
+                    out[base + SHORT_FRAME + n] += shortBuffer[SHORT_FRAME + n] * shortCurrent[SHORT_FRAME + n];
+                }
+            }
+        } else {
+            longImdct.transform(ics.spectrum, 0, out);
+            if (ics.windowSequence == LONG_STOP) {
+                Arrays.fill(out, 0, 448, 0f);
+                for (int n = 0; n < SHORT_FRAME; n++) {
+                    out[448 + n] *= shortPrevious[n];
+                }
+            } else {
+                for (int n = 0; n < FRAME; n++) {
+                    out[n] *= longPrevious[n];
+                }
+            }
+            if (ics.windowSequence == LONG_START) {
+                for (int n = 0; n < SHORT_FRAME; n++) {
+                    out[1472 + n] *= shortCurrent[SHORT_FRAME + n];
+                }
+                Arrays.fill(out, 1600, 2 * FRAME, 0f);
+            } else {
+                for (int n = FRAME; n < 2 * FRAME; n++) {
+                    out[n] *= longCurrent[n];
+                }
+            }
+        }
+
+        for (int n = 0; n < FRAME; n++) {
+            int value = Math.round(out[n] + saved[n]);
+            pcm[(frameOffset + n) * channels + channel] =
+                    (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+        }
+        System.arraycopy(out, FRAME, saved, 0, FRAME);
+        previousShape[channel] = ics.windowShape;
+    }
+
+    private static float[] sineWindow(int length) {
+        float[] window = new float[length];
+        for (int n = 0; n < length; n++) {
+            window[n] = (float) Math.sin(Math.PI / length * (n + 0.5));
+        }
+        return window;
+    }
+
+    /**
+     * Kaiser-Bessel derived window
+     */
+    private static float[] kbdWindow(int length, double alpha) {
+        int half = length / 2;
+        double[] kernel = new double[half + 1];
+        double total = 0;
+        for (int n = 0; n <= half; n++) {
+            double x = (n - half / 2.0) / (half / 2.0);
+            kernel[n] = besselI0(Math.PI * alpha * Math.sqrt(1 - x * x));
+            total += kernel[n];
+        }
+        float[] window = new float[length];
+        double sum = 0;
+        for (int n = 0; n < half; n++) {
+            sum += kernel[n];
+            window[n] = (float) Math.sqrt(sum / total);
+            window[length - 1 - n] = window[n];
+        }
+        return window;
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        for (int k = 1; k < 50; k++) {
+            term *= (x / (2 * k)) * (x / (2 * k));
+            sum += term;
+        }
+        return sum;
+    }
+
+    // ===== HUFFMAN =====
+
+    /**
+     * Binary decoding tree: pairs of child links, where a positive link is
+     * the next node, ~value is a leaf and 0 is an unused code
+     */
+    private static int[] buildTree(int[] codes, byte[] bits) {
+        int size = 2;
+        for (byte length : bits) {
+            size += 2 * length;
+        }
+        int[] tree = new int[size];
+        int next = 2;
+        for (int value = 0; value < codes.length; value++) {
+            int node = 0;
+            for (int b = bits[value] - 1; b > 0; b--) {
+                int link = node + ((codes[value] >> b) & 1);
+                if (tree[link] == 0) {
+                    tree[link] = next;
+                    next += 2;
+                }
+                node = tree[link];
+            }
+            tree[node + (codes[value] & 1)] = ~value;
+        }
+        return tree;
+    }
+
+    private static int decodeHuffman(BitReader in, int[] tree) throws IOException {
+        int node = 0;
+        do {
+            node = tree[node + in.read(1)];
+        } while (node > 0);
+        if (node == 0) {
+            throw corrupt();
+        }
+        return ~node;
+    }
+
+    private static IOException corrupt() {
+        return new IOException("Corrupt AAC data");
+    }
+
+    // ===== HELPERS =====
+
+    /**
+     * Per-channel state of the current frame
+     */
+    private static final class Ics {
+        private int windowSequence;
+        private int windowShape;
+        private int maxBand;
+        private int windows;
+        private int groups;
+        private final int[] groupLength = new int[8];
+        private int[] bandOffsets = AacTables.SWB_OFFSET_LONG;
+
+        private final int[] bandType = new int[8 * MAX_BANDS];
+        private final int[] scale = new int[8 * MAX_BANDS];
+        private final int[] noiseSeed = new int[8 * MAX_BANDS];
+
+        private boolean pulse;
+        private int pulseCount;
+        private int pulseStartBand;
+        private final int[] pulseOffset = new int[4];
+        private final int[] pulseAmplitude = new int[4];
+
+        private boolean tns;
+        private final int[] tnsFilters = new int[8];
+        private final int[] tnsLength = new int[8 * 3];
+        private final int[] tnsOrder = new int[8 * 3];
+        private final boolean[] tnsDown = new boolean[8 * 3];
+        private final float[] tnsCoefficients = new float[8 * 3 * TNS_MAX_ORDER_LONG];
+
+        private final int[] quant = new int[FRAME];
+        private final float[] spectrum = new float[FRAME];
+
+        private int bandCount() {
+            return bandOffsets.length - 1;
+        }
+
+        private void copyInfo(Ics other) {
+            windowSequence = other.windowSequence;
+            windowShape = other.windowShape;
+            maxBand = other.maxBand;
+            windows = other.windows;
+            groups = other.groups;
+            System.arraycopy(other.groupLength, 0, groupLength, 0, groupLength.length);
+            bandOffsets = other.bandOffsets;
+        }
+    }
+
+    /**
+     * MSB-first reader over one access unit
+     */
+    private static final class BitReader {
+        private final byte[] data;
+        private final long limit;
+        private long position;
+
+        private BitReader(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = (long) offset * 8;
+            this.limit = (long) (offset + length) * 8;
+        }
+
+        private int read(int bits) throws IOException {
+            if (position + bits > limit) {
+                throw corrupt();
+            }
+            int value = 0;
+            for (int i = 0; i < bits; i++, position++) {
+                value = (value << 1) | ((data[(int) (position >> 3)] >> (7 - (position & 7))) & 1);
+            }
+            return value;
+        }
+
+        private void skip(int bits) throws IOException {
+            if (position + bits > limit) {
+                throw corrupt();
+            }
+            position += bits;
+        }
+
+        private long remaining() {
+            return limit - position;
+        }
+
+        private void byteAlign() {
+            position = (position + 7) & ~7L;
+        }
+    }
+
+    /**
+     * Inverse MDCT of size n (n/2 coefficients in, n samples out), done as
+     * an n-point complex FFT with pre- and post-twiddles
+     */
+    private static final class Imdct {
+        private final int size;
+        private final float[] preCos;
+        private final float[] preSin;
+        private final float[] postCos;
+        private final float[] postSin;
+        private final float[] fftCos;
+        private final float[] fftSin;
+        private final int[] reversed;
+        private final float[] re;
+        private final float[] im;
+
+        private Imdct(int size) {
+            this.size = size;
+            int half = size / 2;
+            double n0 = (half + 1) / 2.0;
+            preCos = new float[half];
+            preSin = new float[half];
+            for (int k = 0; k < half; k++) {
+                double angle = Math.PI * k * n0 / half;
+                preCos[k] = (float) Math.cos(angle);
+                preSin[k] = (float) Math.sin(angle);
+            }
+            postCos = new float[size];
+            postSin = new float[size];
+            for (int n = 0; n < size; n++) {
+                double angle = Math.PI * (n + n0) / size;
+                postCos[n] = (float) (Math.cos(angle) * 2 / size);
+                postSin[n] = (float) (Math.sin(angle) * 2 / size);
+            }
+            fftCos = new float[half];
+            fftSin = new float[half];
+            for (int i = 0; i < half; i++) {
+                fftCos[i] = (float) Math.cos(2 * Math.PI * i / size);
+                fftSin[i] = (float) Math.sin(2 * Math.PI * i / size);
+            }
+            int bits = Integer.numberOfTrailingZeros(size);
+            reversed = new int[size];
+            for (int i = 0; i < size; i++) {
+                reversed[i] = Integer.reverse(i) >>> (32 - bits);
+            }
+            re = new float[size];
+            im = new float[size];
+        }
+
+        private void transform(float[] input, int offset, float[] output) {
+            int half = size / 2;
+            Arrays.fill(re, 0f);
+            Arrays.fill(im, 0f);
+            for (int k = 0; k < half; k++) {
+                int to = reversed[k];
+                re[to] = input[offset + k] * preCos[k];
+                im[to] = input[offset + k] * preSin[k];
+            }
+
+            // Radix-2 inverse FFT
+            for (int length = 2; length <= size; length <<= 1) {
+                int stride = size / length;
+                int span = length / 2;
+                for (int start = 0; start < size; start += length) {
+                    for (int j = 0; j < span; j++) {
+                        float c = fftCos[j * stride];
+                        float s = fftSin[j * stride];
+                        int a = start + j;
+                        int b = a + span;
+                        float tr = re[b] * c - im[b] * s;
+                        float ti = re[b] * s + im[b] * c;
+                        re[b] = re[a] - tr;
+                        im[b] = im[a] - ti;
+                        re[a] += tr;
+                        im[a] += ti;
+                    }
+                }
+            }
+
+            for (int n = 0; n < size; n++) {
+                output[n] = re[n] * postCos[n] - im[n] * postSin[n];
+            }
+        }
+    }
+
+    /**
+     * The parts of an MP4 file needed to find the AAC frames of the first
+     * sound track
+     */
+    private static final class Mp4Track {
+        private byte[] config;
+        private int[] sampleSizes;
+        private long[] chunkOffsets;
+        private int[] chunkRunFirst;
+        private int[] chunkRunSamples;
+        private long movieTimescale;
+        private long mediaTimescale;
+        private long editMediaTime;
+        private long editDuration;
+
+        private boolean inSoundTrack;
+        private boolean done;
+
+        private void parse(ByteBuffer data, int start, int end) throws IOException {
+            int position = start;
+            while (position + 8 <= end && !done) {
+                long size = data.getInt(position) & 0xFFFFFFFFL;
+                String type = fourCc(data.getInt(position + 4));
+                int header = 8;
+                if (size == 1) {
+                    size = data.getLong(position + 8);
+                    header = 16;
+                } else if (size == 0) {
+                    size = end - position;
+                }
+                if (size < header || position + size > end) {
+                    throw new IOException("Corrupt MP4 box " + type);
+                }
+                int body = position + header;
+                int bodyEnd = (int) (position + size);
+                switch (type) {
+                    case "moov", "mdia", "minf", "stbl", "edts" -> parse(data, body, bodyEnd);
+                    case "trak" -> {
+                        parseTrack(data, body, bodyEnd);
+                    }
+                    case "mvhd" -> movieTimescale = data.getInt(body + (data.get(body) == 1 ? 20 : 12)) & 0xFFFFFFFFL;
+                    case "mdhd" -> mediaTimescale = data.getInt(body + (data.get(body) == 1 ? 20 : 12)) & 0xFFFFFFFFL;
+                    case "hdlr" -> inSoundTrack = fourCc(data.getInt(body + 8)).equals("soun");
+                    case "elst" -> parseEditList(data, body);
+                    case "stsd" -> parseSampleEntry(data, body + 8, bodyEnd);
+                    case "stsz" -> {
+                        int fixed = data.getInt(body + 4);
+                        int count = data.getInt(body + 8);
+                        checkCount(count, fixed != 0 ? 0 : 4, body + 12, bodyEnd);
+                        sampleSizes = new int[count];
+                        for (int i = 0; i < count; i++) {
+                            sampleSizes[i] = fixed != 0 ? fixed : data.getInt(body + 12 + i * 4);
+                        }
+                    }
+                    case "stco", "co64" -> {
+                        boolean wide = type.equals("co64");
+                        int count = data.getInt(body + 4);
+                        checkCount(count, wide ? 8 : 4, body + 8, bodyEnd);
+                        chunkOffsets = new long[count];
+                        for (int i = 0; i < count; i++) {
+                            chunkOffsets[i] = wide ? data.getLong(body + 8 + i * 8)
+                                    : data.getInt(body + 8 + i * 4) & 0xFFFFFFFFL;
+                        }
+                    }
+                    case "stsc" -> {
+                        int count = data.getInt(body + 4);
+                        checkCount(count, 12, body + 8, bodyEnd);
+                        chunkRunFirst = new int[count];
+                        chunkRunSamples = new int[count];
+                        for (int i = 0; i < count; i++) {
+                            chunkRunFirst[i] = data.getInt(body + 8 + i * 12) - 1;
+                            chunkRunSamples[i] = data.getInt(body + 12 + i * 12);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                position = bodyEnd;
+            }
+        }
+
+        /**
+         * Parse a track, keeping its tables only if it's the first sound track
+         */
+        private void parseTrack(ByteBuffer data, int start, int end) throws IOException {
+            Mp4Track track = new Mp4Track();
+            track.parse(data, start, end);
+            if (track.inSoundTrack && track.config != null) {
+                config = track.config;
+                sampleSizes = track.sampleSizes;
+                chunkOffsets = track.chunkOffsets;
+                chunkRunFirst = track.chunkRunFirst;
+                chunkRunSamples = track.chunkRunSamples;
+                mediaTimescale = track.mediaTimescale;
+                editMediaTime = track.editMediaTime;
+                editDuration = track.editDuration;
+                done = true;
+            }
+        }
+
+        private void parseEditList(ByteBuffer data, int body) {
+            boolean wide = data.get(body) == 1;
+            int count = data.getInt(body + 4);
+            int entry = body + 8;
+            for (int i = 0; i < count; i++, entry += wide ? 20 : 12) {
+                long duration = wide ? data.getLong(entry) : data.getInt(entry) & 0xFFFFFFFFL;
+                long mediaTime = wide ? data.getLong(entry + 8) : data.getInt(entry + 4);
+                if (mediaTime >= 0) {
+                    editDuration = duration;
+                    editMediaTime = mediaTime;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Find the AudioSpecificConfig in mp4a > esds
+         */
+        private void parseSampleEntry(ByteBuffer data, int entry, int end) throws IOException {
+            if (entry + 36 > end || !fourCc(data.getInt(entry + 4)).equals("mp4a")) {
+                return;
+            }
+            int version = data.getShort(entry + 16);
+            int child = entry + 36 + (version == 1 ? 16 : version == 2 ? 36 : 0);
+            int entryEnd = Math.min(end, entry + data.getInt(entry));
+            while (child + 8 <= entryEnd) {
+                int size = data.getInt(child);
+                if (size < 8 || child + size > entryEnd) {
+                    throw new IOException("Corrupt MP4 sample entry");
+                }
+                if (fourCc(data.getInt(child + 4)).equals("esds")) {
+                    parseDescriptors(data, child + 12, child + size);
+                }
+                child += size;
+            }
+        }
+
+        private void parseDescriptors(ByteBuffer data, int position, int end) throws IOException {
+            while (position + 2 <= end) {
+                int tag = data.get(position++) & 0xFF;
+                int length = 0;
+                for (int i = 0; i < 4; i++) {
+                    int b = data.get(position++) & 0xFF;
+                    length = (length << 7) | (b & 0x7F);
+                    if ((b & 0x80) == 0) {
+                        break;
+                    }
+                }
+                if (position + length > end) {
+                    throw new IOException("Corrupt MP4 descriptor");
+                }
+                switch (tag) {
+                    case 0x03 -> { // ES_Descriptor
+                        int flags = data.get(position + 2) & 0xFF;
+                        int inner = position + 3;
+                        if ((flags & 0x80) != 0) {
+                            inner += 2;
+                        }
+                        if ((flags & 0x40) != 0) {
+                            inner += 1 + (data.get(inner) & 0xFF);
+                        }
+                        if ((flags & 0x20) != 0) {
+                            inner += 2;
+                        }
+                        parseDescriptors(data, inner, position + length);
+                    }
+                    case 0x04 -> { // DecoderConfigDescriptor
+                        int objectType = data.get(position) & 0xFF;
+                        if (objectType != 0x40 && objectType != 0x67) {
+                            throw new IOException("Not an AAC track (object type " + objectType + ")");
+                        }
+                        parseDescriptors(data, position + 13, position + length);
+                    }
+                    case 0x05 -> { // DecoderSpecificInfo
+                        config = new byte[length];
+                        data.get(position, config);
+                    }
+                    default -> {
+                    }
+                }
+                position += length;
+            }
+        }
+
+        private long[] sampleOffsets() throws IOException {
+            long[] offsets = new long[sampleSizes.length];
+            int sample = 0;
+            for (int chunk = 0; chunk < chunkOffsets.length && sample < offsets.length; chunk++) {
+                int run = 0;
+                while (run + 1 < chunkRunFirst.length && chunkRunFirst[run + 1] <= chunk) {
+                    run++;
+                }
+                long offset = chunkOffsets[chunk];
+                for (int i = 0; i < chunkRunSamples[run] && sample < offsets.length; i++) {
+                    offsets[sample] = offset;
+                    offset += sampleSizes[sample++];
+                }
+            }
+            if (sample != offsets.length) {
+                throw new IOException("Corrupt MP4 sample table");
+            }
+            return offsets;
+        }
+
+        private static void checkCount(int count, int entrySize, int start, int end) throws IOException {
+            if (count < 0 || (long) count * entrySize > end - start) {
+                throw new IOException("Corrupt MP4 sample table");
+            }
+        }
+
+        private static String fourCc(int value) {
+            return new String(new char[] {
+                    (char) ((value >> 24) & 0xFF), (char) ((value >> 16) & 0xFF),
+                    (char) ((value >> 8) & 0xFF), (char) (value & 0xFF)});
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts bytes allocated on the calling thread, used to check that
+ * steady-state frames render without creating garbage.
+ *
+ * Enable the in-game check with -Dflappy.allocCheck=true: after a warm-up,
+ * any frame whose render pass allocates is reported on the console.
+ */
+public class AllocationMeter {
+    private static final int WARM_UP_FRAMES = 300;
+    private static final int REPORT_INTERVAL_FRAMES = 600;
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    private long frameStart;
+    private long frames;
+    private long allocatingFrames;
+    private long worstFrameBytes;
+
+    public AllocationMeter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean) bean;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threads = null;
+            System.out.println("⚠ Allocation check not supported on this JVM");
+        }
+    }
+
+    /**
+     * Whether the in-game check was switched on from the command line
+     */
+    public static boolean isRequested() {
+        return Boolean.getBoolean("flappy.allocCheck");
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread, or -1 if unsupported
+     */
+    public long allocatedBytes() {
+        return threads != null ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    public void beginFrame() {
+        frameStart = allocatedBytes();
+    }
+
+    public void endFrame() {
+        if (threads == null) {
+            return;
+        }
+        long bytes = allocatedBytes() - frameStart;
+        frames++;
+        if (frames <= WARM_UP_FRAMES) {
+            return;
+        }
+
+        if (bytes > 0) {
+            allocatingFrames++;
+            worstFrameBytes = Math.max(worstFrameBytes, bytes);
+        }
+        if ((frames - WARM_UP_FRAMES) % REPORT_INTERVAL_FRAMES == 0) {
+            if (allocatingFrames == 0) {
+                System.out.println("✓ Allocation check: last " + REPORT_INTERVAL_FRAMES
+                        + " frames rendered without allocating");
+            } else {
+                System.out.println("⚠ Allocation check: " + allocatingFrames + " of last "
+                        + REPORT_INTERVAL_FRAMES + " frames allocated (worst " + worstFrameBytes + " bytes)");
+            }
+            allocatingFrames = 0;
+            worstFrameBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads sounds and avatars on a pool of background workers so the first
+ * frame isn't held up by media decoding, and logs cold-start timings
+ * (measured from JVM start).
+ */
+public class AssetLoader {
+    private static final int MAX_WORKERS = 4;
+
+    private final ExecutorService workers;
+    private boolean firstFrameLogged;
+
+    public AssetLoader() {
+        int threads = Math.max(2, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start loading every sound and avatar in parallel
+     *
+     * @return completes when all assets have been loaded and published
+     */
+    public CompletableFuture<Void> loadAll(SoundManager soundManager, AvatarManager avatarManager) {
+        CompletableFuture<Void> sounds = soundManager.loadSoundsAsync(workers);
+        CompletableFuture<Void> avatars = avatarManager.loadAvatarsAsync(workers);
+
+        return CompletableFuture.allOf(sounds, avatars).whenComplete((ignored, error) -> {
+            if (error != null) {
+                System.err.println("Error loading assets: " + error.getMessage());
+            }
+            System.out.println("⏱ Assets fully loaded after " + uptimeMillis() + " ms");
+            workers.shutdown();
+        });
+    }
+
+    /**
+     * Call once per rendered frame; logs the time to the first one
+     */
+    public void onFrameRendered() {
+        if (!firstFrameLogged) {
+            firstFrameLogged = true;
+            System.out.println("⏱ First frame after " + uptimeMillis() + " ms");
+        }
+    }
+
+    /**
+     * Stop any loading still in progress
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
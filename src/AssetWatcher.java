@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches asset folders and reports each file that is added, changed or
+ * removed, so new avatars and sounds show up without restarting the game.
+ *
+ * Copying a file in fires several events while it's being written, so a
+ * file is only reported once it has been quiet for a moment. Reports arrive
+ * on the watcher's own daemon thread; listeners do their decoding there or
+ * on their own workers, and publish on the JavaFX thread.
+ */
+public class AssetWatcher {
+    private static final long QUIET_NANOS = 300_000_000L; // 300 ms
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Told about one file (called on the watcher thread)
+     */
+    public interface Listener {
+        void fileChanged(Path file, boolean exists);
+    }
+
+    /**
+     * A file with events still settling
+     */
+    private static final class Pending {
+        final Listener listener;
+        long quietAt;
+
+        Pending(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> folders = new HashMap<>();
+    private final Map<WatchKey, Listener> listeners = new HashMap<>();
+    private final Map<Path, Pending> pending = new HashMap<>(); // Watcher thread only
+    private Thread thread;
+    private volatile boolean running;
+
+    public AssetWatcher() throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Report changes to the files directly in a folder (call before
+     * {@link #start})
+     */
+    public void watch(Path folder, Listener listener) {
+        if (!Files.isDirectory(folder)) {
+            System.out.println("⚠ Not watching " + folder + " (folder not found)");
+            return;
+        }
+        try {
+            WatchKey key = folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            folders.put(key, folder);
+            listeners.put(key, listener);
+        } catch (IOException e) {
+            System.err.println("✗ Can't watch " + folder + ": " + e.getMessage());
+        }
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "asset-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            System.err.println("✗ Failed to close asset watcher: " + e.getMessage());
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                WatchKey key = watchService.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    collect(key);
+                    key.reset();
+                }
+                reportQuietFiles();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Note the files a key's events touched, pushing back their report
+     */
+    private void collect(WatchKey key) {
+        Path folder = folders.get(key);
+        Listener listener = listeners.get(key);
+        long quietAt = System.nanoTime() + QUIET_NANOS;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                System.out.println("⚠ Missed some file changes in " + folder);
+                continue;
+            }
+            Path file = folder.resolve((Path) event.context());
+            pending.computeIfAbsent(file, ignored -> new Pending(listener)).quietAt = quietAt;
+        }
+    }
+
+    private void reportQuietFiles() {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Path, Pending>> it = pending.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Path, Pending> entry = it.next();
+            if (now - entry.getValue().quietAt < 0) {
+                continue;
+            }
+            it.remove();
+            Path file = entry.getKey();
+            try {
+                entry.getValue().listener.fileChanged(file, Files.exists(file));
+            } catch (RuntimeException e) {
+                System.err.println("✗ Failed to reload " + file + ": " + e.getMessage());
+            }
+        }
+    }
+}
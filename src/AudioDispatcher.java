@@ -0,0 +1,92 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Moves sound playback off the game thread.
+ *
+ * Triggers are a lock-free bit set: raising an event that is already pending
+ * is free, so repeated triggers within a frame collapse into one. At the end
+ * of each frame the game thread calls {@link #flush()}, which wakes the audio
+ * thread to play everything raised since the last flush.
+ */
+public final class AudioDispatcher {
+
+    /**
+     * Sound events, in the order they are played when raised together
+     */
+    public enum Event {
+        GAME_OVER, DANGER, SAFE, HIGH_ALTITUDE, MILESTONE;
+
+        private static final Event[] VALUES = values();
+    }
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Consumer<Event> player;
+    private final Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param player plays one event; always called on the audio thread
+     */
+    public AudioDispatcher(Consumer<Event> player) {
+        this.player = player;
+        this.running = true;
+        this.thread = new Thread(this::drainLoop, "audio-dispatch");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Raise an event (lock-free, allocation-free; safe from any thread)
+     */
+    public void trigger(Event event) {
+        int bit = 1 << event.ordinal();
+        int mask;
+        do {
+            mask = pending.get();
+            if ((mask & bit) != 0) {
+                return; // Already pending this frame
+            }
+        } while (!pending.compareAndSet(mask, mask | bit));
+    }
+
+    /**
+     * Hand this frame's events to the audio thread
+     */
+    public void flush() {
+        if (pending.get() != 0) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            LockSupport.park(this);
+            int mask = pending.getAndSet(0);
+            for (Event event : Event.VALUES) {
+                if ((mask & (1 << event.ordinal())) == 0) {
+                    continue;
+                }
+                try {
+                    player.accept(event);
+                } catch (Exception e) {
+                    System.err.println("Error playing " + event + " sound: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the audio thread
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
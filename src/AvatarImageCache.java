@@ -0,0 +1,261 @@
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The small images built from each avatar (bird sprite and picker
+ * thumbnail), kept in a least-recently-used cache bounded by pixel bytes.
+ *
+ * A miss returns null and queues the avatar to be decoded again on a
+ * background thread; its images show up a frame or so later, which
+ * {@link #getGeneration} reports. The cache itself is only touched on the
+ * JavaFX thread. Avatars are addressed by index, so the LRU list is kept in
+ * plain int arrays and a hit doesn't allocate.
+ *
+ * Each decode carries a token; if its avatar was invalidated or moved while
+ * it ran, the result no longer matches and is dropped.
+ */
+public class AvatarImageCache {
+    public static final long DEFAULT_BUDGET_BYTES = 8L << 20;
+
+    private static final int MAX_DECODERS = 2;
+
+    private static final byte EMPTY = 0;
+    private static final byte PENDING = 1;
+    private static final byte CACHED = 2;
+    private static final byte FAILED = 3;
+
+    /**
+     * Builds one avatar's images (called on a decoder thread)
+     */
+    public interface Decoder {
+        Image[] decode(int index) throws Exception;
+    }
+
+    private final Decoder decoder;
+    private final long budgetBytes;
+    private final ExecutorService decoders;
+
+    private Image[][] images = new Image[0][];
+    private byte[] status = new byte[0];
+    private long[] bytes = new long[0];
+    private int[] newer = new int[0]; // LRU links, -1 at either end
+    private int[] older = new int[0];
+    private int[] token = new int[0]; // Of the decode in flight, 0 if none
+    private int nextToken;
+    private int newest = -1;
+    private int oldest = -1;
+    private long usedBytes;
+    private int generation;
+
+    public AvatarImageCache(Decoder decoder, long budgetBytes) {
+        this.decoder = decoder;
+        this.budgetBytes = budgetBytes;
+        int threads = Math.max(1, Math.min(MAX_DECODERS, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger counter = new AtomicInteger();
+        this.decoders = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "avatar-decoder-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Make room for avatars 0..count-1
+     */
+    public void ensureCapacity(int count) {
+        if (count <= status.length) {
+            return;
+        }
+        images = Arrays.copyOf(images, count);
+        status = Arrays.copyOf(status, count);
+        bytes = Arrays.copyOf(bytes, count);
+        newer = Arrays.copyOf(newer, count);
+        older = Arrays.copyOf(older, count);
+        token = Arrays.copyOf(token, count);
+    }
+
+    /**
+     * One of an avatar's images, or null while it is being decoded (or if
+     * it couldn't be)
+     *
+     * @param slot index into the array the decoder returns
+     */
+    public Image get(int index, int slot) {
+        if (status[index] != CACHED) {
+            request(index);
+            return null;
+        }
+        if (index != newest) {
+            unlink(index);
+            linkNewest(index);
+        }
+        return images[index][slot];
+    }
+
+    /**
+     * Start decoding an avatar if it isn't cached or on its way
+     */
+    public void request(int index) {
+        if (index < 0 || index >= status.length || status[index] != EMPTY) {
+            return;
+        }
+        status[index] = PENDING;
+        int requestToken = ++nextToken;
+        token[index] = requestToken;
+        decoders.execute(() -> {
+            Image[] decoded;
+            try {
+                decoded = decoder.decode(index);
+            } catch (Exception e) {
+                System.err.println("✗ Failed to decode avatar " + index + ": " + e.getMessage());
+                decoded = null;
+            }
+            Image[] result = decoded;
+            Platform.runLater(() -> publish(index, requestToken, result));
+        });
+    }
+
+    private void publish(int index, int requestToken, Image[] decoded) {
+        if (index >= status.length || token[index] != requestToken) {
+            return; // Invalidated or moved since it was requested
+        }
+        token[index] = 0;
+        if (decoded == null) {
+            status[index] = FAILED;
+            generation++;
+            return;
+        }
+        long size = 0;
+        for (Image image : decoded) {
+            size += (long) image.getWidth() * (long) image.getHeight() * 4;
+        }
+        images[index] = decoded;
+        bytes[index] = size;
+        status[index] = CACHED;
+        usedBytes += size;
+        linkNewest(index);
+
+        // Always keep the one just added, even if it alone is over budget
+        while (usedBytes > budgetBytes && oldest != index) {
+            evict(oldest);
+        }
+        generation++;
+    }
+
+    /**
+     * Drop an avatar's images because its file changed; they're decoded
+     * again the next time they're asked for
+     */
+    public void invalidate(int index) {
+        forget(index);
+        generation++;
+    }
+
+    /**
+     * Drop an avatar whose file was removed. Avatars after it move down one
+     * index, keeping their images.
+     */
+    public void remove(int index) {
+        forget(index);
+        int count = status.length - 1;
+        for (int i = index; i < count; i++) {
+            images[i] = images[i + 1];
+            bytes[i] = bytes[i + 1];
+            newer[i] = newer[i + 1];
+            older[i] = older[i + 1];
+            // A decode in flight would land on the old index; ask again instead
+            status[i] = status[i + 1] == PENDING ? EMPTY : status[i + 1];
+            token[i] = 0;
+        }
+        images = Arrays.copyOf(images, count);
+        status = Arrays.copyOf(status, count);
+        bytes = Arrays.copyOf(bytes, count);
+        newer = Arrays.copyOf(newer, count);
+        older = Arrays.copyOf(older, count);
+        token = Arrays.copyOf(token, count);
+
+        for (int i = 0; i < count; i++) {
+            if (status[i] == CACHED) {
+                newer[i] = shiftedLink(newer[i], index);
+                older[i] = shiftedLink(older[i], index);
+            }
+        }
+        newest = shiftedLink(newest, index);
+        oldest = shiftedLink(oldest, index);
+        generation++;
+    }
+
+    private static int shiftedLink(int link, int removed) {
+        return link > removed ? link - 1 : link;
+    }
+
+    /**
+     * Back to EMPTY, letting go of images and any decode in flight
+     */
+    private void forget(int index) {
+        if (status[index] == CACHED) {
+            evict(index);
+        }
+        status[index] = EMPTY;
+        token[index] = 0;
+    }
+
+    private void evict(int index) {
+        unlink(index);
+        usedBytes -= bytes[index];
+        images[index] = null;
+        bytes[index] = 0;
+        status[index] = EMPTY;
+    }
+
+    private void linkNewest(int index) {
+        older[index] = newest;
+        newer[index] = -1;
+        if (newest >= 0) {
+            newer[newest] = index;
+        }
+        newest = index;
+        if (oldest < 0) {
+            oldest = index;
+        }
+    }
+
+    private void unlink(int index) {
+        int before = older[index];
+        int after = newer[index];
+        if (before >= 0) {
+            newer[before] = after;
+        } else {
+            oldest = after;
+        }
+        if (after >= 0) {
+            older[after] = before;
+        } else {
+            newest = before;
+        }
+    }
+
+    /**
+     * Changes whenever images arrive, so cached drawings of them can be
+     * refreshed
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Pixel bytes currently held
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public void shutdown() {
+        decoders.shutdownNow();
+    }
+}
@@ -1,124 +1,266 @@
+import javafx.application.Platform;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
-import javafx.scene.shape.ArcType;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
- * Manages custom avatar face images for the bird
+ * Manages custom avatar face images for the bird.
+ *
+ * Only the file list is kept for every avatar. The bird sprite and picker
+ * thumbnail are decoded from the file at the size they're drawn at (a phone
+ * photo never exists in memory at full resolution) and held in an
+ * {@link AvatarImageCache} of bounded size, so memory doesn't grow with the
+ * number or size of the images. Set -Dflappy.avatarCacheMB to change the
+ * bound.
+ *
+ * Files added to the folder while the game runs are appended to the list,
+ * and a changed or removed file only touches its own avatar (see
+ * {@link #fileChanged}).
  */
 public class AvatarManager {
-    private List<Image> avatars;
+    private static final double BIRD_SIZE = Bird.getBirdRadius() * 2;
+    private static final double FACE_ZOOM = 1.1; // Slightly larger to fill the circle
+
+    /** Size the settings menu draws avatar thumbnails at */
+    public static final double THUMBNAIL_SIZE = 70;
+
+    // Slots in the images the cache holds per avatar
+    private static final int SPRITE = 0;
+    private static final int THUMBNAIL = 1;
+
+    // Shortest side an avatar is decoded at: enough for the larger image
+    private static final int DECODE_SIZE = (int) Math.ceil(
+            Math.max(BIRD_SIZE, THUMBNAIL_SIZE) * AvatarSprites.OVERSAMPLE);
+
+    private List<File> avatarFiles; // Also read by the decoder threads
     private List<String> avatarNames;
+    private final AvatarImageCache images;
     private int currentAvatarIndex;
+    private int listVersion; // Changes whenever avatars are added or removed
     private boolean avatarsLoaded;
+    private boolean loading;
 
     public AvatarManager() {
-        this.avatars = new ArrayList<>();
+        this.avatarFiles = new CopyOnWriteArrayList<>();
         this.avatarNames = new ArrayList<>();
+        this.images = new AvatarImageCache(this::decodeAvatar, cacheBudget());
         this.currentAvatarIndex = 0;
         this.avatarsLoaded = false;
+        this.loading = false;
+    }
 
-        loadAvatars();
+    private static long cacheBudget() {
+        long megabytes = Long.getLong("flappy.avatarCacheMB", AvatarImageCache.DEFAULT_BUDGET_BYTES >> 20);
+        return Math.max(1, megabytes) << 20;
     }
 
     /**
-     * Load all avatar images from resources/avatars folder
+     * Find the avatar images in resources/avatars on a background worker and
+     * publish the list to the JavaFX thread. Images are decoded later, when
+     * they're first drawn; the current avatar is decoded right away.
+     *
+     * @return completes when the avatar list has been published
      */
-    private void loadAvatars() {
-        try {
-            File avatarDir = new File("resources/avatars");
-
-            if (!avatarDir.exists() || !avatarDir.isDirectory()) {
-                System.out.println("✗ Avatars folder not found: " + avatarDir.getAbsolutePath());
-                System.out.println("  Please create 'resources/avatars/' folder and add your face images");
-                return;
-            }
+    public CompletableFuture<Void> loadAvatarsAsync(Executor executor) {
+        loading = true;
+        return CompletableFuture.supplyAsync(AvatarManager::listAvatarFiles, executor)
+                .thenAccept(files -> Platform.runLater(() -> addAvatars(files)))
+                .whenComplete((ignored, error) -> Platform.runLater(() -> {
+                    loading = false;
+                    if (error != null) {
+                        System.err.println("Error loading avatars: " + error.getMessage());
+                    }
+                }));
+    }
 
-            File[] files = avatarDir.listFiles((dir, name) -> {
-                String nameLower = name.toLowerCase();
-                return nameLower.endsWith(".png") ||
-                        nameLower.endsWith(".jpg") ||
-                        nameLower.endsWith(".jpeg");
-            });
-
-            if (files == null || files.length == 0) {
-                System.out.println("⚠ No avatar images found in resources/avatars/");
-                System.out.println("  Please add PNG or JPG images of faces to the avatars folder");
-                return;
-            }
+    /**
+     * Find the avatar images in resources/avatars, sorted by name
+     */
+    private static File[] listAvatarFiles() {
+        File avatarDir = new File("resources/avatars");
 
-            for (File file : files) {
-                try (FileInputStream fis = new FileInputStream(file)) {
-                    Image avatar = new Image(fis);
-                    avatars.add(avatar);
-                    avatarNames.add(file.getName().replaceAll("\\.[^.]+$", "")); // Remove extension
-                    System.out.println("✓ Loaded avatar: " + file.getName());
-                } catch (Exception e) {
-                    System.err.println("✗ Failed to load avatar: " + file.getName());
-                }
-            }
+        if (!avatarDir.exists() || !avatarDir.isDirectory()) {
+            System.out.println("✗ Avatars folder not found: " + avatarDir.getAbsolutePath());
+            System.out.println("  Please create 'resources/avatars/' folder and add your face images");
+            return new File[0];
+        }
 
-            if (!avatars.isEmpty()) {
-                avatarsLoaded = true;
-                System.out.println("✓ Total avatars loaded: " + avatars.size());
-            }
+        File[] files = avatarDir.listFiles((dir, name) -> isAvatarFile(name));
 
-        } catch (Exception e) {
-            System.err.println("Error loading avatars: " + e.getMessage());
-            e.printStackTrace();
+        if (files == null || files.length == 0) {
+            System.out.println("⚠ No avatar images found in resources/avatars/");
+            System.out.println("  Please add PNG or JPG images of faces to the avatars folder");
+            return new File[0];
         }
+
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static boolean isAvatarFile(String name) {
+        String nameLower = name.toLowerCase();
+        return nameLower.endsWith(".png") ||
+                nameLower.endsWith(".jpg") ||
+                nameLower.endsWith(".jpeg");
     }
 
     /**
-     * Render the current avatar on the bird with rotation
+     * Publish avatars at the end of the list, skipping any already there
+     * (JavaFX thread only)
      */
-    public void renderAvatar(GraphicsContext gc, double x, double y, double rotation, double size) {
-        if (!avatarsLoaded || avatars.isEmpty()) {
-            // Fallback to default bird rendering
-            renderDefaultBird(gc, size);
+    private void addAvatars(File[] files) {
+        Set<File> known = new HashSet<>(avatarFiles);
+        List<File> added = new ArrayList<>();
+        for (File file : files) {
+            if (known.add(file)) {
+                added.add(file);
+                avatarNames.add(file.getName().replaceAll("\\.[^.]+$", "")); // Remove extension
+            }
+        }
+        if (added.isEmpty()) {
             return;
         }
+        avatarFiles.addAll(added); // One copy for the whole batch
+        listVersion++;
+        images.ensureCapacity(avatarFiles.size());
+        if (!avatarFiles.isEmpty()) {
+            avatarsLoaded = true;
+            images.request(currentAvatarIndex);
+            System.out.println("✓ Total avatars found: " + avatarFiles.size());
+        }
+    }
 
-        gc.save();
+    // ===== HOT RELOAD =====
 
-        // Create circular clipping path for realistic face display
-        gc.beginPath();
-        gc.arc(0, 0, size / 2, size / 2, 0, 360);
-        gc.closePath();
-        gc.clip();
+    /**
+     * An avatar file was added, changed or removed (called on the asset
+     * watcher's thread). Only that avatar is touched: a new one is appended,
+     * a changed one is decoded again, a removed one is dropped along with
+     * its images.
+     */
+    public void fileChanged(Path path, boolean exists) {
+        if (!isAvatarFile(path.getFileName().toString())) {
+            return;
+        }
+        File file = path.toFile();
+        Platform.runLater(() -> updateAvatar(file, exists));
+    }
 
-        // Draw avatar image with smart cropping to avoid distortion
-        Image currentAvatar = avatars.get(currentAvatarIndex);
-        double imgW = currentAvatar.getWidth();
-        double imgH = currentAvatar.getHeight();
+    private void updateAvatar(File file, boolean exists) {
+        int index = avatarFiles.indexOf(file);
+        if (exists && index < 0) {
+            addAvatars(new File[] { file });
+            System.out.println("✓ Avatar added: " + avatarNames.get(avatarNames.size() - 1));
+        } else if (exists) {
+            images.invalidate(index);
+            if (index == currentAvatarIndex) {
+                images.request(index);
+            }
+            System.out.println("✓ Avatar updated: " + avatarNames.get(index));
+        } else if (index >= 0) {
+            String name = avatarNames.get(index);
+            avatarFiles.remove(index);
+            avatarNames.remove(index);
+            images.remove(index);
+            listVersion++;
+            if (index < currentAvatarIndex || currentAvatarIndex >= avatarFiles.size()) {
+                currentAvatarIndex = Math.max(0, currentAvatarIndex - 1);
+            }
+            images.request(currentAvatarIndex);
+            System.out.println("✓ Avatar removed: " + name);
+        }
+    }
 
-        // Calculate source crop (square)
-        double cropSize = Math.min(imgW, imgH);
-        double sx, sy;
+    /**
+     * Decode one avatar at a reduced size and build its bird sprite and
+     * thumbnail (runs on a cache decoder thread)
+     */
+    private Image[] decodeAvatar(int index) throws Exception {
+        File file = avatarFiles.get(index);
+        Image image = decodeScaled(file, DECODE_SIZE);
+        Image[] built = new Image[2];
+        built[SPRITE] = AvatarSprites.createCircular(image, BIRD_SIZE, FACE_ZOOM);
+        built[THUMBNAIL] = AvatarSprites.createCircular(image, THUMBNAIL_SIZE, 1.0);
+        return built;
+    }
 
-        if (imgW > imgH) {
-            // Landscape: crop center
-            sx = (imgW - cropSize) / 2;
-            sy = 0;
+    /**
+     * Decode an image with its shorter side scaled down to about
+     * shortSide pixels. The size is read from the file header first, so
+     * the full-resolution pixels are never held.
+     */
+    static Image decodeScaled(File file, int shortSide) throws Exception {
+        String url = file.toURI().toString();
+        int[] size = readImageSize(file);
+        Image image;
+        if (size == null) {
+            // Unknown size: fit it in a box, which bounds memory either way
+            image = new Image(url, shortSide * 2, shortSide * 2, true, true);
+        } else if (Math.min(size[0], size[1]) <= shortSide) {
+            image = new Image(url);
         } else {
-            // Portrait: crop top-center (faces are usually higher up)
-            sx = 0;
-            sy = (imgH - cropSize) / 4; // Offset slightly from top, but not center
+            double scale = (double) shortSide / Math.min(size[0], size[1]);
+            image = new Image(url, Math.ceil(size[0] * scale), Math.ceil(size[1] * scale), false, true);
+        }
+        if (image.isError()) {
+            throw image.getException();
         }
+        return image;
+    }
 
-        double avatarSize = size * 1.1; // Slightly larger to fill the circle
+    /**
+     * Width and height from the image header, or null if it can't be read
+     */
+    private static int[] readImageSize(File file) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return new int[] { reader.getWidth(0), reader.getHeight(0) };
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-        // Draw cropped image
-        gc.drawImage(currentAvatar,
-                sx, sy, cropSize, cropSize, // Source: crop square
-                -avatarSize / 2, -avatarSize / 2, // Dest: centered
-                avatarSize, avatarSize); // Dest: scaled to bird size
+    /**
+     * Render the current avatar on the bird with rotation.
+     * The canvas is already translated and rotated to the bird centre, so the
+     * pre-cropped circular sprite is drawn with one drawImage and no clip.
+     * Until the sprite is decoded the default face shows.
+     */
+    public void renderAvatar(GraphicsContext gc, double x, double y, double rotation, double size) {
+        Image sprite = hasAvatars() ? images.get(currentAvatarIndex, SPRITE) : null;
+        if (sprite == null) {
+            // Fallback to default bird rendering
+            renderDefaultBird(gc, size);
+            return;
+        }
 
-        gc.restore();
+        gc.drawImage(sprite, -size / 2, -size / 2, size, size);
     }
 
     /**
@@ -126,7 +268,7 @@ public class AvatarManager {
      */
     private void renderDefaultBird(GraphicsContext gc, double size) {
         // Simple circle face
-        gc.setFill(javafx.scene.paint.Color.rgb(255, 215, 0));
+        gc.setFill(RenderResources.BIRD_FACE);
         gc.fillOval(-size / 2, -size / 2, size, size);
 
         // Eye
@@ -140,12 +282,13 @@ public class AvatarManager {
      * Switch to the next avatar
      */
     public void switchToNextAvatar() {
-        if (!avatarsLoaded || avatars.isEmpty()) {
+        if (!hasAvatars()) {
             System.out.println("No avatars available to switch");
             return;
         }
 
-        currentAvatarIndex = (currentAvatarIndex + 1) % avatars.size();
+        currentAvatarIndex = (currentAvatarIndex + 1) % avatarFiles.size();
+        images.request(currentAvatarIndex);
         System.out.println("Switched to avatar: " + getCurrentAvatarName());
     }
 
@@ -153,27 +296,18 @@ public class AvatarManager {
      * Switch to a specific avatar by index
      */
     public void switchToAvatar(int index) {
-        if (index >= 0 && index < avatars.size()) {
+        if (index >= 0 && index < avatarFiles.size()) {
             currentAvatarIndex = index;
+            images.request(currentAvatarIndex);
             System.out.println("Switched to avatar: " + getCurrentAvatarName());
         }
     }
 
-    /**
-     * Get the current avatar image
-     */
-    public Image getCurrentAvatar() {
-        if (avatarsLoaded && !avatars.isEmpty()) {
-            return avatars.get(currentAvatarIndex);
-        }
-        return null;
-    }
-
     /**
      * Get the current avatar name
      */
     public String getCurrentAvatarName() {
-        if (avatarsLoaded && !avatarNames.isEmpty()) {
+        if (hasAvatars()) {
             return avatarNames.get(currentAvatarIndex);
         }
         return "Default";
@@ -187,10 +321,57 @@ public class AvatarManager {
     }
 
     /**
-     * Get all avatar images
+     * Index of the avatar with this name, or -1
      */
-    public List<Image> getAllAvatars() {
-        return avatars;
+    public int indexOf(String name) {
+        return avatarNames.indexOf(name);
+    }
+
+    /**
+     * Circular bird sprite of an avatar (drawn at the bird's size); null
+     * while it is being decoded
+     */
+    public Image getSprite(int index) {
+        return images.get(index, SPRITE);
+    }
+
+    /**
+     * Circular thumbnail of an avatar, for the settings menu (drawn at
+     * {@link #THUMBNAIL_SIZE}); null while it is being decoded
+     */
+    public Image getThumbnail(int index) {
+        return images.get(index, THUMBNAIL);
+    }
+
+    /**
+     * Changes whenever avatars are added to or removed from the list
+     */
+    public int getListVersion() {
+        return listVersion;
+    }
+
+    /**
+     * Decode avatars ahead of being shown (e.g. the next picker page)
+     */
+    public void prefetch(int first, int count) {
+        int last = Math.min(avatarFiles.size(), first + count);
+        for (int i = Math.max(0, first); i < last; i++) {
+            images.request(i);
+        }
+    }
+
+    /**
+     * Changes whenever decoded avatar images arrive
+     */
+    public int getImageGeneration() {
+        return images.getGeneration();
+    }
+
+    /**
+     * Stop decoding in the background
+     */
+    public void shutdown() {
+        images.shutdown();
     }
 
     /**
@@ -204,13 +385,20 @@ public class AvatarManager {
      * Get total number of avatars
      */
     public int getAvatarCount() {
-        return avatars.size();
+        return avatarFiles.size();
+    }
+
+    /**
+     * Check if avatars are still being loaded in the background
+     */
+    public boolean isLoading() {
+        return loading;
     }
 
     /**
      * Check if avatars are loaded
      */
     public boolean hasAvatars() {
-        return avatarsLoaded && !avatars.isEmpty();
+        return avatarsLoaded && !avatarFiles.isEmpty();
     }
 }
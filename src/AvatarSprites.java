@@ -0,0 +1,98 @@
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Builds small, pre-cropped circular avatar images so the bird and the
+ * settings menu can draw a face with a single drawImage and no clip.
+ *
+ * Works on pixels directly, so it is safe to call off the JavaFX thread.
+ */
+public final class AvatarSprites {
+    // Sprites hold twice the drawn size so they stay sharp on HiDPI screens
+    public static final int OVERSAMPLE = 2;
+
+    // Source pixels averaged per sprite pixel along each axis (at most)
+    private static final int MAX_SAMPLES = 4;
+
+    private AvatarSprites() {
+    }
+
+    /**
+     * Crop a square around the face, scale it and mask it to a circle.
+     * Portrait images are cropped a little above centre, where faces usually
+     * are; landscape images are cropped at the centre.
+     *
+     * @param diameter size the sprite will be drawn at, in pixels
+     * @param zoom     how much larger than the circle the square crop is drawn
+     *                 (1.1 fills the circle slightly, like the bird face)
+     */
+    public static Image createCircular(Image source, double diameter, double zoom) {
+        int pixels = (int) Math.ceil(diameter * OVERSAMPLE);
+        WritableImage sprite = new WritableImage(pixels, pixels);
+        PixelReader reader = source.getPixelReader();
+        if (reader == null) {
+            return sprite;
+        }
+
+        double imgW = source.getWidth();
+        double imgH = source.getHeight();
+        int maxX = (int) imgW - 1;
+        int maxY = (int) imgH - 1;
+
+        // Calculate source crop (square)
+        double cropSize = Math.min(imgW, imgH);
+        double sx = imgW > imgH ? (imgW - cropSize) / 2 : 0;
+        double sy = imgW > imgH ? 0 : (imgH - cropSize) / 4;
+
+        // Part of the crop that lands inside the circle
+        double visible = cropSize / zoom;
+        double originX = sx + (cropSize - visible) / 2;
+        double originY = sy + (cropSize - visible) / 2;
+        double step = visible / pixels;
+
+        int samples = (int) Math.max(1, Math.min(MAX_SAMPLES, Math.ceil(step)));
+        double subStep = step / samples;
+        double radius = pixels / 2.0;
+
+        PixelWriter writer = sprite.getPixelWriter();
+        for (int py = 0; py < pixels; py++) {
+            for (int px = 0; px < pixels; px++) {
+                // Anti-aliased circular mask
+                double dx = px + 0.5 - radius;
+                double dy = py + 0.5 - radius;
+                double coverage = radius - Math.sqrt(dx * dx + dy * dy) + 0.5;
+                if (coverage <= 0) {
+                    writer.setArgb(px, py, 0);
+                    continue;
+                }
+                coverage = Math.min(1, coverage);
+
+                // Box-filter the source pixels under this sprite pixel
+                int a = 0, r = 0, g = 0, b = 0;
+                double baseX = originX + px * step + subStep / 2;
+                double baseY = originY + py * step + subStep / 2;
+                for (int j = 0; j < samples; j++) {
+                    int srcY = clamp((int) (baseY + j * subStep), maxY);
+                    for (int i = 0; i < samples; i++) {
+                        int srcX = clamp((int) (baseX + i * subStep), maxX);
+                        int argb = reader.getArgb(srcX, srcY);
+                        a += argb >>> 24;
+                        r += (argb >> 16) & 0xFF;
+                        g += (argb >> 8) & 0xFF;
+                        b += argb & 0xFF;
+                    }
+                }
+                int n = samples * samples;
+                int alpha = (int) Math.round(a / (double) n * coverage);
+                writer.setArgb(px, py, alpha << 24 | (r / n) << 16 | (g / n) << 8 | (b / n));
+            }
+        }
+        return sprite;
+    }
+
+    private static int clamp(int value, int max) {
+        return value < 0 ? 0 : Math.min(value, max);
+    }
+}
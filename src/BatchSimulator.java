@@ -0,0 +1,378 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs thousands of independent games at once for bot training.
+ *
+ * State is stored as structure-of-arrays primitive buffers (one slot per game,
+ * plus a fixed ring of pipe slots per game) and stepped in parallel with
+ * fork/join over ranges of games. Uses the same physics and collision rules
+ * as {@link Bird} and {@link Pipe}; only the sound and particle events of
+ * {@link GameSimulation} are left out.
+ */
+public final class BatchSimulator {
+
+    /**
+     * Decides which games in a range flap this tick. Called from worker
+     * threads, once per tick for each range of games being stepped.
+     */
+    public interface Policy {
+        void decide(BatchSimulator batch, int from, int to, boolean[] jump);
+    }
+
+    // Pipes are 2 s apart and cross the screen in ~4.5 s, so 8 slots is plenty
+    private static final int MAX_PIPES = 8;
+    private static final int PIPE_MASK = MAX_PIPES - 1;
+
+    private static final int DEFAULT_GRAIN = 256;
+
+    private static final double BIRD_X = GameSimulation.BIRD_START_X;
+    private static final double START_Y = GameSimulation.WORLD_HEIGHT / 2;
+
+    private final int games;
+    private final ForkJoinPool pool;
+    private final int grain;
+    private boolean autoRestart;
+
+    // Per-game bird state
+    private final double[] birdY;
+    private final double[] birdVelocity;
+    private final boolean[] alive;
+    private final boolean[] jump;
+    private final int[] score;
+    private final int[] ticks;
+    private final int[] lastPipeTick;
+    private final long[] rngState;
+
+    // Per-game pipe ring: slot = game * MAX_PIPES + (head + i) & PIPE_MASK
+    private final double[] pipeX;
+    private final double[] pipeGapY;
+    private final boolean[] pipeScored;
+    private final int[] pipeHead;
+    private final int[] pipeCount;
+
+    // Totals across every finished game (only updated with auto restart)
+    private final long[] gamesFinished;
+    private final long[] finishedScore;
+
+    public BatchSimulator(int games, long seed) {
+        this(games, seed, ForkJoinPool.commonPool());
+    }
+
+    public BatchSimulator(int games, long seed, ForkJoinPool pool) {
+        this.games = games;
+        this.pool = pool;
+        this.grain = Math.max(1, Math.min(DEFAULT_GRAIN, games / (pool.getParallelism() * 4)));
+
+        birdY = new double[games];
+        birdVelocity = new double[games];
+        alive = new boolean[games];
+        jump = new boolean[games];
+        score = new int[games];
+        ticks = new int[games];
+        lastPipeTick = new int[games];
+        rngState = new long[games];
+
+        pipeX = new double[games * MAX_PIPES];
+        pipeGapY = new double[games * MAX_PIPES];
+        pipeScored = new boolean[games * MAX_PIPES];
+        pipeHead = new int[games];
+        pipeCount = new int[games];
+
+        gamesFinished = new long[games];
+        finishedScore = new long[games];
+
+        for (int g = 0; g < games; g++) {
+            rngState[g] = seed + g * 0x9E3779B97F4A7C15L;
+            reset(g);
+        }
+    }
+
+    /**
+     * Restart games as soon as they end (for throughput runs)
+     */
+    public void setAutoRestart(boolean autoRestart) {
+        this.autoRestart = autoRestart;
+    }
+
+    /**
+     * Put one game back at the start of a run (keeps its random sequence going)
+     */
+    public void reset(int g) {
+        birdY[g] = START_Y;
+        birdVelocity[g] = 0;
+        alive[g] = true;
+        jump[g] = false;
+        score[g] = 0;
+        ticks[g] = 0;
+        lastPipeTick[g] = 0;
+        pipeHead[g] = 0;
+        pipeCount[g] = 0;
+    }
+
+    /**
+     * Restart a game's random sequence from a seed, so games given the same
+     * seed get the same pipes (takes effect from its next pipe)
+     */
+    public void reseed(int g, long seed) {
+        rngState[g] = seed;
+    }
+
+    /**
+     * Put every game back at the start of a run
+     */
+    public void resetAll() {
+        for (int g = 0; g < games; g++) {
+            reset(g);
+        }
+    }
+
+    /**
+     * Advance every game by the given number of ticks, in parallel
+     */
+    public void run(int steps, Policy policy) {
+        pool.invoke(new StepTask(0, games, steps, policy));
+    }
+
+    private final class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to, steps;
+        private final transient Policy policy;
+
+        StepTask(int from, int to, int steps, Policy policy) {
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+            this.policy = policy;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                for (int s = 0; s < steps; s++) {
+                    if (policy != null) {
+                        policy.decide(BatchSimulator.this, from, to, jump);
+                    }
+                    stepRange(from, to);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new StepTask(from, mid, steps, policy), new StepTask(mid, to, steps, policy));
+        }
+    }
+
+    /**
+     * One tick for games [from, to), mirroring {@link GameSimulation#update()}
+     */
+    private void stepRange(int from, int to) {
+        double radius = Bird.getBirdRadius();
+        double groundY = GameSimulation.getGroundY();
+        double speed = Pipe.getSpeed();
+
+        for (int g = from; g < to; g++) {
+            if (!alive[g]) {
+                continue;
+            }
+
+            if (jump[g]) {
+                birdVelocity[g] = Bird.getJumpStrength();
+                jump[g] = false;
+            }
+
+            int tick = ++ticks[g];
+            double velocity = Bird.applyGravity(birdVelocity[g]);
+            double y = birdY[g] + velocity;
+            birdVelocity[g] = velocity;
+            birdY[g] = y;
+
+            int base = g * MAX_PIPES;
+            int head = pipeHead[g];
+            int count = pipeCount[g];
+
+            if (tick - lastPipeTick[g] > GameSimulation.PIPE_SPAWN_INTERVAL && count < MAX_PIPES) {
+                int slot = base + ((head + count) & PIPE_MASK);
+                pipeX[slot] = GameSimulation.WORLD_WIDTH;
+                pipeGapY[slot] = GameSimulation.gapYFor(nextDouble(g));
+                pipeScored[slot] = false;
+                count++;
+                lastPipeTick[g] = tick;
+            }
+
+            boolean dead = false;
+            for (int i = 0; i < count; i++) {
+                int slot = base + ((head + i) & PIPE_MASK);
+                double x = pipeX[slot] - speed;
+                pipeX[slot] = x;
+
+                if (Pipe.collides(x, pipeGapY[slot], BIRD_X, y, radius)) {
+                    dead = true;
+                }
+                if (Pipe.isPassed(x, pipeScored[slot], BIRD_X)) {
+                    pipeScored[slot] = true;
+                    score[g]++;
+                }
+            }
+
+            // Pipes leave in the order they arrived, so only the head can be off screen
+            while (count > 0 && Pipe.isOffScreen(pipeX[base + head])) {
+                head = (head + 1) & PIPE_MASK;
+                count--;
+            }
+            pipeHead[g] = head;
+            pipeCount[g] = count;
+
+            if (y - radius < 0 || y + radius > groundY) {
+                dead = true;
+            }
+
+            if (dead) {
+                if (autoRestart) {
+                    gamesFinished[g]++;
+                    finishedScore[g] += score[g];
+                    reset(g);
+                } else {
+                    alive[g] = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Per-game SplitMix64 generator, uniform in [0, 1)
+     */
+    private double nextDouble(int g) {
+        rngState[g] = SimRandom.step(rngState[g]);
+        return SimRandom.toDouble(SimRandom.mix(rngState[g]));
+    }
+
+    // ===== STATE ACCESS (for policies) =====
+
+    public int getGameCount() {
+        return games;
+    }
+
+    public double getBirdY(int g) {
+        return birdY[g];
+    }
+
+    public double getBirdVelocity(int g) {
+        return birdVelocity[g];
+    }
+
+    public boolean isAlive(int g) {
+        return alive[g];
+    }
+
+    public int getScore(int g) {
+        return score[g];
+    }
+
+    public int getTicks(int g) {
+        return ticks[g];
+    }
+
+    public int getPipeCount(int g) {
+        return pipeCount[g];
+    }
+
+    /**
+     * X of the i-th pipe of a game, oldest (leftmost) first
+     */
+    public double getPipeX(int g, int i) {
+        return pipeX[g * MAX_PIPES + ((pipeHead[g] + i) & PIPE_MASK)];
+    }
+
+    public double getPipeGapY(int g, int i) {
+        return pipeGapY[g * MAX_PIPES + ((pipeHead[g] + i) & PIPE_MASK)];
+    }
+
+    /**
+     * Index (for {@link #getPipeX}) of the first pipe the bird hasn't cleared
+     * yet, or -1 if there is none on screen
+     */
+    public int getNextPipe(int g) {
+        double birdLeft = BIRD_X - Bird.getBirdRadius();
+        for (int i = 0; i < pipeCount[g]; i++) {
+            if (getPipeX(g, i) + Pipe.getWidth() > birdLeft) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getAliveCount() {
+        int count = 0;
+        for (int g = 0; g < games; g++) {
+            if (alive[g]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public long getGamesFinished() {
+        long total = 0;
+        for (int g = 0; g < games; g++) {
+            total += gamesFinished[g];
+        }
+        return total;
+    }
+
+    public long getFinishedScore() {
+        long total = 0;
+        for (int g = 0; g < games; g++) {
+            total += finishedScore[g];
+        }
+        return total;
+    }
+
+    /**
+     * Throughput check: steps thousands of games with a simple bot at
+     * increasing core counts and reports aggregate steps/sec.
+     *
+     * Usage: java -cp out BatchSimulator [games] [ticks]
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        Policy bot = (batch, from, to, jump) -> {
+            for (int g = from; g < to; g++) {
+                int next = batch.getNextPipe(g);
+                double targetY = next >= 0 ? batch.getPipeGapY(g, next) : GameSimulation.WORLD_HEIGHT / 2;
+                jump[g] = batch.getBirdVelocity(g) >= 0 && batch.getBirdY(g) > targetY + 20;
+            }
+        };
+
+        System.out.printf("%d games x %d ticks, up to %d threads%n", games, steps, maxThreads);
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                BatchSimulator batch = new BatchSimulator(games, 42, pool);
+                batch.setAutoRestart(true);
+                batch.run(steps / 4, bot); // warm-up
+                batch.resetAll();
+
+                long start = System.nanoTime();
+                batch.run(steps, bot);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double stepsPerSec = (double) games * steps / seconds;
+                if (threads == 1) {
+                    baseline = stepsPerSec;
+                }
+                System.out.printf("%3d threads: %,15.0f steps/sec  (%.2fx)  finished games: %,d%n",
+                        threads, stepsPerSec, stepsPerSec / baseline, batch.getGamesFinished());
+            } finally {
+                pool.shutdown();
+            }
+            if (threads < maxThreads && threads * 2 > maxThreads) {
+                threads = maxThreads / 2; // make sure the full core count is measured
+            }
+        }
+    }
+}
@@ -1,9 +1,3 @@
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.Stop;
-
 /**
  * Represents the player-controlled bird with physics simulation
  */
@@ -12,6 +6,10 @@ public class Bird {
     private double velocity;
     private double rotation;
 
+    // State at the start of the last update, for render interpolation
+    private double prevY;
+    private double prevRotation;
+
     private static final double GRAVITY = 0.5;
     private static final double JUMP_STRENGTH = -10;
     private static final double MAX_VELOCITY = 10;
@@ -22,23 +20,36 @@ public class Bird {
         this.y = startY;
         this.velocity = 0;
         this.rotation = 0;
+        this.prevY = startY;
+        this.prevRotation = 0;
     }
 
     /**
-     * Apply physics updates to the bird
+     * Apply physics updates to the bird (one fixed simulation step)
      */
     public void update() {
+        prevY = y;
+        prevRotation = rotation;
+
+        velocity = applyGravity(velocity);
+        y += velocity;
+
+        // Update rotation based on velocity for smooth animation
+        rotation = Math.min(Math.max(velocity * 3, -30), 90);
+    }
+
+    /**
+     * Velocity after one step of gravity. Shared with {@link BatchSimulator}
+     * so both follow exactly the same physics.
+     */
+    static double applyGravity(double velocity) {
         velocity += GRAVITY;
 
         // Limit maximum fall speed
         if (velocity > MAX_VELOCITY) {
             velocity = MAX_VELOCITY;
         }
-
-        y += velocity;
-
-        // Update rotation based on velocity for smooth animation
-        rotation = Math.min(Math.max(velocity * 3, -30), 90);
+        return velocity;
     }
 
     /**
@@ -48,64 +59,62 @@ public class Bird {
         velocity = JUMP_STRENGTH;
     }
 
+    public static double getJumpStrength() {
+        return JUMP_STRENGTH;
+    }
+
     /**
-     * Render the bird with avatar or attractive gradient and rotation
+     * Reset bird to initial position
      */
-    public void render(GraphicsContext gc, AvatarManager avatarManager) {
-        gc.save();
-
-        // Translate to bird center for rotation
-        gc.translate(x, y);
-        gc.rotate(rotation);
-
-        // Render avatar face if available
-        if (avatarManager != null && avatarManager.hasAvatars()) {
-            // Render the avatar face
-            avatarManager.renderAvatar(gc, x, y, rotation, BIRD_SIZE);
-        } else {
-            // Fallback to default bird rendering
-            renderDefaultBird(gc);
-        }
-
-        // Always render beak (on top of avatar for realistic effect)
-        gc.setFill(Color.rgb(255, 100, 0));
-        double[] beakX = { BIRD_SIZE / 2, BIRD_SIZE / 2 + 10, BIRD_SIZE / 2 };
-        double[] beakY = { -3, 0, 3 };
-        gc.fillPolygon(beakX, beakY, 3);
-
-        gc.restore();
+    public void reset(double startX, double startY) {
+        this.x = startX;
+        this.y = startY;
+        this.velocity = 0;
+        this.rotation = 0;
+        this.prevY = startY;
+        this.prevRotation = 0;
     }
 
     /**
-     * Render default bird appearance (when no avatars are loaded)
+     * Copy the physics state into a flat array (see {@link SimSnapshot})
      */
-    private void renderDefaultBird(GraphicsContext gc) {
-        // Create attractive gradient for bird body
-        LinearGradient gradient = new LinearGradient(
-                0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.rgb(255, 215, 0)), // Gold
-                new Stop(0.5, Color.rgb(255, 165, 0)), // Orange
-                new Stop(1, Color.rgb(255, 140, 0)) // Dark Orange
-        );
+    void saveTo(double[] out, int offset) {
+        out[offset] = x;
+        out[offset + 1] = y;
+        out[offset + 2] = velocity;
+        out[offset + 3] = rotation;
+        out[offset + 4] = prevY;
+        out[offset + 5] = prevRotation;
+    }
 
-        gc.setFill(gradient);
-        gc.fillOval(-BIRD_SIZE / 2, -BIRD_SIZE / 2, BIRD_SIZE, BIRD_SIZE);
+    /**
+     * Restore state written by {@link #saveTo}
+     */
+    void restoreFrom(double[] in, int offset) {
+        x = in[offset];
+        y = in[offset + 1];
+        velocity = in[offset + 2];
+        rotation = in[offset + 3];
+        prevY = in[offset + 4];
+        prevRotation = in[offset + 5];
+    }
 
-        // Add bird eye
-        gc.setFill(Color.WHITE);
-        gc.fillOval(BIRD_SIZE / 4 - 8, -BIRD_SIZE / 4 - 4, 8, 8);
-        gc.setFill(Color.BLACK);
-        gc.fillOval(BIRD_SIZE / 4 - 6, -BIRD_SIZE / 4 - 2, 4, 4);
+    /**
+     * Y position blended between the last two simulation steps
+     *
+     * @param alpha 0 = previous step, 1 = current step
+     */
+    public double getRenderY(double alpha) {
+        return prevY + (y - prevY) * alpha;
     }
 
     /**
-     * Reset bird to initial position
+     * Rotation blended between the last two simulation steps
+     *
+     * @param alpha 0 = previous step, 1 = current step
      */
-    public void reset(double startX, double startY) {
-        this.x = startX;
-        this.y = startY;
-        this.velocity = 0;
-        this.rotation = 0;
+    public double getRenderRotation(double alpha) {
+        return prevRotation + (rotation - prevRotation) * alpha;
     }
 
     // Getters for collision detection
@@ -117,6 +126,14 @@ public class Bird {
         return y;
     }
 
+    public double getVelocity() {
+        return velocity;
+    }
+
+    public double getRotation() {
+        return rotation;
+    }
+
     public double getSize() {
         return BIRD_SIZE;
     }
@@ -124,4 +141,8 @@ public class Bird {
     public double getRadius() {
         return BIRD_SIZE / 2;
     }
+
+    public static double getBirdRadius() {
+        return BIRD_SIZE / 2;
+    }
 }
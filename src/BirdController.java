@@ -0,0 +1,101 @@
+/**
+ * Flies the bird: looks at the game once per tick and decides whether to
+ * flap before the next step. {@link HeadlessRunner} drives a
+ * {@link GameSimulation} with one, and {@link NeuroTrainer} evolves
+ * {@link NeuralController}s on a {@link BatchSimulator}.
+ */
+public interface BirdController {
+
+    /**
+     * @return true to call {@link GameSimulation#jump()} this tick
+     */
+    boolean shouldJump(Observation state);
+
+    /**
+     * What a controller sees: the bird and the next two pipes it has to get
+     * through. Filled in place each tick, so observing allocates nothing.
+     * Where there's no pipe yet, one is assumed just off screen with its
+     * gap in the middle.
+     */
+    final class Observation {
+        private static final double NO_PIPE_DISTANCE = GameSimulation.WORLD_WIDTH - GameSimulation.BIRD_START_X;
+        private static final double NO_PIPE_GAP_Y = GameSimulation.WORLD_HEIGHT / 2;
+
+        double birdY;
+        double velocity;
+        double nextDistance; // From the bird to the left edge of the first pipe not yet cleared
+        double nextGapY;
+        double afterDistance; // Same for the pipe after it
+        double afterGapY;
+
+        /**
+         * Observe a game that's being played
+         */
+        public Observation observe(GameSimulation simulation) {
+            Bird bird = simulation.getBird();
+            birdY = bird.getY();
+            velocity = bird.getVelocity();
+
+            PipeManager pipes = simulation.getPipes();
+            int next = pipes.firstEndingAfter(bird.getX() - bird.getRadius());
+            Pipe first = next < pipes.size() ? pipes.get(next) : null;
+            Pipe second = next + 1 < pipes.size() ? pipes.get(next + 1) : null;
+            nextDistance = first != null ? first.getX() - bird.getX() : NO_PIPE_DISTANCE;
+            nextGapY = first != null ? first.getGapY() : NO_PIPE_GAP_Y;
+            afterDistance = second != null ? second.getX() - bird.getX() : NO_PIPE_DISTANCE;
+            afterGapY = second != null ? second.getGapY() : NO_PIPE_GAP_Y;
+            return this;
+        }
+
+        /**
+         * Observe one game of a batch, with the same meaning as for a
+         * {@link GameSimulation}
+         */
+        public Observation observe(BatchSimulator batch, int g) {
+            birdY = batch.getBirdY(g);
+            velocity = batch.getBirdVelocity(g);
+
+            int next = batch.getNextPipe(g);
+            int count = batch.getPipeCount(g);
+            if (next >= 0) {
+                nextDistance = batch.getPipeX(g, next) - GameSimulation.BIRD_START_X;
+                nextGapY = batch.getPipeGapY(g, next);
+            } else {
+                nextDistance = NO_PIPE_DISTANCE;
+                nextGapY = NO_PIPE_GAP_Y;
+            }
+            if (next >= 0 && next + 1 < count) {
+                afterDistance = batch.getPipeX(g, next + 1) - GameSimulation.BIRD_START_X;
+                afterGapY = batch.getPipeGapY(g, next + 1);
+            } else {
+                afterDistance = NO_PIPE_DISTANCE;
+                afterGapY = NO_PIPE_GAP_Y;
+            }
+            return this;
+        }
+
+        public double getBirdY() {
+            return birdY;
+        }
+
+        public double getVelocity() {
+            return velocity;
+        }
+
+        public double getNextDistance() {
+            return nextDistance;
+        }
+
+        public double getNextGapY() {
+            return nextGapY;
+        }
+
+        public double getAfterDistance() {
+            return afterDistance;
+        }
+
+        public double getAfterGapY() {
+            return afterGapY;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws a {@link Bird} onto the canvas (kept apart from the bird's physics so
+ * the simulation can run without JavaFX)
+ */
+public class BirdRenderer {
+
+    /**
+     * Render the bird with avatar or attractive gradient and rotation
+     *
+     * @param alpha interpolation between the last two simulation steps
+     */
+    public void render(GraphicsContext gc, Bird bird, AvatarManager avatarManager, double alpha) {
+        double size = bird.getSize();
+        double y = bird.getRenderY(alpha);
+        double rotation = bird.getRenderRotation(alpha);
+
+        gc.save();
+
+        // Translate to bird center for rotation
+        gc.translate(bird.getX(), y);
+        gc.rotate(rotation);
+
+        // Render avatar face if available
+        if (avatarManager != null && avatarManager.hasAvatars()) {
+            // Render the avatar face
+            avatarManager.renderAvatar(gc, bird.getX(), y, rotation, size);
+        } else {
+            // Fallback to default bird rendering
+            renderDefaultBird(gc, size);
+        }
+
+        // Always render beak (on top of avatar for realistic effect)
+        gc.setFill(RenderResources.BEAK);
+        gc.fillPolygon(RenderResources.BEAK_X, RenderResources.BEAK_Y, 3);
+
+        gc.restore();
+    }
+
+    /**
+     * Render default bird appearance (when no avatars are loaded)
+     */
+    private void renderDefaultBird(GraphicsContext gc, double size) {
+        // Attractive gradient for bird body
+        gc.setFill(RenderResources.BIRD_BODY);
+        gc.fillOval(-size / 2, -size / 2, size, size);
+
+        // Add bird eye
+        gc.setFill(Color.WHITE);
+        gc.fillOval(size / 4 - 8, -size / 4 - 4, 8, 8);
+        gc.setFill(Color.BLACK);
+        gc.fillOval(size / 4 - 6, -size / 4 - 2, 4, 4);
+    }
+}
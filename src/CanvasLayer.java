@@ -0,0 +1,65 @@
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * One canvas in a stack of layers, repainted only when what it shows has
+ * changed.
+ *
+ * Each frame the owner passes a key built from everything the layer draws
+ * (see {@link #key}). If the key is the same as last time, and nothing
+ * called {@link #invalidate}, the layer keeps its pixels and costs nothing.
+ */
+public class CanvasLayer {
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final double width;
+    private final double height;
+
+    private long lastKey;
+    private boolean dirty = true;
+
+    public CanvasLayer(double width, double height) {
+        this.canvas = new Canvas(width, height);
+        this.gc = canvas.getGraphicsContext2D();
+        this.width = width;
+        this.height = height;
+    }
+
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    public GraphicsContext getGraphics() {
+        return gc;
+    }
+
+    /**
+     * Force a repaint next frame, whatever the key
+     */
+    public void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * Clear the layer for repainting if its content changed
+     *
+     * @param key summary of everything the layer draws
+     * @return true if the caller should draw the layer now
+     */
+    public boolean beginRepaint(long key) {
+        if (!dirty && key == lastKey) {
+            return false;
+        }
+        lastKey = key;
+        dirty = false;
+        gc.clearRect(0, 0, width, height);
+        return true;
+    }
+
+    /**
+     * Fold one more value into a layer key
+     */
+    public static long key(long key, long value) {
+        return SimRandom.mix(key * 31 + value);
+    }
+}
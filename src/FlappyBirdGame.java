@@ -1,6 +1,5 @@
 import javafx.application.Application;
 import javafx.scene.Scene;
-import javafx.scene.canvas.Canvas;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
@@ -16,15 +15,11 @@ public class FlappyBirdGame extends Application {
 
     @Override
     public void start(Stage primaryStage) {
-        // Create canvas
-        Canvas canvas = new Canvas(WINDOW_WIDTH, WINDOW_HEIGHT);
-
-        // Create game engine
-        gameEngine = new GameEngine(canvas);
+        // Create game engine (it adds its canvas layers to the root)
+        StackPane root = new StackPane();
+        gameEngine = new GameEngine(root);
 
         // Setup scene
-        StackPane root = new StackPane();
-        root.getChildren().add(canvas);
 
         Scene scene = new Scene(root, WINDOW_WIDTH, WINDOW_HEIGHT);
 
@@ -34,8 +29,8 @@ public class FlappyBirdGame extends Application {
         primaryStage.setResizable(false);
         primaryStage.show();
 
-        // Request focus for canvas to receive keyboard input
-        canvas.requestFocus();
+        // Request focus for the game to receive keyboard input
+        root.requestFocus();
     }
 
     @Override
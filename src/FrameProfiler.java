@@ -0,0 +1,265 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Times each phase of a frame and keeps, per phase, a histogram for
+ * p50/p99/max plus a ring of the last frames for CSV export.
+ *
+ * Recording is two System.nanoTime calls per phase and never allocates.
+ * Phases can run several times per frame (one simulation step each); their
+ * times are summed for the frame. Used from the game thread only.
+ *
+ * The ring size defaults to 10000 frames; change it with
+ * -Dflappy.profileFrames=N.
+ */
+public class FrameProfiler {
+
+    /**
+     * Timed parts of a frame
+     */
+    public enum Phase {
+        FRAME("frame"), // Whole tick: update + render
+        INTERVAL("interval"), // Time since the previous frame started
+        UPDATE("update"),
+        PARTICLES_UPDATE("particles update"),
+        BIRD("bird"),
+        PIPES("pipes"),
+        GHOSTS("ghosts"),
+        AUTOPILOT("autopilot"),
+        SOUND("sound"),
+        RENDER("render"),
+        BACKGROUND("background"),
+        RENDER_PIPES("render pipes"),
+        RENDER_GHOSTS("render ghosts"),
+        RENDER_BIRD("render bird"),
+        RENDER_PARTICLES("render particles"),
+        OVERLAYS("overlays"),
+        SETTINGS_MENU("settings menu");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    // Log-linear buckets: 16 per power of two of microseconds, up to ~16 s
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (25 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final int historyFrames;
+    private final long[] history; // [frame * PHASES.length + phase], nanos
+    private long frameCount;
+
+    private final long[] current = new long[PHASES.length];
+    private final int[][] histograms = new int[PHASES.length][BUCKETS];
+    private final long[] maxNanos = new long[PHASES.length];
+    private long histogramFrames;
+
+    private long frameStart;
+    private long lastFrameStart;
+
+    public FrameProfiler() {
+        this(Integer.getInteger("flappy.profileFrames", 10_000));
+    }
+
+    public FrameProfiler(int historyFrames) {
+        this.historyFrames = Math.max(1, historyFrames);
+        this.history = new long[this.historyFrames * PHASES.length];
+    }
+
+    // ===== RECORDING =====
+
+    public void beginFrame() {
+        frameStart = System.nanoTime();
+        current[Phase.INTERVAL.ordinal()] = lastFrameStart == 0 ? 0 : frameStart - lastFrameStart;
+        lastFrameStart = frameStart;
+    }
+
+    /**
+     * @return start time to pass to {@link #stop}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(Phase phase, long start) {
+        current[phase.ordinal()] += System.nanoTime() - start;
+    }
+
+    public void endFrame() {
+        current[Phase.FRAME.ordinal()] = System.nanoTime() - frameStart;
+
+        int base = (int) (frameCount % historyFrames) * PHASES.length;
+        for (int p = 0; p < PHASES.length; p++) {
+            long nanos = current[p];
+            history[base + p] = nanos;
+            histograms[p][bucketFor(nanos)]++;
+            if (nanos > maxNanos[p]) {
+                maxNanos[p] = nanos;
+            }
+            current[p] = 0;
+        }
+        frameCount++;
+        histogramFrames++;
+    }
+
+    /**
+     * Clear the histograms (the CSV history is kept)
+     */
+    public void resetStats() {
+        for (int p = 0; p < PHASES.length; p++) {
+            Arrays.fill(histograms[p], 0);
+            maxNanos[p] = 0;
+        }
+        histogramFrames = 0;
+    }
+
+    // ===== HISTOGRAMS =====
+
+    private static int bucketFor(long nanos) {
+        long micros = nanos / 1000;
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        int top = (int) (micros >>> shift); // SUB_BUCKETS..2*SUB_BUCKETS-1
+        return Math.min(SUB_BUCKETS + shift * SUB_BUCKETS + top - SUB_BUCKETS, BUCKETS - 1);
+    }
+
+    /**
+     * Upper bound of a bucket, in nanos
+     */
+    private static long bucketLimit(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return (bucket + 1) * 1000L;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        long top = (bucket - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) * 1000L;
+    }
+
+    /**
+     * Approximate percentile of a phase since the last reset, in nanos
+     *
+     * @param percentile 0-100
+     */
+    public long getPercentile(Phase phase, double percentile) {
+        if (histogramFrames == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(histogramFrames * percentile / 100));
+        int[] counts = histograms[phase.ordinal()];
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= target) {
+                return Math.min(bucketLimit(b), maxNanos[phase.ordinal()]);
+            }
+        }
+        return maxNanos[phase.ordinal()];
+    }
+
+    public long getMax(Phase phase) {
+        return maxNanos[phase.ordinal()];
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getStatsFrameCount() {
+        return histogramFrames;
+    }
+
+    public static Phase[] getPhases() {
+        return PHASES;
+    }
+
+    // ===== CSV =====
+
+    /**
+     * Copy of the recorded frames, oldest first, so they can be written
+     * off the game thread
+     */
+    public Snapshot snapshot() {
+        int frames = (int) Math.min(frameCount, historyFrames);
+        long[] rows = new long[frames * PHASES.length];
+        long first = frameCount - frames;
+        for (int f = 0; f < frames; f++) {
+            int from = (int) ((first + f) % historyFrames) * PHASES.length;
+            System.arraycopy(history, from, rows, f * PHASES.length, PHASES.length);
+        }
+        return new Snapshot(first, frames, rows);
+    }
+
+    /**
+     * Recorded frames, ready to be written as CSV (times in microseconds)
+     */
+    public static class Snapshot {
+        private final long firstFrame;
+        private final int frames;
+        private final long[] rows;
+
+        private Snapshot(long firstFrame, int frames, long[] rows) {
+            this.firstFrame = firstFrame;
+            this.frames = frames;
+            this.rows = rows;
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        public void writeCsv(Path file) throws IOException {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+                StringBuilder header = new StringBuilder("frame");
+                for (Phase phase : PHASES) {
+                    header.append(',').append(phase.name().toLowerCase()).append("_us");
+                }
+                out.println(header);
+
+                StringBuilder row = new StringBuilder();
+                for (int f = 0; f < frames; f++) {
+                    row.setLength(0);
+                    row.append(firstFrame + f);
+                    for (int p = 0; p < PHASES.length; p++) {
+                        long nanos = rows[f * PHASES.length + p];
+                        row.append(',').append(nanos / 1000).append('.').append(nanos / 100 % 10);
+                    }
+                    out.println(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the recorded frames to profile-&lt;time&gt;.csv in the working
+     * directory on a background thread
+     */
+    public void dumpCsvAsync() {
+        Snapshot snapshot = snapshot();
+        Path file = Paths.get("profile-" + System.currentTimeMillis() + ".csv");
+        Thread writer = new Thread(() -> {
+            try {
+                snapshot.writeCsv(file);
+                System.out.println("✓ Wrote " + snapshot.getFrames() + " frames to " + file.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("✗ Failed to write frame profile: " + e.getMessage());
+            }
+        }, "profile-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+}
@@ -1,89 +1,177 @@
 import javafx.animation.AnimationTimer;
-import javafx.scene.canvas.Canvas;
+import javafx.application.Platform;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseButton;
+import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.Stop;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Main game engine with advanced sound system and avatar support
+ * JavaFX front end: renders the {@link GameSimulation}, feeds it input and
+ * turns its events into sounds and particles
  */
 public class GameEngine {
-    private Canvas canvas;
-    private GraphicsContext gc;
+    private StackPane root;
     private AnimationTimer gameLoop;
 
-    private Bird bird;
-    private List<Pipe> pipes;
+    // Stacked bottom to top, each repainted only when its content changes
+    private CanvasLayer backgroundLayer; // Sky and ground: painted once
+    private CanvasLayer worldLayer; // Pipes, bird and particles
+    private CanvasLayer hudLayer; // Score and replay label
+    private CanvasLayer overlayLayer; // Menu, game over, settings and profiler
+
+    private GameSimulation simulation;
+    private GameSimulation view; // What's on screen: the live game or a replay
+    private GameEventListener events;
+    private ReplayRecorder recorder;
+    private ReplayPlayer replayPlayer; // Only set while a replay is playing
+    private ReplayArchive archive; // Null if the archive couldn't be opened
+    private Leaderboard leaderboard; // Null if the scores couldn't be loaded
     private ParticleEffect particleEffect;
-    private Random random;
+    private BirdRenderer birdRenderer;
+    private PipeRenderer pipeRenderer;
+
+    // Ghosts of today's best runs, raced from every start (G toggles them)
+    private GhostRace ghosts;
+    private GhostRenderer ghostRenderer;
+    private List<Replay> nextGhosts; // Loaded in the background, raced from the next start
+    private boolean ghostsEnabled = true;
+
+    // Assist mode: the autopilot flies, and assisted runs stay off the leaderboard and archive
+    private Autopilot autopilot;
+    private boolean assistEnabled;
+    private boolean assistedRun;
 
     // Managers
     private SoundManager soundManager;
     private AvatarManager avatarManager;
     private SettingsMenu settingsMenu;
+    private AssetLoader assetLoader;
+    private AssetWatcher assetWatcher; // Null if the folders can't be watched
 
-    private GameState gameState;
-    private int score;
-    private int highScore;
+    private static final double CANVAS_WIDTH = GameSimulation.WORLD_WIDTH;
+    private static final double CANVAS_HEIGHT = GameSimulation.WORLD_HEIGHT;
+    private static final double GROUND_HEIGHT = GameSimulation.GROUND_HEIGHT;
 
-    // Sound trigger tracking
-    private boolean wasInDanger;
-    private boolean wasTooHigh;
-    private int lastMilestoneScore;
-    private int pipeCounter; // Track number of pipes spawned
+    // Fixed-timestep loop: frame time is clamped and catch-up steps are capped
+    // so a long stall can't trigger a spiral of ever-longer frames
+    private static final long TICK_NANOS = GameSimulation.TICK_NANOS;
+    private static final long MAX_FRAME_NANOS = 250_000_000L;
+    private static final int MAX_STEPS_PER_FRAME = 5;
 
-    private long lastPipeTime;
-    private static final long PIPE_SPAWN_INTERVAL = 2_000_000_000L;
+    private long lastFrameTime;
+    private long accumulator;
 
-    // Game zones and thresholds
-    private static final double DANGER_PROXIMITY = 80;
-    private static final double SAFE_PROXIMITY = 150;
-    private static final double HIGH_ALTITUDE_THRESHOLD = 100;
-    private static final int MILESTONE_INTERVAL = 5;
+    private AllocationMeter allocationMeter; // Only set with -Dflappy.allocCheck=true
+    private FrameProfiler profiler;
+    private ProfilerOverlay profilerOverlay;
 
-    private static final double CANVAS_WIDTH = 800;
-    private static final double CANVAS_HEIGHT = 600;
-    private static final double GROUND_HEIGHT = 50;
+    private static final Path LAST_REPLAY = Paths.get("replays", "last.rpl");
+    private static final Path ARCHIVE_DIR = Paths.get("replays", "archive");
+    private static final Path LEADERBOARD_FILE = Paths.get("scores", "leaderboard.log");
+    private static final long REPLAY_SEEK_TICKS = 5 * GameSimulation.TICKS_PER_SECOND;
+    private static final int MAX_GHOSTS = Integer.getInteger("flappy.ghosts", 300);
 
-    private enum GameState {
-        MENU, PLAYING, GAME_OVER
-    }
+    private long replayLabelSecond = -1;
+    private String replayLabel;
 
-    public GameEngine(Canvas canvas) {
-        this.canvas = canvas;
-        this.gc = canvas.getGraphicsContext2D();
-        this.random = new Random();
+    private final RenderResources.CachedText finalScoreText = new RenderResources.CachedText("Score: ");
+    private final RenderResources.CachedText highScoreText = new RenderResources.CachedText("High Score: ");
 
-        bird = new Bird(150, CANVAS_HEIGHT / 2);
-        pipes = new ArrayList<>();
+    /**
+     * @param root pane the game's layers are added to; it also takes the input
+     */
+    public GameEngine(StackPane root) {
+        this.root = root;
+        backgroundLayer = new CanvasLayer(CANVAS_WIDTH, CANVAS_HEIGHT);
+        worldLayer = new CanvasLayer(CANVAS_WIDTH, CANVAS_HEIGHT);
+        hudLayer = new CanvasLayer(CANVAS_WIDTH, CANVAS_HEIGHT);
+        overlayLayer = new CanvasLayer(CANVAS_WIDTH, CANVAS_HEIGHT);
+        root.getChildren().add(backgroundLayer.getCanvas());
+        root.getChildren().add(worldLayer.getCanvas());
+        root.getChildren().add(hudLayer.getCanvas());
+        root.getChildren().add(overlayLayer.getCanvas());
+
+        simulation = new GameSimulation();
         particleEffect = new ParticleEffect();
-
+        birdRenderer = new BirdRenderer();
+        pipeRenderer = new PipeRenderer();
+        ghosts = new GhostRace();
+        ghostRenderer = new GhostRenderer();
+        autopilot = new Autopilot(simulation);
+        profiler = new FrameProfiler();
+        profilerOverlay = new ProfilerOverlay(profiler);
+        simulation.setProfiler(profiler);
+
+        // Sounds and avatars load in the background; the menu shows right away
         soundManager = new SoundManager();
         avatarManager = new AvatarManager();
         settingsMenu = new SettingsMenu(CANVAS_WIDTH, CANVAS_HEIGHT, avatarManager, soundManager);
+        assetLoader = new AssetLoader();
+        assetLoader.loadAll(soundManager, avatarManager);
+        startAssetWatcher();
+
+        if (AllocationMeter.isRequested()) {
+            allocationMeter = new AllocationMeter();
+        }
+
+        events = new GameEventListener() {
+            @Override
+            public void onDanger() {
+                soundManager.playDangerSound();
+            }
+
+            @Override
+            public void onSafePass() {
+                soundManager.playSafeSound();
+            }
+
+            @Override
+            public void onHighAltitude() {
+                soundManager.playHighAltitudeSound();
+            }
 
-        gameState = GameState.MENU;
-        score = 0;
-        highScore = 0;
-        lastPipeTime = 0;
-        wasInDanger = false;
-        wasTooHigh = false;
-        wasInDanger = false;
-        wasTooHigh = false;
-        lastMilestoneScore = 0;
-        pipeCounter = 0;
+            @Override
+            public void onMilestone(int score) {
+                soundManager.playMilestoneSound();
+            }
+
+            @Override
+            public void onGameOver(boolean playSound) {
+                gameOver(playSound);
+            }
+        };
+        simulation.setListener(events);
+        view = simulation;
+
+        // High scores per avatar, kept across restarts
+        try {
+            leaderboard = new Leaderboard(LEADERBOARD_FILE);
+        } catch (IOException e) {
+            System.err.println("⚠ Leaderboard unavailable: " + e.getMessage());
+        }
+
+        // Every run is recorded and archived; the last one can be watched with P
+        try {
+            archive = new ReplayArchive(ARCHIVE_DIR);
+            System.out.println("✓ Replay archive: " + archive.size() + " runs");
+        } catch (IOException e) {
+            System.err.println("⚠ Replay archive unavailable: " + e.getMessage());
+        }
+        recorder = new ReplayRecorder();
+        recorder.setOnRunFinished(this::saveReplay);
+        simulation.setRecorder(recorder);
+        loadGhostsAsync(CompletableFuture.completedFuture(null));
 
         setupInput();
         startGameLoop();
@@ -91,11 +179,23 @@ public class GameEngine {
     }
 
     private void setupInput() {
-        canvas.setFocusTraversable(true);
+        root.setFocusTraversable(true);
 
-        canvas.setOnKeyPressed(event -> {
+        root.setOnKeyPressed(event -> {
+            if (replayPlayer != null && handleReplayKey(event.getCode())) {
+                return;
+            }
             if (event.getCode() == KeyCode.SPACE) {
                 handleJump();
+            } else if (event.getCode() == KeyCode.P) {
+                startReplay();
+            } else if (event.getCode() == KeyCode.G) {
+                ghostsEnabled = !ghostsEnabled;
+                worldLayer.invalidate();
+                System.out.println(ghostsEnabled ? "Ghosts on" : "Ghosts off");
+            } else if (event.getCode() == KeyCode.H) {
+                assistEnabled = !assistEnabled;
+                System.out.println(assistEnabled ? "Assist on" : "Assist off");
             } else if (event.getCode() == KeyCode.DIGIT1) {
                 soundManager.switchDangerSound();
             } else if (event.getCode() == KeyCode.DIGIT2) {
@@ -106,6 +206,16 @@ public class GameEngine {
                 avatarManager.switchToNextAvatar();
             } else if (event.getCode() == KeyCode.S) {
                 settingsMenu.toggle();
+            } else if (settingsMenu.isOpen()
+                    && (event.getCode() == KeyCode.LEFT || event.getCode() == KeyCode.PAGE_UP)) {
+                settingsMenu.previousPage();
+            } else if (settingsMenu.isOpen()
+                    && (event.getCode() == KeyCode.RIGHT || event.getCode() == KeyCode.PAGE_DOWN)) {
+                settingsMenu.nextPage();
+            } else if (event.getCode() == KeyCode.F3) {
+                profilerOverlay.toggle();
+            } else if (event.getCode() == KeyCode.F4) {
+                profiler.dumpCsvAsync();
             } else if (event.getCode() == KeyCode.ESCAPE) {
                 if (settingsMenu.isOpen()) {
                     settingsMenu.close();
@@ -113,7 +223,17 @@ public class GameEngine {
             }
         });
 
-        canvas.setOnMouseClicked(event -> {
+        root.setOnScroll(event -> {
+            if (settingsMenu.isOpen() && event.getDeltaY() != 0) {
+                if (event.getDeltaY() > 0) {
+                    settingsMenu.previousPage();
+                } else {
+                    settingsMenu.nextPage();
+                }
+            }
+        });
+
+        root.setOnMouseClicked(event -> {
             if (event.getButton() == MouseButton.PRIMARY) {
                 if (settingsMenu.isOpen()) {
                     if (settingsMenu.handleClick(event.getX(), event.getY())) {
@@ -126,13 +246,17 @@ public class GameEngine {
     }
 
     private void handleJump() {
-        switch (gameState) {
+        if (replayPlayer != null) {
+            stopReplay();
+            return;
+        }
+        switch (simulation.getState()) {
             case MENU:
                 startGame();
                 break;
             case PLAYING:
-                if (!settingsMenu.isOpen()) {
-                    bird.jump();
+                if (!settingsMenu.isOpen() && simulation.jump()) {
+                    Bird bird = simulation.getBird();
                     particleEffect.createJumpParticles(bird.getX(), bird.getY());
                 }
                 break;
@@ -143,130 +267,201 @@ public class GameEngine {
     }
 
     private void startGame() {
-        gameState = GameState.PLAYING;
-        score = 0;
-        pipes.clear();
         particleEffect.clear();
-        bird.reset(150, CANVAS_HEIGHT / 2);
-        lastPipeTime = System.nanoTime();
-        wasInDanger = false;
-        wasTooHigh = false;
-        wasInDanger = false;
-        wasTooHigh = false;
-        lastMilestoneScore = 0;
-        pipeCounter = 0;
+        simulation.start();
+        particleEffect.reseed(simulation.getRunSeed());
+        assistedRun = false;
+        if (nextGhosts != null) {
+            ghosts.load(nextGhosts);
+            nextGhosts = null;
+        } else {
+            ghosts.restart();
+        }
+        accumulator = 0;
     }
 
     private void restartGame() {
         startGame();
     }
 
-    private void startGameLoop() {
-        gameLoop = new AnimationTimer() {
-            @Override
-            public void handle(long now) {
-                update(now);
-                render();
-            }
-        };
-        gameLoop.start();
-    }
+    // ===== REPLAYS =====
 
-    private void update(long currentTime) {
-        if (gameState != GameState.PLAYING) {
+    /**
+     * Watch the last finished run (from the menu or the game over screen)
+     */
+    private void startReplay() {
+        Replay replay = recorder.getLastReplay();
+        if (replay == null || simulation.isPlaying()) {
             return;
         }
+        replayPlayer = new ReplayPlayer(replay);
+        replayPlayer.setListener(events);
+        view = replayPlayer.getSimulation();
+        particleEffect.clear();
+        particleEffect.reseed(replay.getRunSeed());
+        accumulator = 0;
+    }
 
-        bird.update();
-        particleEffect.update();
-
-        checkHighAltitude();
-        checkMilestone();
+    private void stopReplay() {
+        replayPlayer = null;
+        view = simulation;
+        particleEffect.clear();
+    }
 
-        if (currentTime - lastPipeTime > PIPE_SPAWN_INTERVAL) {
-            double gapY = random.nextDouble() * (CANVAS_HEIGHT - GROUND_HEIGHT - 300) + 200;
-            pipes.add(new Pipe(CANVAS_WIDTH, gapY, ++pipeCounter));
-            lastPipeTime = currentTime;
+    /**
+     * Left/Right seek, Escape leaves the replay
+     *
+     * @return true if the key was used
+     */
+    private boolean handleReplayKey(KeyCode code) {
+        if (code == KeyCode.LEFT || code == KeyCode.RIGHT) {
+            long offset = code == KeyCode.LEFT ? -REPLAY_SEEK_TICKS : REPLAY_SEEK_TICKS;
+            replayPlayer.seek(replayPlayer.getTick() + offset);
+            particleEffect.clear();
+            return true;
         }
+        if (code == KeyCode.ESCAPE) {
+            stopReplay();
+            return true;
+        }
+        return false;
+    }
 
-        boolean inDangerNow = false;
-        boolean justPassedSafe = false;
-
-        Iterator<Pipe> iterator = pipes.iterator();
-        while (iterator.hasNext()) {
-            Pipe pipe = iterator.next();
-            pipe.update();
-
-            // Pipe collision - play game over sound
-            if (pipe.collidesWith(bird.getX(), bird.getY(), bird.getRadius())) {
-                gameOver(true); // true = play sound
+    /**
+     * Keep the last run on disk, so it can be played back headless
+     * (java -cp out ReplayPlayer replays/last.rpl), and add it to the archive
+     */
+    private void saveReplay(Replay run) {
+        Replay replay = run.withAvatar(avatarManager.getCurrentAvatarName());
+        if (archive != null && !assistedRun) {
+            // This run may be one of today's best, so look again once it's written
+            loadGhostsAsync(archive.append(replay));
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                replay.writeTo(LAST_REPLAY);
+            } catch (IOException e) {
+                System.err.println("✗ Failed to save replay: " + e.getMessage());
             }
+        });
+    }
 
-            // Danger sound - ONLY for the 3rd pillar
-            if (pipe.getIndex() == 3 && pipe.isNearBird(bird.getX(), DANGER_PROXIMITY)) {
-                inDangerNow = true;
-                if (!wasInDanger) {
-                    soundManager.playDangerSound();
-                    wasInDanger = true;
-                }
-            }
+    // ===== GHOSTS =====
 
-            if (pipe.isPassed(bird.getX()) && !pipe.isOffScreen()) {
-                double distance = Math.abs((pipe.getX() + Pipe.getWidth() / 2) - bird.getX());
-                if (distance < SAFE_PROXIMITY) {
-                    justPassedSafe = true;
+    /**
+     * Find today's best runs in the archive on a background thread, once
+     * after has completed; they're raced from the next start
+     */
+    private void loadGhostsAsync(CompletableFuture<?> after) {
+        if (archive == null || MAX_GHOSTS <= 0) {
+            return;
+        }
+        long today = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        after.thenApplyAsync(done -> {
+            List<Replay> runs = new ArrayList<>();
+            for (int id : archive.topByScoreSince(today, MAX_GHOSTS)) {
+                try {
+                    runs.add(archive.loadReplay(id));
+                } catch (IOException e) {
+                    System.err.println("✗ Failed to load ghost run " + id + ": " + e.getMessage());
                 }
             }
+            return runs;
+        }).thenAccept(runs -> Platform.runLater(() -> nextGhosts = runs));
+    }
 
-            if (pipe.isPassed(bird.getX())) {
-                pipe.setScored();
-                score++;
-                if (score > highScore) {
-                    highScore = score;
-                }
+    private void startGameLoop() {
+        gameLoop = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                tick(now);
             }
+        };
+        gameLoop.start();
+    }
 
-            if (pipe.isOffScreen()) {
-                iterator.remove();
+    /**
+     * Run as many fixed simulation steps as the elapsed time calls for, then
+     * render with positions interpolated between the last two steps
+     */
+    private void tick(long now) {
+        profiler.beginFrame();
+        if (lastFrameTime == 0) {
+            lastFrameTime = now;
+        }
+        long frameTime = Math.min(now - lastFrameTime, MAX_FRAME_NANOS);
+        lastFrameTime = now;
+
+        accumulator += frameTime;
+        long phaseStart = profiler.start();
+        int steps = 0;
+        while (accumulator >= TICK_NANOS && steps < MAX_STEPS_PER_FRAME) {
+            if (update()) {
+                worldLayer.invalidate();
             }
+            accumulator -= TICK_NANOS;
+            steps++;
         }
-
-        if (!inDangerNow && wasInDanger) {
-            wasInDanger = false;
+        if (accumulator >= TICK_NANOS) {
+            // Still behind after the catch-up budget: drop the backlog
+            accumulator %= TICK_NANOS;
         }
-
-        if (justPassedSafe) {
-            soundManager.playSafeSound();
+        profiler.stop(FrameProfiler.Phase.UPDATE, phaseStart);
+
+        phaseStart = profiler.start();
+        soundManager.flushEvents(); // Sounds raised this frame play on the audio thread
+        profiler.stop(FrameProfiler.Phase.SOUND, phaseStart);
+
+        double alpha = view.isPlaying() ? (double) accumulator / TICK_NANOS : 1.0;
+        phaseStart = profiler.start();
+        if (allocationMeter != null) {
+            allocationMeter.beginFrame();
+            render(alpha);
+            allocationMeter.endFrame();
+        } else {
+            render(alpha);
         }
+        profiler.stop(FrameProfiler.Phase.RENDER, phaseStart);
+        profiler.endFrame();
 
-        // Check boundary collisions
-        if (bird.getY() - bird.getRadius() < 0) {
-            // Ceiling collision - play high altitude sound
-            soundManager.playHighAltitudeSound();
-            gameOver(false); // false = no game over sound (already played high altitude)
-        } else if (bird.getY() + bird.getRadius() > CANVAS_HEIGHT - GROUND_HEIGHT) {
-            // Ground collision - play game over sound
-            gameOver(true); // true = play sound
-        }
+        // Drawn after the frame is recorded so the HUD doesn't measure itself
+        profilerOverlay.render(overlayLayer.getGraphics());
+        assetLoader.onFrameRendered();
     }
 
-    private void checkHighAltitude() {
-        // Warn when flying too high (but not colliding yet)
-        if (bird.getY() < HIGH_ALTITUDE_THRESHOLD) {
-            if (!wasTooHigh) {
-                soundManager.playHighAltitudeSound();
-                wasTooHigh = true;
-            }
-        } else {
-            wasTooHigh = false;
+    /**
+     * @return true if anything on screen moved
+     */
+    private boolean update() {
+        if (replayPlayer != null) {
+            particleEffect.update();
+            replayPlayer.step();
+            return true;
+        }
+        if (!simulation.isPlaying()) {
+            return false;
         }
-    }
 
-    private void checkMilestone() {
-        if (score > 0 && score % MILESTONE_INTERVAL == 0 && score != lastMilestoneScore) {
-            soundManager.playMilestoneSound();
-            lastMilestoneScore = score;
+        long phaseStart = profiler.start();
+        particleEffect.update();
+        profiler.stop(FrameProfiler.Phase.PARTICLES_UPDATE, phaseStart);
+
+        if (assistEnabled) {
+            phaseStart = profiler.start();
+            boolean flap = autopilot.plan();
+            profiler.stop(FrameProfiler.Phase.AUTOPILOT, phaseStart);
+            if (flap && simulation.jump()) {
+                Bird bird = simulation.getBird();
+                particleEffect.createJumpParticles(bird.getX(), bird.getY());
+                assistedRun = true;
+            }
         }
+        simulation.update();
+
+        phaseStart = profiler.start();
+        ghosts.step();
+        profiler.stop(FrameProfiler.Phase.GHOSTS, phaseStart);
+        return true;
     }
 
     /**
@@ -275,121 +470,242 @@ public class GameEngine {
      * @param playSound true to play game over sound, false otherwise
      */
     private void gameOver(boolean playSound) {
-        gameState = GameState.GAME_OVER;
+        Bird bird = view.getBird();
         particleEffect.createExplosionParticles(bird.getX(), bird.getY());
         if (playSound) {
             soundManager.playGameOverSound();
         }
+        if (view == simulation && leaderboard != null && !assistedRun) {
+            leaderboard.submit(avatarManager.getCurrentAvatarName(), simulation.getScore());
+        }
     }
 
-    private void render() {
-        LinearGradient skyGradient = new LinearGradient(
-                0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.rgb(135, 206, 250)),
-                new Stop(1, Color.rgb(0, 191, 255)));
-        gc.setFill(skyGradient);
-        gc.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+    /**
+     * Best score of the current avatar (this session's best if the
+     * leaderboard couldn't be loaded)
+     */
+    private int highScore() {
+        if (leaderboard == null) {
+            return simulation.getHighScore();
+        }
+        return leaderboard.getBest(avatarManager.getCurrentAvatarName());
+    }
 
-        for (Pipe pipe : pipes) {
-            pipe.render(gc, CANVAS_HEIGHT - GROUND_HEIGHT);
+    /**
+     * Repaint the layers whose content changed since the last frame
+     *
+     * @param alpha interpolation between the last two simulation steps
+     */
+    private void render(double alpha) {
+        long phaseStart = profiler.start();
+        if (backgroundLayer.beginRepaint(0)) {
+            GraphicsContext gc = backgroundLayer.getGraphics();
+            gc.setFill(RenderResources.SKY);
+            gc.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
+            gc.setFill(RenderResources.GROUND);
+            gc.fillRect(0, CANVAS_HEIGHT - GROUND_HEIGHT, CANVAS_WIDTH, GROUND_HEIGHT);
         }
+        profiler.stop(FrameProfiler.Phase.BACKGROUND, phaseStart);
 
-        LinearGradient groundGradient = new LinearGradient(
-                0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.rgb(139, 69, 19)),
-                new Stop(1, Color.rgb(101, 67, 33)));
-        gc.setFill(groundGradient);
-        gc.fillRect(0, CANVAS_HEIGHT - GROUND_HEIGHT, CANVAS_WIDTH, GROUND_HEIGHT);
+        // Interpolated positions move every frame during play; otherwise the
+        // world only changes when a step ran (invalidated in tick) or its looks did
+        if (view.isPlaying()) {
+            worldLayer.invalidate();
+        }
+        long worldKey = CanvasLayer.key(view == simulation ? 0 : 1, avatarManager.getCurrentAvatarIndex());
+        worldKey = CanvasLayer.key(worldKey, avatarManager.getImageGeneration());
+        worldKey = CanvasLayer.key(worldKey, view.getTick());
+        if (worldLayer.beginRepaint(worldKey)) {
+            renderWorld(worldLayer.getGraphics(), alpha);
+        }
 
-        bird.render(gc, avatarManager);
-        particleEffect.render(gc);
+        phaseStart = profiler.start();
+        GameSimulation.State state = view.getState();
+        long hudKey = CanvasLayer.key(state.ordinal(), state == GameSimulation.State.PLAYING ? view.getScore() : -1);
+        if (replayPlayer != null) {
+            hudKey = CanvasLayer.key(hudKey, replayPlayer.getTick() / GameSimulation.TICKS_PER_SECOND);
+        }
+        if (hudLayer.beginRepaint(hudKey)) {
+            GraphicsContext gc = hudLayer.getGraphics();
+            if (state == GameSimulation.State.PLAYING) {
+                renderScore(gc);
+            }
+            if (replayPlayer != null) {
+                renderReplayLabel(gc);
+            }
+        }
 
-        switch (gameState) {
-            case MENU:
-                renderMenu();
-                break;
-            case PLAYING:
-                renderScore();
-                break;
-            case GAME_OVER:
-                renderGameOver();
-                break;
+        long overlayKey = CanvasLayer.key(state.ordinal(), state == GameSimulation.State.PLAYING ? 0 : highScore());
+        overlayKey = CanvasLayer.key(overlayKey, state == GameSimulation.State.GAME_OVER ? view.getScore() : 0);
+        overlayKey = CanvasLayer.key(overlayKey, settingsMenu.getContentKey());
+        overlayKey = CanvasLayer.key(overlayKey, profilerOverlay.isVisible() ? 1 : 0);
+        if (profilerOverlay.isVisible()) {
+            overlayLayer.invalidate(); // The profiler is drawn on top every frame, after timing
         }
+        if (overlayLayer.beginRepaint(overlayKey)) {
+            GraphicsContext gc = overlayLayer.getGraphics();
+            if (state == GameSimulation.State.MENU) {
+                renderMenu(gc);
+            } else if (state == GameSimulation.State.GAME_OVER) {
+                renderGameOver(gc);
+            }
+            profiler.stop(FrameProfiler.Phase.OVERLAYS, phaseStart);
 
-        settingsMenu.render(gc);
+            phaseStart = profiler.start();
+            settingsMenu.render(gc);
+            profiler.stop(FrameProfiler.Phase.SETTINGS_MENU, phaseStart);
+        } else {
+            profiler.stop(FrameProfiler.Phase.OVERLAYS, phaseStart);
+        }
     }
 
-    private void renderMenu() {
-        gc.setFill(Color.rgb(0, 0, 0, 0.5));
+    private void renderWorld(GraphicsContext gc, double alpha) {
+        long phaseStart = profiler.start();
+        PipeManager pipes = view.getPipes();
+        for (int i = 0; i < pipes.size(); i++) {
+            pipeRenderer.render(gc, pipes.get(i), CANVAS_HEIGHT - GROUND_HEIGHT, alpha);
+        }
+        profiler.stop(FrameProfiler.Phase.RENDER_PIPES, phaseStart);
+
+        phaseStart = profiler.start();
+        if (ghostsEnabled && view == simulation && simulation.getState() != GameSimulation.State.MENU) {
+            ghostRenderer.render(gc, ghosts, avatarManager, alpha);
+        }
+        profiler.stop(FrameProfiler.Phase.RENDER_GHOSTS, phaseStart);
+
+        phaseStart = profiler.start();
+        birdRenderer.render(gc, view.getBird(), avatarManager, alpha);
+        profiler.stop(FrameProfiler.Phase.RENDER_BIRD, phaseStart);
+
+        phaseStart = profiler.start();
+        particleEffect.render(gc);
+        profiler.stop(FrameProfiler.Phase.RENDER_PARTICLES, phaseStart);
+    }
+
+    private void renderMenu(GraphicsContext gc) {
+        gc.setFill(RenderResources.MENU_SHADE);
         gc.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
 
         gc.setTextAlign(TextAlignment.CENTER);
 
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 72));
+        gc.setFont(RenderResources.TITLE_FONT);
         gc.setFill(Color.GOLD);
         gc.fillText("Flappy Bird", CANVAS_WIDTH / 2 + 3, CANVAS_HEIGHT / 2 - 47);
-        gc.setFill(Color.rgb(255, 140, 0));
+        gc.setFill(RenderResources.TITLE_ORANGE);
         gc.fillText("Flappy Bird", CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 - 50);
 
-        gc.setFont(Font.font("Arial", FontWeight.NORMAL, 24));
+        gc.setFont(RenderResources.PROMPT_FONT);
         gc.setFill(Color.WHITE);
         gc.fillText("Click or Press SPACE to Start", CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 + 50);
 
+        int highScore = highScore();
         if (highScore > 0) {
-            gc.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-            gc.fillText("High Score: " + highScore, CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 + 100);
+            gc.setFont(RenderResources.MENU_HIGH_SCORE_FONT);
+            gc.fillText(highScoreText.of(highScore), CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 + 100);
         }
 
-        gc.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
-        gc.setFill(Color.rgb(200, 200, 200));
-        gc.fillText("Press S-Settings • 1-Danger • 2-Safe • 3-GameOver • A-Avatar",
+        gc.setFont(RenderResources.HINT_FONT);
+        gc.setFill(RenderResources.HINT_GREY);
+        gc.fillText("Press S-Settings • 1-Danger • 2-Safe • 3-GameOver • A-Avatar • P-Replay",
                 CANVAS_WIDTH / 2, CANVAS_HEIGHT - 30);
     }
 
-    private void renderScore() {
+    private void renderScore(GraphicsContext gc) {
         gc.setFill(Color.WHITE);
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(2);
         gc.setTextAlign(TextAlignment.CENTER);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 48));
+        gc.setFont(RenderResources.SCORE_FONT);
 
-        String scoreText = String.valueOf(score);
+        String scoreText = RenderResources.number(view.getScore());
         gc.strokeText(scoreText, CANVAS_WIDTH / 2, 60);
         gc.fillText(scoreText, CANVAS_WIDTH / 2, 60);
     }
 
-    private void renderGameOver() {
-        gc.setFill(Color.rgb(0, 0, 0, 0.6));
+    private void renderGameOver(GraphicsContext gc) {
+        gc.setFill(RenderResources.GAME_OVER_SHADE);
         gc.fillRect(0, 0, CANVAS_WIDTH, CANVAS_HEIGHT);
 
         gc.setTextAlign(TextAlignment.CENTER);
 
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 64));
+        gc.setFont(RenderResources.GAME_OVER_FONT);
         gc.setFill(Color.RED);
         gc.setStroke(Color.DARKRED);
         gc.setLineWidth(3);
         gc.strokeText("GAME OVER", CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 - 80);
         gc.fillText("GAME OVER", CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 - 80);
 
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 36));
+        gc.setFont(RenderResources.FINAL_SCORE_FONT);
         gc.setFill(Color.WHITE);
-        gc.fillText("Score: " + score, CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2);
+        gc.fillText(finalScoreText.of(view.getScore()), CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2);
 
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 28));
+        gc.setFont(RenderResources.HIGH_SCORE_FONT);
         gc.setFill(Color.GOLD);
-        gc.fillText("High Score: " + highScore, CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 + 50);
+        gc.fillText(highScoreText.of(highScore()), CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 + 50);
 
-        gc.setFont(Font.font("Arial", FontWeight.NORMAL, 24));
+        gc.setFont(RenderResources.PROMPT_FONT);
         gc.setFill(Color.WHITE);
         gc.fillText("Click or Press SPACE to Restart", CANVAS_WIDTH / 2, CANVAS_HEIGHT / 2 + 120);
     }
 
+    private void renderReplayLabel(GraphicsContext gc) {
+        long second = replayPlayer.getTick() / GameSimulation.TICKS_PER_SECOND;
+        if (second != replayLabelSecond) {
+            long total = replayPlayer.getReplay().getTicks() / GameSimulation.TICKS_PER_SECOND;
+            replayLabel = String.format("REPLAY  %d:%02d / %d:%02d   ◀ ▶ seek • Esc exit",
+                    second / 60, second % 60, total / 60, total % 60);
+            replayLabelSecond = second;
+        }
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setFont(RenderResources.HINT_FONT);
+        gc.setFill(Color.WHITE);
+        gc.fillText(replayLabel, 10, 20);
+    }
+
+    /**
+     * Pick up avatar and sound files changed while the game runs
+     */
+    private void startAssetWatcher() {
+        try {
+            assetWatcher = new AssetWatcher();
+            assetWatcher.watch(Paths.get("resources", "avatars"), avatarManager::fileChanged);
+            assetWatcher.watch(Paths.get("resources", "sounds"), soundManager::fileChanged);
+            assetWatcher.start();
+        } catch (IOException e) {
+            System.err.println("⚠ Asset folders won't be watched: " + e.getMessage());
+            assetWatcher = null;
+        }
+    }
+
     public void stop() {
         if (gameLoop != null) {
             gameLoop.stop();
         }
+        if (assetWatcher != null) {
+            assetWatcher.stop();
+        }
+        if (assetLoader != null) {
+            assetLoader.shutdown();
+        }
+        if (avatarManager != null) {
+            avatarManager.shutdown();
+        }
         if (soundManager != null) {
             soundManager.dispose();
         }
+        if (leaderboard != null) {
+            try {
+                leaderboard.close();
+            } catch (IOException e) {
+                System.err.println("✗ Failed to close leaderboard: " + e.getMessage());
+            }
+        }
+        if (archive != null) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                System.err.println("✗ Failed to close replay archive: " + e.getMessage());
+            }
+        }
     }
 }
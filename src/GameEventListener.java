@@ -0,0 +1,38 @@
+/**
+ * Receives gameplay events raised by {@link GameSimulation}.
+ * All methods default to doing nothing so headless runs can ignore them.
+ */
+public interface GameEventListener {
+
+    /**
+     * Bird is approaching the danger pillar
+     */
+    default void onDanger() {
+    }
+
+    /**
+     * Bird has just slipped past a pipe
+     */
+    default void onSafePass() {
+    }
+
+    /**
+     * Bird is flying too high (or has hit the ceiling)
+     */
+    default void onHighAltitude() {
+    }
+
+    /**
+     * Score has reached a milestone
+     */
+    default void onMilestone(int score) {
+    }
+
+    /**
+     * The run has ended
+     *
+     * @param playSound true if the game over sound should be played
+     */
+    default void onGameOver(boolean playSound) {
+    }
+}
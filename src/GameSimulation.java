@@ -0,0 +1,468 @@
+/**
+ * Headless game simulation: owns the bird, the pipes and the score.
+ * Has no JavaFX dependency, so it can be stepped without a display
+ * (bot evaluation, regression runs) and is driven by {@link GameEngine}
+ * when playing on screen.
+ */
+public class GameSimulation {
+    public enum State {
+        MENU, PLAYING, GAME_OVER
+    }
+
+    /**
+     * What ended a run
+     */
+    public enum DeathCause {
+        NONE, PIPE, CEILING, GROUND
+    }
+
+    public static final double WORLD_WIDTH = 800;
+    public static final double WORLD_HEIGHT = 600;
+    public static final double GROUND_HEIGHT = 50;
+    public static final double BIRD_START_X = 150;
+
+    // Fixed simulation rate: physics is identical at any display refresh rate
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+
+    static final long PIPE_SPAWN_INTERVAL = 2 * TICKS_PER_SECOND; // in ticks
+
+    // Game zones and thresholds
+    private static final double DANGER_PROXIMITY = 80;
+    private static final double SAFE_PROXIMITY = 150;
+    private static final double HIGH_ALTITUDE_THRESHOLD = 100;
+    private static final int MILESTONE_INTERVAL = 5;
+    private static final int DANGER_PIPE_INDEX = 3;
+
+    private static final State[] STATES = State.values();
+    private static final DeathCause[] DEATH_CAUSES = DeathCause.values();
+
+    private static final GameEventListener NO_EVENTS = new GameEventListener() {
+    };
+
+    private final Bird bird;
+    private final PipeManager pipes;
+    private final SimRandom seeds; // Picks each run's seed
+    private final SimRandom random; // Gap positions within a run
+    private long runSeed;
+    private GameEventListener listener;
+    private ReplayRecorder recorder; // Optional: records every run
+    private FrameProfiler profiler; // Optional: times the bird and pipe phases
+
+    private State state;
+    private int score;
+    private int highScore;
+
+    // Sound trigger tracking
+    private boolean wasInDanger;
+    private boolean wasTooHigh;
+    private int lastMilestoneScore;
+    private int pipeCounter; // Track number of pipes spawned
+    private DeathCause deathCause;
+    private int deathPipe; // Index of the pipe the bird died at
+
+    private long tick; // Simulation steps since the run started
+    private long lastPipeTick;
+
+    public GameSimulation() {
+        this(System.nanoTime() ^ Double.doubleToLongBits(Math.random()));
+    }
+
+    /**
+     * @param seed seeds the sequence of run seeds, so the same seed replays
+     *             the same runs for the same inputs
+     */
+    public GameSimulation(long seed) {
+        this.seeds = new SimRandom(seed);
+        this.random = new SimRandom(0);
+        this.bird = new Bird(BIRD_START_X, WORLD_HEIGHT / 2);
+        this.pipes = new PipeManager();
+        this.listener = NO_EVENTS;
+        this.state = State.MENU;
+        this.deathCause = DeathCause.NONE;
+    }
+
+    /**
+     * Set the receiver for gameplay events (null to ignore them)
+     */
+    public void setListener(GameEventListener listener) {
+        this.listener = listener != null ? listener : NO_EVENTS;
+    }
+
+    /**
+     * Time each step's bird and pipe work into a profiler (null to stop)
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Record every run from now on (null to stop)
+     */
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Start a new run with the next run seed
+     */
+    public void start() {
+        start(seeds.nextLong());
+    }
+
+    /**
+     * Start a new run whose pipes come from the given seed. A run is fully
+     * determined by its seed and the ticks at which {@link #jump()} is called.
+     */
+    public void start(long runSeed) {
+        this.runSeed = runSeed;
+        random.setState(runSeed);
+        state = State.PLAYING;
+        score = 0;
+        pipes.clear();
+        bird.reset(BIRD_START_X, WORLD_HEIGHT / 2);
+        tick = 0;
+        lastPipeTick = 0;
+        wasInDanger = false;
+        wasTooHigh = false;
+        lastMilestoneScore = 0;
+        pipeCounter = 0;
+        deathCause = DeathCause.NONE;
+        deathPipe = 0;
+        if (recorder != null) {
+            recorder.begin(runSeed);
+        }
+    }
+
+    /**
+     * Make the bird flap
+     *
+     * @return true if the jump was applied (only while playing)
+     */
+    public boolean jump() {
+        if (state != State.PLAYING) {
+            return false;
+        }
+        bird.jump();
+        if (recorder != null) {
+            recorder.recordJump(tick);
+        }
+        return true;
+    }
+
+    /**
+     * Advance the simulation by one fixed step of {@link #TICK_NANOS}
+     */
+    public void update() {
+        if (state != State.PLAYING) {
+            return;
+        }
+
+        tick++;
+        long phaseStart = profiler != null ? profiler.start() : 0;
+        bird.update();
+
+        checkHighAltitude();
+        checkMilestone();
+
+        if (profiler != null) {
+            profiler.stop(FrameProfiler.Phase.BIRD, phaseStart);
+            phaseStart = profiler.start();
+        }
+
+        movePipes();
+
+        boolean inDangerNow = false;
+        boolean justPassedSafe = false;
+
+        // Pipe collision - play game over sound. Only the pipes overlapping
+        // the bird's horizontal band are tested.
+        double birdX = bird.getX();
+        double birdRadius = bird.getRadius();
+        for (int i = pipes.firstEndingAfter(birdX - birdRadius); i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            if (pipe.getX() >= birdX + birdRadius) {
+                break;
+            }
+            if (pipe.collidesWith(birdX, bird.getY(), birdRadius)) {
+                gameOver(DeathCause.PIPE, pipe.getIndex(), true); // true = play sound
+            }
+        }
+
+        // Danger sound - ONLY for the 3rd pillar, within the window ahead of the bird
+        for (int i = pipes.firstStartingAfter(birdX); i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            if (!pipe.isNearBird(birdX, DANGER_PROXIMITY)) {
+                break;
+            }
+            if (pipe.getIndex() == DANGER_PIPE_INDEX) {
+                inDangerNow = true;
+                if (!wasInDanger) {
+                    listener.onDanger();
+                    wasInDanger = true;
+                }
+            }
+        }
+
+        // Pipes are passed in order, so only the next unscored one can score
+        Pipe next = pipes.nextUnscored();
+        while (next != null && next.isPassed(bird.getX())) {
+            if (!next.isOffScreen()) {
+                double distance = Math.abs((next.getX() + Pipe.getWidth() / 2) - bird.getX());
+                if (distance < SAFE_PROXIMITY) {
+                    justPassedSafe = true;
+                }
+            }
+
+            pipes.markNextScored();
+            score++;
+            if (score > highScore) {
+                highScore = score;
+            }
+            next = pipes.nextUnscored();
+        }
+
+        pipes.removeOffScreen();
+
+        if (!inDangerNow && wasInDanger) {
+            wasInDanger = false;
+        }
+
+        if (justPassedSafe) {
+            listener.onSafePass();
+        }
+
+        if (profiler != null) {
+            profiler.stop(FrameProfiler.Phase.PIPES, phaseStart);
+        }
+
+        // Check boundary collisions
+        if (bird.getY() - bird.getRadius() < 0) {
+            // Ceiling collision - high altitude sound instead of game over sound
+            listener.onHighAltitude();
+            gameOver(DeathCause.CEILING, pipeCounter > score ? score + 1 : 0, false);
+        } else if (bird.getY() + bird.getRadius() > WORLD_HEIGHT - GROUND_HEIGHT) {
+            // Ground collision - play game over sound
+            gameOver(DeathCause.GROUND, pipeCounter > score ? score + 1 : 0, true);
+        }
+
+        if (recorder != null) {
+            recorder.afterStep(this);
+        }
+    }
+
+    /**
+     * Centre of a new pipe's gap for a uniform random value in [0, 1)
+     */
+    static double gapYFor(double unitRandom) {
+        return unitRandom * (WORLD_HEIGHT - GROUND_HEIGHT - 300) + 200;
+    }
+
+    private void checkHighAltitude() {
+        // Warn when flying too high (but not colliding yet)
+        if (bird.getY() < HIGH_ALTITUDE_THRESHOLD) {
+            if (!wasTooHigh) {
+                listener.onHighAltitude();
+                wasTooHigh = true;
+            }
+        } else {
+            wasTooHigh = false;
+        }
+    }
+
+    private void checkMilestone() {
+        if (score > 0 && score % MILESTONE_INTERVAL == 0 && score != lastMilestoneScore) {
+            listener.onMilestone(score);
+            lastMilestoneScore = score;
+        }
+    }
+
+    /**
+     * Handle game over. A step can hit several things (two pipes, or a pipe
+     * and the ground); only the first ends the run and tells the listener.
+     *
+     * @param pipe      index of the pipe the bird hit or was heading for (0 if
+     *                  none had spawned yet)
+     * @param playSound true to play game over sound, false otherwise
+     */
+    private void gameOver(DeathCause cause, int pipe, boolean playSound) {
+        if (deathCause != DeathCause.NONE) {
+            return;
+        }
+        deathCause = cause;
+        deathPipe = pipe;
+        state = State.GAME_OVER;
+        listener.onGameOver(playSound);
+    }
+
+    /**
+     * Spawn a pipe when one is due, then move every pipe one step
+     */
+    private void movePipes() {
+        if (tick - lastPipeTick > PIPE_SPAWN_INTERVAL) {
+            double gapY = gapYFor(random.nextDouble());
+            pipes.spawn(WORLD_WIDTH, gapY, ++pipeCounter);
+            lastPipeTick = tick;
+        }
+        for (int i = 0; i < pipes.size(); i++) {
+            pipes.get(i).update();
+        }
+    }
+
+    /**
+     * Advance only the pipes by one step, exactly as {@link #update()} moves
+     * them, leaving the bird and the score alone. Pipes never depend on the
+     * bird, so {@link Autopilot} runs this on a restored copy of the game to
+     * see the course ahead.
+     */
+    void stepPipes() {
+        tick++;
+        movePipes();
+        pipes.removeOffScreen();
+    }
+
+    // ===== STATE =====
+
+    /**
+     * Hash of the whole simulation state, for checking that a replay
+     * reproduces the recorded run exactly
+     */
+    public long checksum() {
+        long hash = mixHash(runSeed, tick);
+        hash = mixHash(hash, random.getState());
+        hash = mixHash(hash, Double.doubleToLongBits(bird.getY()));
+        hash = mixHash(hash, Double.doubleToLongBits(bird.getVelocity()));
+        hash = mixHash(hash, ((long) score << 32) | pipeCounter);
+        for (int i = 0; i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            hash = mixHash(hash, Double.doubleToLongBits(pipe.getX()));
+            hash = mixHash(hash, Double.doubleToLongBits(pipe.getGapY()));
+        }
+        return hash;
+    }
+
+    private static long mixHash(long hash, long value) {
+        return SimRandom.mix(hash * 31 + value);
+    }
+
+    /**
+     * Copy the complete state into a (reusable) snapshot
+     */
+    public void saveTo(SimSnapshot snapshot) {
+        snapshot.longs[SimSnapshot.TICK] = tick;
+        snapshot.longs[SimSnapshot.LAST_PIPE_TICK] = lastPipeTick;
+        snapshot.longs[SimSnapshot.RNG_STATE] = random.getState();
+        snapshot.longs[SimSnapshot.RUN_SEED] = runSeed;
+
+        snapshot.ints[SimSnapshot.STATE] = state.ordinal();
+        snapshot.ints[SimSnapshot.SCORE] = score;
+        snapshot.ints[SimSnapshot.HIGH_SCORE] = highScore;
+        snapshot.ints[SimSnapshot.PIPE_COUNTER] = pipeCounter;
+        snapshot.ints[SimSnapshot.LAST_MILESTONE] = lastMilestoneScore;
+        snapshot.ints[SimSnapshot.FLAGS] = (wasInDanger ? 1 : 0) | (wasTooHigh ? 2 : 0);
+        snapshot.ints[SimSnapshot.DEATH_CAUSE] = deathCause.ordinal();
+        snapshot.ints[SimSnapshot.DEATH_PIPE] = deathPipe;
+        snapshot.ints[SimSnapshot.PIPE_COUNT] = pipes.size();
+        snapshot.ints[SimSnapshot.SCORED_COUNT] = pipes.getScoredCount();
+
+        bird.saveTo(snapshot.bird, 0);
+        snapshot.ensurePipeCapacity(pipes.size());
+        for (int i = 0; i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            pipe.saveTo(snapshot.pipeValues, i * SimSnapshot.PIPE_STRIDE);
+            snapshot.pipeIndex[i] = pipe.getIndex();
+        }
+    }
+
+    /**
+     * Return to the state saved in a snapshot (listener and recorder are kept)
+     */
+    public void restoreFrom(SimSnapshot snapshot) {
+        tick = snapshot.longs[SimSnapshot.TICK];
+        lastPipeTick = snapshot.longs[SimSnapshot.LAST_PIPE_TICK];
+        random.setState(snapshot.longs[SimSnapshot.RNG_STATE]);
+        runSeed = snapshot.longs[SimSnapshot.RUN_SEED];
+
+        state = STATES[snapshot.ints[SimSnapshot.STATE]];
+        score = snapshot.ints[SimSnapshot.SCORE];
+        highScore = snapshot.ints[SimSnapshot.HIGH_SCORE];
+        pipeCounter = snapshot.ints[SimSnapshot.PIPE_COUNTER];
+        lastMilestoneScore = snapshot.ints[SimSnapshot.LAST_MILESTONE];
+        wasInDanger = (snapshot.ints[SimSnapshot.FLAGS] & 1) != 0;
+        wasTooHigh = (snapshot.ints[SimSnapshot.FLAGS] & 2) != 0;
+        deathCause = DEATH_CAUSES[snapshot.ints[SimSnapshot.DEATH_CAUSE]];
+        deathPipe = snapshot.ints[SimSnapshot.DEATH_PIPE];
+
+        bird.restoreFrom(snapshot.bird, 0);
+        pipes.clear();
+        int pipeCount = snapshot.ints[SimSnapshot.PIPE_COUNT];
+        int scoredCount = snapshot.ints[SimSnapshot.SCORED_COUNT];
+        for (int i = 0; i < pipeCount; i++) {
+            Pipe pipe = pipes.spawn(0, 0, 0);
+            pipe.restoreFrom(snapshot.pipeValues, i * SimSnapshot.PIPE_STRIDE, snapshot.pipeIndex[i],
+                    i < scoredCount);
+        }
+        pipes.setScoredCount(scoredCount);
+    }
+
+    // Getters
+    public Bird getBird() {
+        return bird;
+    }
+
+    /**
+     * Pipes currently in play, oldest (leftmost) first
+     */
+    public PipeManager getPipes() {
+        return pipes;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isPlaying() {
+        return state == State.PLAYING;
+    }
+
+    /**
+     * Number of simulation steps taken in the current run
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Seed of the current (or last) run
+     */
+    public long getRunSeed() {
+        return runSeed;
+    }
+
+    /**
+     * What ended the last run (NONE while it's still going)
+     */
+    public DeathCause getDeathCause() {
+        return deathCause;
+    }
+
+    /**
+     * Index of the pipe the last run died at: the one it hit, or the one it
+     * was heading for when it hit the ceiling or the ground
+     */
+    public int getDeathPipe() {
+        return deathPipe;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getHighScore() {
+        return highScore;
+    }
+
+    public static double getGroundY() {
+        return WORLD_HEIGHT - GROUND_HEIGHT;
+    }
+}
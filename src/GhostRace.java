@@ -0,0 +1,170 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ghosts of earlier runs flying alongside the player.
+ *
+ * A bird's height depends only on when it flapped, so a ghost needs no pipes
+ * of its own: its recorded jumps are replayed through the same physics as
+ * {@link Bird}. Ghosts are kept in flat arrays and all stepped in one pass.
+ * They're sorted by avatar, so a renderer can draw each avatar's ghosts
+ * together. When a ghost's run ends it stops where it died and scrolls away
+ * with the pipes.
+ *
+ * Has no JavaFX dependency; see {@link GhostRenderer} for drawing.
+ */
+public class GhostRace {
+    private static final double START_Y = GameSimulation.WORLD_HEIGHT / 2;
+
+    private Replay[] replays = new Replay[0];
+    private Replay.JumpReader[] jumps = new Replay.JumpReader[0];
+    private String[] avatars = new String[0]; // Distinct avatar names, one group each
+    private int[] groupStart = new int[1]; // Ghosts of group g are groupStart[g]..groupStart[g + 1]-1
+    private int count;
+
+    // One slot per ghost
+    private double[] y = new double[0];
+    private double[] prevY = new double[0];
+    private double[] velocity = new double[0];
+    private long[] nextJump = new long[0];
+    private long[] endTick = new long[0];
+
+    private long tick;
+
+    /**
+     * Race against these runs from now on (takes effect at the next
+     * {@link #restart})
+     */
+    public void load(List<Replay> runs) {
+        Replay[] sorted = runs.toArray(new Replay[0]);
+        Arrays.sort(sorted, (a, b) -> a.getAvatar().compareTo(b.getAvatar()));
+
+        List<String> names = new ArrayList<>();
+        int[] starts = new int[sorted.length + 1];
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || !sorted[i].getAvatar().equals(sorted[i - 1].getAvatar())) {
+                starts[names.size()] = i;
+                names.add(sorted[i].getAvatar());
+            }
+        }
+        starts[names.size()] = sorted.length;
+
+        replays = sorted;
+        avatars = names.toArray(new String[0]);
+        groupStart = Arrays.copyOf(starts, names.size() + 1);
+        count = sorted.length;
+        jumps = new Replay.JumpReader[count];
+        y = new double[count];
+        prevY = new double[count];
+        velocity = new double[count];
+        nextJump = new long[count];
+        endTick = new long[count];
+        restart();
+    }
+
+    /**
+     * Put every ghost back at the start, for a new run
+     */
+    public void restart() {
+        tick = 0;
+        for (int i = 0; i < count; i++) {
+            jumps[i] = replays[i].jumps();
+            nextJump[i] = jumps[i].peek();
+            endTick[i] = replays[i].getTicks();
+            y[i] = START_Y;
+            prevY[i] = START_Y;
+            velocity[i] = 0;
+        }
+    }
+
+    /**
+     * Advance every ghost by one simulation step, in step with
+     * {@link GameSimulation#update}
+     */
+    public void step() {
+        long now = tick;
+        double jumpStrength = Bird.getJumpStrength();
+        for (int i = 0; i < count; i++) {
+            if (now >= endTick[i]) {
+                prevY[i] = y[i];
+                continue;
+            }
+            // A jump recorded at tick t was made before the step that takes
+            // the simulation from t to t + 1
+            if (nextJump[i] == now) {
+                velocity[i] = jumpStrength;
+                Replay.JumpReader reader = jumps[i];
+                do {
+                    reader.advance();
+                } while (reader.peek() == now);
+                nextJump[i] = reader.peek();
+            }
+            prevY[i] = y[i];
+            double v = Bird.applyGravity(velocity[i]);
+            velocity[i] = v;
+            y[i] += v;
+        }
+        tick = now + 1;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Number of distinct avatars among the ghosts
+     */
+    public int getGroupCount() {
+        return avatars.length;
+    }
+
+    public String getGroupAvatar(int group) {
+        return avatars[group];
+    }
+
+    /**
+     * First ghost of a group (ghosts of one group are contiguous)
+     */
+    public int getGroupStart(int group) {
+        return groupStart[group];
+    }
+
+    public int getGroupEnd(int group) {
+        return groupStart[group + 1];
+    }
+
+    /**
+     * Horizontal position: with the player while flying, then scrolling
+     * left with the pipes from where the run ended
+     *
+     * @param alpha interpolation between the last two simulation steps
+     */
+    public double getRenderX(int ghost, double alpha) {
+        double behind = tick - endTick[ghost] - 1 + alpha;
+        return behind <= 0 ? GameSimulation.BIRD_START_X
+                : GameSimulation.BIRD_START_X - behind * Pipe.getSpeed();
+    }
+
+    public double getRenderY(int ghost, double alpha) {
+        return prevY[ghost] + (y[ghost] - prevY[ghost]) * alpha;
+    }
+
+    /**
+     * Tilt in degrees, worked out from the velocity as {@link Bird} does
+     */
+    public double getRotation(int ghost) {
+        return Math.min(Math.max(velocity[ghost] * 3, -30), 90);
+    }
+
+    /**
+     * True while the ghost is still flying
+     */
+    public boolean isAlive(int ghost) {
+        return tick < endTick[ghost];
+    }
+}
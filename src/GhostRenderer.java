@@ -0,0 +1,118 @@
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Draws a {@link GhostRace}: hundreds of translucent birds per frame.
+ *
+ * Each avatar's ghost is rasterized once into a strip of pre-rotated,
+ * already translucent frames (face, beak and all), so a ghost costs one
+ * drawImage from that strip instead of a save/rotate/clip/restore. Ghosts
+ * are drawn group by group, one strip at a time.
+ *
+ * Must be used on the JavaFX application thread (uses Canvas snapshots).
+ */
+public class GhostRenderer {
+    private static final double GHOST_ALPHA = 0.35;
+    private static final double MIN_ROTATION = -30;
+    private static final double MAX_ROTATION = 90;
+    private static final double ROTATION_STEP = 10;
+    private static final int FRAMES = (int) ((MAX_ROTATION - MIN_ROTATION) / ROTATION_STEP) + 1;
+
+    private static final double SIZE = Bird.getBirdRadius() * 2;
+    // Square that holds the bird and its beak at any rotation
+    private static final double FRAME = Math.ceil(2 * (Bird.getBirdRadius() + 10) + 2);
+
+    private final Map<String, Image> strips = new HashMap<>(); // By avatar name
+    private Image defaultStrip;
+    private long stripsKey; // Avatar list version and image generation the strips were built from
+
+    /**
+     * @param alpha interpolation between the last two simulation steps
+     */
+    public void render(GraphicsContext gc, GhostRace ghosts, AvatarManager avatarManager, double alpha) {
+        double half = FRAME / 2;
+        for (int group = 0; group < ghosts.getGroupCount(); group++) {
+            Image strip = stripFor(ghosts.getGroupAvatar(group), avatarManager);
+            for (int i = ghosts.getGroupStart(group); i < ghosts.getGroupEnd(group); i++) {
+                double x = ghosts.getRenderX(i, alpha);
+                if (x < -half) {
+                    continue; // Scrolled off after dying
+                }
+                int frame = (int) Math.round((ghosts.getRotation(i) - MIN_ROTATION) / ROTATION_STEP);
+                gc.drawImage(strip, frame * FRAME, 0, FRAME, FRAME,
+                        x - half, ghosts.getRenderY(i, alpha) - half, FRAME, FRAME);
+            }
+        }
+    }
+
+    /**
+     * The avatar's strip, built on first use. Until the avatar's sprite has
+     * been decoded the default bird stands in, and the strip is built again
+     * once it has. Every strip is dropped when avatars are added, removed or
+     * decoded again, so a reloaded avatar shows up on its ghosts too.
+     */
+    private Image stripFor(String avatar, AvatarManager avatarManager) {
+        long key = CanvasLayer.key(avatarManager.getListVersion(), avatarManager.getImageGeneration());
+        if (key != stripsKey) {
+            strips.clear();
+            stripsKey = key;
+        }
+        Image strip = strips.get(avatar);
+        if (strip != null) {
+            return strip;
+        }
+        int index = avatarManager.indexOf(avatar);
+        Image sprite = index >= 0 ? avatarManager.getSprite(index) : null;
+        if (sprite != null) {
+            strip = rasterize(sprite);
+            strips.put(avatar, strip);
+            return strip;
+        }
+        if (defaultStrip == null) {
+            defaultStrip = rasterize(null);
+        }
+        if (index < 0) {
+            strips.put(avatar, defaultStrip); // Unknown avatar: the default bird until the list changes
+        }
+        return defaultStrip;
+    }
+
+    /**
+     * Draw every rotation frame of one ghost into a transparent strip
+     *
+     * @param sprite circular avatar sprite, or null for the default bird
+     */
+    private static Image rasterize(Image sprite) {
+        Canvas canvas = new Canvas(FRAME * FRAMES, FRAME);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setGlobalAlpha(GHOST_ALPHA);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            gc.save();
+            gc.translate(frame * FRAME + FRAME / 2, FRAME / 2);
+            gc.rotate(MIN_ROTATION + frame * ROTATION_STEP);
+            if (sprite != null) {
+                gc.drawImage(sprite, -SIZE / 2, -SIZE / 2, SIZE, SIZE);
+            } else {
+                gc.setFill(RenderResources.BIRD_BODY);
+                gc.fillOval(-SIZE / 2, -SIZE / 2, SIZE, SIZE);
+                gc.setFill(Color.WHITE);
+                gc.fillOval(SIZE / 4 - 8, -SIZE / 4 - 4, 8, 8);
+                gc.setFill(Color.BLACK);
+                gc.fillOval(SIZE / 4 - 6, -SIZE / 4 - 2, 4, 4);
+            }
+            gc.setFill(RenderResources.BEAK);
+            gc.fillPolygon(RenderResources.BEAK_X, RenderResources.BEAK_Y, 3);
+            gc.restore();
+        }
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(params, null);
+    }
+}
@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Runs the game simulation without a display, flown by a simple rule-based
+ * bot or by a network saved by {@link NeuroTrainer}. Useful for bot
+ * evaluation and regression runs on machines with no screen.
+ *
+ * Usage: java -cp out HeadlessRunner [ticks] [seed] [network file]
+ */
+public class HeadlessRunner {
+
+    /**
+     * Flap when the bird is falling below the centre of the next gap
+     */
+    static final BirdController RULE_BOT = state ->
+            state.getVelocity() >= 0 && state.getBirdY() > state.getNextGapY() + 20;
+
+    public static void main(String[] args) throws IOException {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        BirdController controller = args.length > 2 ? NeuralController.readFrom(Paths.get(args[2])) : RULE_BOT;
+        BirdController.Observation state = new BirdController.Observation();
+
+        GameSimulation simulation = new GameSimulation(seed);
+        long games = 0;
+        long totalScore = 0;
+
+        simulation.start();
+        long startTime = System.nanoTime();
+        for (long tick = 0; tick < ticks; tick++) {
+            if (controller.shouldJump(state.observe(simulation))) {
+                simulation.jump();
+            }
+
+            simulation.update();
+
+            if (!simulation.isPlaying()) {
+                games++;
+                totalScore += simulation.getScore();
+                simulation.start();
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        double seconds = elapsed / 1e9;
+        System.out.printf("Ticks: %,d in %.2f s (%,.0f ticks/sec)%n", ticks, seconds, ticks / seconds);
+        System.out.printf("Games finished: %,d  best score: %d  mean score: %.2f%n",
+                games, simulation.getHighScore(), games > 0 ? (double) totalScore / games : 0.0);
+    }
+}
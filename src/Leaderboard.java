@@ -0,0 +1,351 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Top scores per player (avatar name), kept on disk across restarts.
+ *
+ * The scores live in memory and are only touched by the thread that calls
+ * {@link #submit} and the getters (the FX thread in the game). Every new top
+ * score is appended to a log file on a background thread, so the caller
+ * never waits for the disk. Once the log holds a lot of scores that have
+ * since been pushed out, it's rewritten with only the current ones: written
+ * to a temporary file and renamed over the log, so a crash at any point
+ * leaves either the old or the new log.
+ *
+ * Each log record carries a CRC; loading stops at the first record that is
+ * torn or corrupt (a kill mid-append) and cuts the log back to there.
+ */
+public class Leaderboard implements AutoCloseable {
+    public static final int DEFAULT_PER_PLAYER = 10;
+
+    // Record: crc (int), name length (short), name (UTF-8), score (int), time (long)
+    private static final int HEADER_BYTES = 6;
+    private static final int MAX_NAME_BYTES = 255;
+    private static final int COMPACT_MIN_RECORDS = 256;
+
+    private final Path file;
+    private final int perPlayer;
+    private final Map<String, Entry[]> scores = new HashMap<>(); // Best first, null-padded
+    private final ExecutorService writer;
+    private FileChannel log; // Only used on the writer thread
+    private int logRecords; // Records in the log, including ones pushed out
+    private int liveRecords;
+
+    /**
+     * One score on the board
+     */
+    public static final class Entry {
+        private final String player;
+        private final int score;
+        private final long time;
+
+        Entry(String player, int score, long time) {
+            this.player = player;
+            this.score = score;
+            this.time = time;
+        }
+
+        public String getPlayer() {
+            return player;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * When the score was set, in epoch millis
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+
+    public Leaderboard(Path file) throws IOException {
+        this(file, DEFAULT_PER_PLAYER);
+    }
+
+    /**
+     * Load the board (synchronously; the log is kept small by compaction)
+     */
+    public Leaderboard(Path file, int perPlayer) throws IOException {
+        this.file = file;
+        this.perPlayer = perPlayer;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        // A leftover from a compaction that never got renamed
+        Files.deleteIfExists(tempFile());
+
+        log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = load();
+        if (valid < log.size()) {
+            System.out.println("⚠ Leaderboard: dropped " + (log.size() - valid) + " bytes of a torn write");
+            log.truncate(valid);
+        }
+        log.position(valid);
+
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "leaderboard-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Path tempFile() {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Read records until the end or the first bad one
+     *
+     * @return length of the valid part of the log
+     */
+    private long load() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(log.size(), Integer.MAX_VALUE));
+        while (buffer.hasRemaining() && log.read(buffer, buffer.position()) > 0) {
+            // Keep reading
+        }
+        buffer.flip();
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int expected = buffer.getInt();
+            int nameLength = buffer.getShort() & 0xFFFF;
+            if (nameLength > MAX_NAME_BYTES || buffer.remaining() < nameLength + 12) {
+                buffer.position(start);
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.array(), start + 4, HEADER_BYTES - 4 + nameLength + 12);
+            if ((int) crc.getValue() != expected) {
+                buffer.position(start);
+                break;
+            }
+            String player = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + nameLength);
+            int score = buffer.getInt();
+            long time = buffer.getLong();
+            insert(new Entry(player, score, time));
+            logRecords++;
+        }
+        return buffer.position();
+    }
+
+    // ===== SCORES =====
+
+    /**
+     * Record a finished run; returns immediately
+     *
+     * @return true if the score made the player's top list
+     */
+    public boolean submit(String player, int score) {
+        if (score <= 0) {
+            return false;
+        }
+        Entry entry = new Entry(player, score, System.currentTimeMillis());
+        if (!insert(entry)) {
+            return false;
+        }
+        logRecords++;
+        byte[] record = encode(entry);
+        writer.execute(() -> append(record));
+
+        if (logRecords >= COMPACT_MIN_RECORDS && logRecords > 2 * liveRecords) {
+            byte[] compacted = encodeAll();
+            logRecords = liveRecords;
+            writer.execute(() -> compact(compacted));
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the entry is among the player's best
+     */
+    private boolean insert(Entry entry) {
+        Entry[] top = scores.computeIfAbsent(entry.player, name -> new Entry[perPlayer]);
+        int slot = perPlayer;
+        while (slot > 0 && (top[slot - 1] == null || top[slot - 1].score < entry.score)) {
+            slot--;
+        }
+        if (slot == perPlayer) {
+            return false;
+        }
+        if (top[perPlayer - 1] == null) {
+            liveRecords++;
+        }
+        System.arraycopy(top, slot, top, slot + 1, perPlayer - slot - 1);
+        top[slot] = entry;
+        return true;
+    }
+
+    /**
+     * The player's best score, or 0 if they have none
+     */
+    public int getBest(String player) {
+        Entry[] top = scores.get(player);
+        return top == null || top[0] == null ? 0 : top[0].score;
+    }
+
+    /**
+     * The player's scores, best first
+     */
+    public List<Entry> getTop(String player) {
+        Entry[] top = scores.get(player);
+        List<Entry> list = new ArrayList<>();
+        if (top != null) {
+            for (Entry entry : top) {
+                if (entry != null) {
+                    list.add(entry);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * The best scores across all players, best first
+     */
+    public List<Entry> getTopOverall(int n) {
+        List<Entry> all = new ArrayList<>();
+        for (Entry[] top : scores.values()) {
+            for (Entry entry : top) {
+                if (entry != null) {
+                    all.add(entry);
+                }
+            }
+        }
+        all.sort((a, b) -> Integer.compare(b.score, a.score));
+        return all.size() > n ? new ArrayList<>(all.subList(0, n)) : all;
+    }
+
+    // ===== LOG =====
+
+    private static byte[] encode(Entry entry) {
+        byte[] name = encodeName(entry.player);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + name.length + 12);
+        record.position(4);
+        record.putShort((short) name.length).put(name).putInt(entry.score).putLong(entry.time);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, record.capacity() - 4);
+        record.putInt(0, (int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * UTF-8 bytes of a player name, cut to at most MAX_NAME_BYTES without
+     * splitting a character
+     */
+    private static byte[] encodeName(String player) {
+        byte[] name = player.getBytes(StandardCharsets.UTF_8);
+        if (name.length <= MAX_NAME_BYTES) {
+            return name;
+        }
+        int end = 0;
+        int bytes = 0;
+        while (end < player.length()) {
+            int codePoint = player.codePointAt(end);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + size > MAX_NAME_BYTES) {
+                break;
+            }
+            bytes += size;
+            end += Character.charCount(codePoint);
+        }
+        return player.substring(0, end).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] encodeAll() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(liveRecords * 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Entry[] top : scores.values()) {
+                for (Entry entry : top) {
+                    if (entry != null) {
+                        out.write(encode(entry));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Can't happen in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    private void append(byte[] record) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            System.err.println("✗ Failed to save score: " + e.getMessage());
+        }
+    }
+
+    private void compact(byte[] records) {
+        Path temp = tempFile();
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(records);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            log.close();
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("✗ Failed to compact leaderboard: " + e.getMessage());
+        }
+        try {
+            if (!log.isOpen()) {
+                log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            System.err.println("✗ Failed to reopen leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wait for queued writes to reach the disk
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> null).get();
+        } catch (Exception e) {
+            System.err.println("✗ Failed to flush leaderboard: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A small neural network that flies the bird: the observation goes through
+ * one hidden layer, and the bird flaps when the single output is positive.
+ *
+ * The forward pass is written for a whole population at once (see
+ * {@link #evaluate}), with each weight of every network stored side by
+ * side, so {@link NeuroTrainer} runs it as one loop per weight over a range
+ * of games. A single controller is just a population of one, so a network
+ * flies exactly the same in training and in the game.
+ */
+public class NeuralController implements BirdController {
+    public static final int INPUTS = 6;
+    public static final int HIDDEN = 8;
+
+    // Weights of hidden neuron h: bias at h * (INPUTS + 1), then one per input.
+    // Output: bias at OUTPUT, then one per hidden neuron.
+    private static final int OUTPUT = HIDDEN * (INPUTS + 1);
+    public static final int PARAMS = OUTPUT + 1 + HIDDEN;
+
+    private static final int MAGIC = 0x46424E4E; // "FBNN"
+    private static final int VERSION = 1;
+
+    private final double[] weights;
+    private final double[] inputs = new double[INPUTS];
+    private final double[] hidden = new double[1];
+    private final double[] output = new double[1];
+
+    /**
+     * @param weights {@link #PARAMS} weights (copied)
+     */
+    public NeuralController(double[] weights) {
+        if (weights.length != PARAMS) {
+            throw new IllegalArgumentException("Expected " + PARAMS + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    @Override
+    public boolean shouldJump(Observation state) {
+        encode(state, inputs, 0, 1);
+        evaluate(weights, 1, 0, inputs, hidden, output, 1);
+        return output[0] > 0;
+    }
+
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Scale an observation into network inputs, written to
+     * inputs[i * stride + column]
+     */
+    static void encode(Observation state, double[] inputs, int column, int stride) {
+        double y = state.birdY;
+        inputs[column] = (y - GameSimulation.WORLD_HEIGHT / 2) / GameSimulation.WORLD_HEIGHT;
+        inputs[stride + column] = state.velocity / 10;
+        inputs[2 * stride + column] = state.nextDistance / GameSimulation.WORLD_WIDTH;
+        inputs[3 * stride + column] = (state.nextGapY - y) / GameSimulation.WORLD_HEIGHT;
+        inputs[4 * stride + column] = state.afterDistance / GameSimulation.WORLD_WIDTH;
+        inputs[5 * stride + column] = (state.afterGapY - y) / GameSimulation.WORLD_HEIGHT;
+    }
+
+    /**
+     * Forward pass for n networks at once. Weight p of network k is
+     * weights[p * stride + first + k] and its input i is inputs[i * n + k].
+     * Every loop runs over k, so each step is a plain array sweep.
+     *
+     * @param hidden scratch of at least n
+     * @param output receives the n outputs (positive = flap)
+     */
+    static void evaluate(double[] weights, int stride, int first, double[] inputs,
+                         double[] hidden, double[] output, int n) {
+        int row = OUTPUT * stride + first;
+        for (int k = 0; k < n; k++) {
+            output[k] = weights[row + k];
+        }
+        for (int h = 0; h < HIDDEN; h++) {
+            int neuron = h * (INPUTS + 1);
+            row = neuron * stride + first;
+            for (int k = 0; k < n; k++) {
+                hidden[k] = weights[row + k];
+            }
+            for (int i = 0; i < INPUTS; i++) {
+                row = (neuron + 1 + i) * stride + first;
+                int in = i * n;
+                for (int k = 0; k < n; k++) {
+                    hidden[k] += weights[row + k] * inputs[in + k];
+                }
+            }
+            row = (OUTPUT + 1 + h) * stride + first;
+            for (int k = 0; k < n; k++) {
+                double a = hidden[k];
+                output[k] += weights[row + k] * (a / (1 + Math.abs(a))); // Softsign
+            }
+        }
+    }
+
+    // ===== FILES =====
+
+    public void writeTo(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeShort(PARAMS);
+            for (double w : weights) {
+                out.writeDouble(w);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if the file isn't a network of this shape
+     */
+    public static NeuralController readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a network file");
+            }
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported network version " + version);
+            }
+            int params = in.readShort();
+            if (params != PARAMS) {
+                throw new IOException("Network has " + params + " weights, expected " + PARAMS);
+            }
+            double[] weights = new double[PARAMS];
+            for (int p = 0; p < PARAMS; p++) {
+                weights[p] = in.readDouble();
+            }
+            return new NeuralController(weights);
+        }
+    }
+}
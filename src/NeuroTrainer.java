@@ -0,0 +1,270 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evolves {@link NeuralController}s on the headless rules.
+ *
+ * Each generation the whole population flies several episodes at once on a
+ * {@link BatchSimulator}: game g is episode g / population of genome
+ * g % population, and every genome sees the same pipes in a given episode.
+ * The batch steps ranges of games in parallel across cores, and each range
+ * decides all its flaps with one batched forward pass (weights are stored
+ * genome-minor, so a range's networks are evaluated weight by weight).
+ * Fitness is ticks survived plus a bonus per pipe, averaged over the
+ * episodes. The fittest genomes carry over unchanged and the rest of the
+ * next generation are mutated winners of small tournaments.
+ *
+ * Usage: java -cp out NeuroTrainer [generations] [population] [output file]
+ */
+public class NeuroTrainer {
+    private static final int EPISODES = 4;
+    private static final int MAX_TICKS = 60 * GameSimulation.TICKS_PER_SECOND; // A minute of flying
+    private static final double PIPE_BONUS = 100; // In ticks
+    private static final int CHECK_INTERVAL = GameSimulation.TICKS_PER_SECOND; // Ticks between "all dead?" checks
+
+    private static final double ELITE_FRACTION = 0.05;
+    private static final int TOURNAMENT = 3;
+    private static final double MUTATION_RATE = 0.1; // Chance each weight is nudged
+    private static final double MUTATION_SIZE = 0.3;
+
+    /**
+     * Per-worker buffers for a range's forward pass
+     */
+    private static final class Scratch {
+        final BirdController.Observation state = new BirdController.Observation();
+        double[] inputs = new double[0];
+        double[] hidden = new double[0];
+        double[] output = new double[0];
+
+        void ensure(int n) {
+            if (output.length < n) {
+                inputs = new double[NeuralController.INPUTS * n];
+                hidden = new double[n];
+                output = new double[n];
+            }
+        }
+    }
+
+    private final int population;
+    private final int episodes;
+    private final int maxTicks;
+    private final BatchSimulator batch;
+    private final BatchSimulator.Policy policy = this::decide;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final Random random;
+    private final SimRandom seeds; // Pipes of each episode
+
+    // Weight p of genome k is weights[p * population + k]
+    private double[] weights;
+    private double[] nextWeights;
+    private final double[] fitness;
+    private final double[] meanScore;
+    private final Integer[] ranking;
+
+    private int generation;
+    private double[] bestWeights;
+    private double bestFitness;
+    private double bestScore;
+    private double populationScore;
+
+    public NeuroTrainer(int population, long seed) {
+        this(population, EPISODES, MAX_TICKS, seed, ForkJoinPool.commonPool());
+    }
+
+    public NeuroTrainer(int population, int episodes, int maxTicks, long seed, ForkJoinPool pool) {
+        this.population = population;
+        this.episodes = episodes;
+        this.maxTicks = maxTicks;
+        this.batch = new BatchSimulator(population * episodes, seed, pool);
+        this.random = new Random(seed);
+        this.seeds = new SimRandom(seed);
+
+        weights = new double[NeuralController.PARAMS * population];
+        nextWeights = new double[weights.length];
+        fitness = new double[population];
+        meanScore = new double[population];
+        ranking = new Integer[population];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextGaussian();
+        }
+    }
+
+    /**
+     * Fly the current generation and breed the next one from it
+     */
+    public void step() {
+        evaluate();
+        breed();
+        generation++;
+    }
+
+    // ===== EVALUATION =====
+
+    private void evaluate() {
+        for (int e = 0; e < episodes; e++) {
+            long episodeSeed = seeds.nextLong();
+            for (int k = 0; k < population; k++) {
+                int g = e * population + k;
+                batch.reseed(g, episodeSeed);
+                batch.reset(g);
+            }
+        }
+
+        for (int ticks = 0; ticks < maxTicks && batch.getAliveCount() > 0; ticks += CHECK_INTERVAL) {
+            batch.run(Math.min(CHECK_INTERVAL, maxTicks - ticks), policy);
+        }
+
+        Arrays.fill(fitness, 0);
+        Arrays.fill(meanScore, 0);
+        for (int g = 0; g < population * episodes; g++) {
+            int k = g % population;
+            fitness[k] += (batch.getTicks(g) + PIPE_BONUS * batch.getScore(g)) / episodes;
+            meanScore[k] += (double) batch.getScore(g) / episodes;
+        }
+
+        int best = 0;
+        double total = 0;
+        for (int k = 0; k < population; k++) {
+            if (fitness[k] > fitness[best]) {
+                best = k;
+            }
+            total += meanScore[k];
+        }
+        bestWeights = genome(weights, best);
+        bestFitness = fitness[best];
+        bestScore = meanScore[best];
+        populationScore = total / population;
+    }
+
+    /**
+     * Flaps for games [from, to), split where an episode ends so that each
+     * part is one forward pass over consecutive genomes
+     */
+    private void decide(BatchSimulator batch, int from, int to, boolean[] jump) {
+        Scratch s = scratch.get();
+        s.ensure(Math.min(to - from, population));
+        for (int start = from; start < to;) {
+            int first = start % population;
+            int n = Math.min(to - start, population - first);
+            for (int k = 0; k < n; k++) {
+                NeuralController.encode(s.state.observe(batch, start + k), s.inputs, k, n);
+            }
+            NeuralController.evaluate(weights, population, first, s.inputs, s.hidden, s.output, n);
+            for (int k = 0; k < n; k++) {
+                jump[start + k] = s.output[k] > 0;
+            }
+            start += n;
+        }
+    }
+
+    // ===== BREEDING =====
+
+    private void breed() {
+        for (int k = 0; k < population; k++) {
+            ranking[k] = k;
+        }
+        Arrays.sort(ranking, (a, b) -> Double.compare(fitness[b], fitness[a]));
+
+        int elites = Math.max(1, (int) (population * ELITE_FRACTION));
+        for (int k = 0; k < population; k++) {
+            int parent = k < elites ? ranking[k] : tournament();
+            boolean mutate = k >= elites;
+            for (int p = 0; p < NeuralController.PARAMS; p++) {
+                double w = weights[p * population + parent];
+                if (mutate && random.nextDouble() < MUTATION_RATE) {
+                    w += random.nextGaussian() * MUTATION_SIZE;
+                }
+                nextWeights[p * population + k] = w;
+            }
+        }
+
+        double[] swap = weights;
+        weights = nextWeights;
+        nextWeights = swap;
+    }
+
+    private int tournament() {
+        int winner = random.nextInt(population);
+        for (int i = 1; i < TOURNAMENT; i++) {
+            int rival = random.nextInt(population);
+            if (fitness[rival] > fitness[winner]) {
+                winner = rival;
+            }
+        }
+        return winner;
+    }
+
+    private double[] genome(double[] from, int k) {
+        double[] genome = new double[NeuralController.PARAMS];
+        for (int p = 0; p < genome.length; p++) {
+            genome[p] = from[p * population + k];
+        }
+        return genome;
+    }
+
+    // ===== RESULTS (of the last generation flown) =====
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * The fittest network of the last generation
+     */
+    public NeuralController getBest() {
+        return new NeuralController(bestWeights);
+    }
+
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * Pipes the fittest network passed, averaged over its episodes
+     */
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Pipes passed per episode across the whole population
+     */
+    public double getPopulationScore() {
+        return populationScore;
+    }
+
+    /**
+     * Episodes flown per generation
+     */
+    public int getEpisodesPerGeneration() {
+        return population * episodes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int population = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Path output = Paths.get(args.length > 2 ? args[2] : "bots/best.nn");
+
+        NeuroTrainer trainer = new NeuroTrainer(population, 42);
+        System.out.printf("%d genomes x %d episodes of up to %d ticks, %d threads%n",
+                population, EPISODES, MAX_TICKS, ForkJoinPool.commonPool().getParallelism());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < generations; i++) {
+            trainer.step();
+            double minutes = (System.nanoTime() - start) / 60e9;
+            System.out.printf("Gen %3d  best fitness %6.0f (%.1f pipes)  population %.2f pipes  %,.0f episodes/min%n",
+                    trainer.getGeneration(), trainer.getBestFitness(), trainer.getBestScore(),
+                    trainer.getPopulationScore(),
+                    (double) trainer.getGeneration() * trainer.getEpisodesPerGeneration() / minutes);
+        }
+
+        trainer.getBest().writeTo(output);
+        System.out.println("✓ Saved the best network to " + output);
+        System.out.println("  Try it: java -cp out HeadlessRunner 1000000 42 " + output);
+    }
+}
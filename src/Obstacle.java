@@ -0,0 +1,44 @@
+/**
+ * Something the bird has to fly through: a top and bottom pipe with a gap
+ * between them.
+ *
+ * Every obstacle scrolls left at the same speed, so obstacles stay in the order they were spawned in, which is also their
+ * order by x. {@link PipeManager} relies on that to find the few near the
+ * bird by binary search instead of testing them all.
+ */
+public interface Obstacle {
+
+    /**
+     * Number of the obstacle in its run, counting from 1
+     */
+    int getIndex();
+
+    /**
+     * Left edge
+     */
+    double getX();
+
+    /**
+     * Left edge blended between the last two simulation steps
+     *
+     * @param alpha 0 = previous step, 1 = current step
+     */
+    double getRenderX(double alpha);
+
+    /**
+     * Centre of the gap
+     */
+    double getGapY();
+
+    /**
+     * Height of the gap
+     */
+    double getGapSize();
+
+    /**
+     * Move one fixed simulation step
+     */
+    void update();
+
+    boolean collidesWith(double birdX, double birdY, double birdRadius);
+}
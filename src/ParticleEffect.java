@@ -1,20 +1,27 @@
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Random;
 
 /**
  * Manages particle effects for visual enhancement
  */
 public class ParticleEffect {
-    private List<Particle> particles;
+    // Enough for several overlapping explosions plus rapid flapping
+    private static final int MAX_PARTICLES = 1024;
+
+    // Faded paints are cached per quantized colour (4 bits per channel) and
+    // alpha step, so drawing creates no Color objects once warmed up
+    private static final int ALPHA_STEPS = 16;
+    private static final int COLOR_KEYS = 1 << 12;
+
+    private ParticleStore particles;
     private Random random;
+    private final Color[] paintCache;
 
     public ParticleEffect() {
-        particles = new ArrayList<>();
+        particles = new ParticleStore(MAX_PARTICLES);
         random = new Random();
+        paintCache = new Color[COLOR_KEYS * ALPHA_STEPS];
     }
 
     /**
@@ -27,12 +34,12 @@ public class ParticleEffect {
             double vx = Math.cos(angle) * speed;
             double vy = Math.sin(angle) * speed;
 
-            Color color = Color.rgb(
+            int color = packRgb(
                     200 + random.nextInt(55),
                     200 + random.nextInt(55),
                     100 + random.nextInt(155));
 
-            particles.add(new Particle(x, y, vx, vy, color, 30));
+            particles.add(x, y, vx, vy, color, 30);
         }
     }
 
@@ -46,12 +53,12 @@ public class ParticleEffect {
             double vx = Math.cos(angle) * speed;
             double vy = Math.sin(angle) * speed;
 
-            Color color = Color.rgb(
+            int color = packRgb(
                     200 + random.nextInt(55),
                     random.nextInt(100),
                     random.nextInt(100));
 
-            particles.add(new Particle(x, y, vx, vy, color, 50));
+            particles.add(x, y, vx, vy, color, 50);
         }
     }
 
@@ -59,25 +66,26 @@ public class ParticleEffect {
      * Update all particles
      */
     public void update() {
-        Iterator<Particle> iterator = particles.iterator();
-        while (iterator.hasNext()) {
-            Particle p = iterator.next();
-            p.update();
-            if (p.isDead()) {
-                iterator.remove();
-            }
-        }
+        particles.update();
     }
 
     /**
      * Render all particles
      */
     public void render(GraphicsContext gc) {
-        for (Particle p : particles) {
-            p.render(gc);
+        for (int i = 0; i < particles.size(); i++) {
+            gc.setFill(fadedPaint(particles.getRgb(i), particles.getAlpha(i)));
+            gc.fillOval(particles.getX(i) - 3, particles.getY(i) - 3, 6, 6);
         }
     }
 
+    /**
+     * Restart the random sequence, so a replayed run shows the same particles
+     */
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
      * Clear all particles
      */
@@ -86,44 +94,31 @@ public class ParticleEffect {
     }
 
     /**
-     * Individual particle class
+     * Number of live particles
      */
-    private static class Particle {
-        private double x, y;
-        private double vx, vy;
-        private Color color;
-        private int life;
-        private int maxLife;
-
-        public Particle(double x, double y, double vx, double vy, Color color, int maxLife) {
-            this.x = x;
-            this.y = y;
-            this.vx = vx;
-            this.vy = vy;
-            this.color = color;
-            this.life = maxLife;
-            this.maxLife = maxLife;
-        }
-
-        public void update() {
-            x += vx;
-            y += vy;
-            vy += 0.2; // Gravity effect
-            life--;
-        }
+    public int getParticleCount() {
+        return particles.size();
+    }
 
-        public void render(GraphicsContext gc) {
-            double alpha = (double) life / maxLife;
-            gc.setFill(Color.color(
-                    color.getRed(),
-                    color.getGreen(),
-                    color.getBlue(),
-                    alpha));
-            gc.fillOval(x - 3, y - 3, 6, 6);
+    private Color fadedPaint(int rgb, double alpha) {
+        int colorKey = ((rgb >> 12) & 0xF00) | ((rgb >> 8) & 0x0F0) | ((rgb >> 4) & 0x00F);
+        int alphaStep = (int) Math.ceil(alpha * (ALPHA_STEPS - 1));
+        int key = colorKey * ALPHA_STEPS + alphaStep;
+
+        Color paint = paintCache[key];
+        if (paint == null) {
+            paint = Color.rgb(
+                    (rgb >> 16) & 0xFF,
+                    (rgb >> 8) & 0xFF,
+                    rgb & 0xFF,
+                    (double) alphaStep / (ALPHA_STEPS - 1));
+            paintCache[key] = paint;
         }
+        return paint;
+    }
 
-        public boolean isDead() {
-            return life <= 0;
-        }
+    private static int packRgb(int r, int g, int b) {
+        // Snap to the centre of a 4-bit bucket so cached paints match exactly
+        return ((r & 0xF0) | 0x08) << 16 | ((g & 0xF0) | 0x08) << 8 | ((b & 0xF0) | 0x08);
     }
 }
@@ -0,0 +1,111 @@
+/**
+ * Fixed-capacity particle storage backed by primitive arrays.
+ *
+ * Dead particles are removed by swapping the last live particle into their
+ * slot, so updates never shift the arrays and spawning never allocates.
+ * Has no JavaFX dependency; {@link ParticleEffect} does the drawing.
+ */
+public class ParticleStore {
+    private static final double GRAVITY = 0.2;
+
+    private final double[] x, y;
+    private final double[] vx, vy;
+    private final int[] life;
+    private final int[] maxLife;
+    private final int[] rgb; // Packed 0xRRGGBB
+    private int count;
+
+    public ParticleStore(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        life = new int[capacity];
+        maxLife = new int[capacity];
+        rgb = new int[capacity];
+    }
+
+    /**
+     * Add a particle
+     *
+     * @return false if the store is full and the particle was dropped
+     */
+    public boolean add(double px, double py, double pvx, double pvy, int color, int lifetime) {
+        if (count == x.length) {
+            return false;
+        }
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        rgb[i] = color;
+        life[i] = lifetime;
+        maxLife[i] = lifetime;
+        return true;
+    }
+
+    /**
+     * Move every particle one step and drop the ones that have faded out
+     */
+    public void update() {
+        int i = 0;
+        while (i < count) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+            vy[i] += GRAVITY; // Gravity effect
+            if (--life[i] <= 0) {
+                removeAt(i);
+                // The particle swapped into slot i hasn't been updated yet
+                continue;
+            }
+            i++;
+        }
+    }
+
+    private void removeAt(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        life[i] = life[last];
+        maxLife[i] = maxLife[last];
+        rgb[i] = rgb[last];
+    }
+
+    /**
+     * Remove all particles
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    // Getters
+    public int size() {
+        return count;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public int getRgb(int i) {
+        return rgb[i];
+    }
+
+    /**
+     * Remaining life as a fraction: 1 when spawned, approaching 0 as it fades
+     */
+    public double getAlpha(int i) {
+        return (double) life[i] / maxLife[i];
+    }
+}
@@ -1,15 +1,10 @@
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.paint.CycleMethod;
-import javafx.scene.paint.LinearGradient;
-import javafx.scene.paint.Stop;
-
 /**
  * Represents a pair of pipes (top and bottom) that the bird must navigate
  * through
  */
-public class Pipe {
+public class Pipe implements Obstacle {
     private double x;
+    private double prevX; // Position before the last update, for render interpolation
     private double gapY;
     private boolean scored;
 
@@ -22,67 +17,80 @@ public class Pipe {
 
     public Pipe(double x, double gapY, int index) {
         this.x = x;
+        this.prevX = x;
+        this.gapY = gapY;
+        this.index = index;
+        this.scored = false;
+    }
+
+    /**
+     * Reuse this pipe for a newly spawned pair (see {@link PipeManager})
+     */
+    public void reset(double x, double gapY, int index) {
+        this.x = x;
+        this.prevX = x;
         this.gapY = gapY;
         this.index = index;
         this.scored = false;
     }
 
+    /**
+     * Copy x, prevX and gapY into a flat array (see {@link SimSnapshot})
+     */
+    void saveTo(double[] out, int offset) {
+        out[offset] = x;
+        out[offset + 1] = prevX;
+        out[offset + 2] = gapY;
+    }
+
+    /**
+     * Restore state written by {@link #saveTo}
+     */
+    void restoreFrom(double[] in, int offset, int index, boolean scored) {
+        this.x = in[offset];
+        this.prevX = in[offset + 1];
+        this.gapY = in[offset + 2];
+        this.index = index;
+        this.scored = scored;
+    }
+
+    @Override
     public int getIndex() {
         return index;
     }
 
     /**
-     * Update pipe position (move left)
+     * Update pipe position (move left by one fixed simulation step)
      */
+    @Override
     public void update() {
+        prevX = x;
         x -= SPEED;
     }
 
     /**
-     * Render the pipe pair with attractive styling
+     * X position blended between the last two simulation steps
+     *
+     * @param alpha 0 = previous step, 1 = current step
      */
-    public void render(GraphicsContext gc, double canvasHeight) {
-        // Create gradient for pipes
-        LinearGradient pipeGradient = new LinearGradient(
-                0, 0, 1, 0, true, CycleMethod.NO_CYCLE,
-                new Stop(0, Color.rgb(50, 205, 50)), // Lime green
-                new Stop(0.5, Color.rgb(34, 139, 34)), // Forest green
-                new Stop(1, Color.rgb(0, 100, 0)) // Dark green
-        );
-
-        gc.setFill(pipeGradient);
-        gc.setStroke(Color.rgb(0, 80, 0));
-        gc.setLineWidth(3);
-
-        // Top pipe body
-        double topPipeHeight = gapY - GAP_SIZE / 2;
-        gc.fillRect(x, 0, PIPE_WIDTH, topPipeHeight);
-        gc.strokeRect(x, 0, PIPE_WIDTH, topPipeHeight);
-
-        // Top pipe cap
-        gc.fillRect(x - 5, topPipeHeight - PIPE_CAP_HEIGHT, PIPE_WIDTH + 10, PIPE_CAP_HEIGHT);
-        gc.strokeRect(x - 5, topPipeHeight - PIPE_CAP_HEIGHT, PIPE_WIDTH + 10, PIPE_CAP_HEIGHT);
-
-        // Bottom pipe body
-        double bottomPipeY = gapY + GAP_SIZE / 2;
-        double bottomPipeHeight = canvasHeight - bottomPipeY;
-        gc.fillRect(x, bottomPipeY + PIPE_CAP_HEIGHT, PIPE_WIDTH, bottomPipeHeight);
-        gc.strokeRect(x, bottomPipeY + PIPE_CAP_HEIGHT, PIPE_WIDTH, bottomPipeHeight);
-
-        // Bottom pipe cap
-        gc.fillRect(x - 5, bottomPipeY, PIPE_WIDTH + 10, PIPE_CAP_HEIGHT);
-        gc.strokeRect(x - 5, bottomPipeY, PIPE_WIDTH + 10, PIPE_CAP_HEIGHT);
-
-        // Add highlights for depth
-        gc.setFill(Color.rgb(100, 255, 100, 0.3));
-        gc.fillRect(x + 5, 0, 10, topPipeHeight);
-        gc.fillRect(x + 5, bottomPipeY + PIPE_CAP_HEIGHT, 10, bottomPipeHeight);
+    @Override
+    public double getRenderX(double alpha) {
+        return prevX + (x - prevX) * alpha;
     }
 
     /**
      * Check if bird collides with this pipe
      */
+    @Override
     public boolean collidesWith(double birdX, double birdY, double birdRadius) {
+        return collides(x, gapY, birdX, birdY, birdRadius);
+    }
+
+    /**
+     * Collision rule for a pipe at the given position. Shared with
+     * {@link BatchSimulator} so both follow exactly the same rules.
+     */
+    static boolean collides(double x, double gapY, double birdX, double birdY, double birdRadius) {
         // Check if bird is horizontally aligned with pipe
         if (birdX + birdRadius > x && birdX - birdRadius < x + PIPE_WIDTH) {
             // Check if bird hits top or bottom pipe
@@ -100,6 +108,14 @@ public class Pipe {
      * Check if bird has passed this pipe (for scoring)
      */
     public boolean isPassed(double birdX) {
+        return isPassed(x, scored, birdX);
+    }
+
+    /**
+     * Scoring rule for a pipe at the given position (see
+     * {@link #collides})
+     */
+    static boolean isPassed(double x, boolean scored, double birdX) {
         return !scored && birdX > x + PIPE_WIDTH;
     }
 
@@ -111,11 +127,30 @@ public class Pipe {
     }
 
     // Getters
+    @Override
     public double getX() {
         return x;
     }
 
+    @Override
+    public double getGapY() {
+        return gapY;
+    }
+
+    @Override
+    public double getGapSize() {
+        return GAP_SIZE;
+    }
+
+    public boolean isScored() {
+        return scored;
+    }
+
     public boolean isOffScreen() {
+        return isOffScreen(x);
+    }
+
+    static boolean isOffScreen(double x) {
         return x + PIPE_WIDTH < 0;
     }
 
@@ -123,6 +158,14 @@ public class Pipe {
         return PIPE_WIDTH;
     }
 
+    public static double getSpeed() {
+        return SPEED;
+    }
+
+    public static double getCapHeight() {
+        return PIPE_CAP_HEIGHT;
+    }
+
     /**
      * Get the distance from the bird to this pipe (horizontal distance)
      */
@@ -0,0 +1,175 @@
+/**
+ * Holds the pipes in play in a circular buffer, oldest (leftmost) first.
+ *
+ * Pipes always enter on the right and leave on the left, so new pipes go on
+ * the tail and off-screen pipes come off the head in O(1). Slots past the
+ * tail keep their old {@link Pipe} objects, which are recycled on the next
+ * spawn instead of allocating new ones.
+ *
+ * Obstacles all scroll at one speed, so the ring is also sorted by x and
+ * works as the index for finding the pipes near the bird: see
+ * {@link #firstEndingAfter} and {@link #firstStartingAfter}.
+ */
+public class PipeManager {
+    private static final int INITIAL_CAPACITY = 8; // Must be a power of two
+
+    private Pipe[] ring;
+    private int mask;
+    private int head;
+    private int count;
+
+    // Pipes are passed in order, so the scored ones are always a prefix
+    private int scoredCount;
+
+    public PipeManager() {
+        ring = new Pipe[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Add a pipe on the right, reusing a pooled instance when one is free;
+     * x must not be left of the newest one, which keeps the ring sorted
+     */
+    public Pipe spawn(double x, double gapY, int index) {
+        if (count == ring.length) {
+            grow();
+        }
+        int slot = (head + count) & mask;
+        Pipe pipe = ring[slot];
+        if (pipe == null) {
+            pipe = new Pipe(x, gapY, index);
+            ring[slot] = pipe;
+        } else {
+            pipe.reset(x, gapY, index);
+        }
+        count++;
+        return pipe;
+    }
+
+    /**
+     * Drop the oldest pipe (its instance stays pooled in the ring)
+     */
+    public void removeFirst() {
+        if (count == 0) {
+            return;
+        }
+        head = (head + 1) & mask;
+        count--;
+        if (scoredCount > 0) {
+            scoredCount--;
+        }
+    }
+
+    /**
+     * Drop pipes from the left that have scrolled off screen
+     */
+    public void removeOffScreen() {
+        while (count > 0 && ring[head].isOffScreen()) {
+            removeFirst();
+        }
+    }
+
+    /**
+     * The first pipe the bird hasn't scored yet, or null if all are scored
+     */
+    public Pipe nextUnscored() {
+        return scoredCount < count ? get(scoredCount) : null;
+    }
+
+    /**
+     * Mark {@link #nextUnscored()} as scored
+     */
+    public void markNextScored() {
+        if (scoredCount < count) {
+            get(scoredCount).setScored();
+            scoredCount++;
+        }
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Position (0 = oldest) of the first pipe whose right edge is past x,
+     * or size() if there is none. Every pipe from there on whose left edge
+     * is before some x2 overlaps the band between x and x2.
+     */
+    public int firstEndingAfter(double x) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).getX() + Pipe.getWidth() > x) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Position of the first pipe whose left edge is past x, or size() if
+     * there is none
+     */
+    public int firstStartingAfter(double x) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (get(mid).getX() > x) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Remove all pipes (instances stay pooled)
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        scoredCount = 0;
+    }
+
+    /**
+     * Number of pipes at the head that have been scored
+     */
+    int getScoredCount() {
+        return scoredCount;
+    }
+
+    /**
+     * Used when restoring a snapshot; pipes must already be marked scored
+     */
+    void setScoredCount(int scoredCount) {
+        this.scoredCount = scoredCount;
+    }
+
+    /**
+     * The i-th pipe in play, oldest first
+     */
+    public Pipe get(int i) {
+        return ring[(head + i) & mask];
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    private void grow() {
+        Pipe[] bigger = new Pipe[ring.length * 2];
+        for (int i = 0; i < ring.length; i++) {
+            bigger[i] = ring[(head + i) & mask];
+        }
+        ring = bigger;
+        mask = bigger.length - 1;
+        head = 0;
+    }
+}
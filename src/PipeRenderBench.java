@@ -0,0 +1,130 @@
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+
+import java.util.Random;
+
+/**
+ * Compares vector-drawn and sprite-drawn pipes at increasing pipe counts,
+ * reporting draw calls per frame and frame time.
+ *
+ * Usage (add the JavaFX module options from run.bat):
+ * java -Djavafx.animation.fullspeed=true -cp out PipeRenderBench
+ * Add -Dprism.order=sw to measure the software (no GPU) pipeline.
+ */
+public class PipeRenderBench extends Application {
+    private static final int[] PIPE_COUNTS = { 10, 100, 500, 2000 };
+    private static final int WARM_UP_FRAMES = 60;
+    private static final int MEASURED_FRAMES = 300;
+
+    private static final double WIDTH = GameSimulation.WORLD_WIDTH;
+    private static final double HEIGHT = GameSimulation.WORLD_HEIGHT;
+
+    private Canvas canvas;
+    private PipeRenderer[] renderers;
+    private Pipe[] pipes;
+
+    private int countIndex;
+    private int mode; // 0 = vector, 1 = sprites
+    private int frame;
+    private long lastPulse;
+    private long totalPulseNanos;
+    private long totalRecordNanos;
+    private long startDrawCalls;
+
+    @Override
+    public void start(Stage stage) {
+        canvas = new Canvas(WIDTH, HEIGHT);
+        renderers = new PipeRenderer[] { new PipeRenderer(false), new PipeRenderer(true) };
+        preparePipes();
+
+        StackPane root = new StackPane();
+        root.getChildren().add(canvas);
+        stage.setTitle("Pipe render benchmark");
+        stage.setScene(new Scene(root, WIDTH, HEIGHT));
+        stage.show();
+
+        System.out.println("pipes,mode,draw calls/frame,record ms/frame,frame ms");
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (!renderFrame(now)) {
+                    stop();
+                    Platform.exit();
+                }
+            }
+        }.start();
+    }
+
+    private void preparePipes() {
+        int count = PIPE_COUNTS[countIndex];
+        Random random = new Random(42);
+        pipes = new Pipe[count];
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * WIDTH;
+            pipes[i] = new Pipe(x, GameSimulation.gapYFor(random.nextDouble()), i);
+        }
+    }
+
+    /**
+     * @return false once every configuration has been measured
+     */
+    private boolean renderFrame(long now) {
+        PipeRenderer renderer = renderers[mode];
+        if (frame == WARM_UP_FRAMES) {
+            totalPulseNanos = 0;
+            totalRecordNanos = 0;
+            startDrawCalls = renderer.getDrawCalls();
+        } else if (frame > WARM_UP_FRAMES) {
+            totalPulseNanos += now - lastPulse;
+        }
+        lastPulse = now;
+
+        long start = System.nanoTime();
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFill(RenderResources.SKY);
+        gc.fillRect(0, 0, WIDTH, HEIGHT);
+        for (Pipe pipe : pipes) {
+            pipe.update();
+            if (pipe.isOffScreen()) {
+                pipe.reset(WIDTH, pipe.getGapY(), pipe.getIndex());
+            }
+            renderer.render(gc, pipe, GameSimulation.getGroundY(), 1.0);
+        }
+        if (frame >= WARM_UP_FRAMES) {
+            totalRecordNanos += System.nanoTime() - start;
+        }
+
+        frame++;
+        if (frame < WARM_UP_FRAMES + MEASURED_FRAMES) {
+            return true;
+        }
+
+        System.out.printf("%d,%s,%.0f,%.3f,%.3f%n",
+                pipes.length,
+                renderer.isUsingSprites() ? "sprites" : "vector",
+                (double) (renderer.getDrawCalls() - startDrawCalls) / MEASURED_FRAMES,
+                totalRecordNanos / 1e6 / MEASURED_FRAMES,
+                totalPulseNanos / 1e6 / (MEASURED_FRAMES - 1));
+
+        frame = 0;
+        if (++mode < renderers.length) {
+            return true;
+        }
+        mode = 0;
+        if (++countIndex < PIPE_COUNTS.length) {
+            preparePipes();
+            return true;
+        }
+        return false;
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
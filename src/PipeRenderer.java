@@ -0,0 +1,87 @@
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Draws {@link Pipe} pairs onto the canvas (kept apart from the pipe's
+ * movement and collision so the simulation can run without JavaFX)
+ */
+public class PipeRenderer {
+    private final PipeSprites sprites; // null = draw with vector fills and strokes
+    private long drawCalls;
+
+    /**
+     * Create a renderer using pre-rasterized sprites (set
+     * -Dflappy.vectorPipes=true to draw the original vector pipes instead)
+     */
+    public PipeRenderer() {
+        this(!Boolean.getBoolean("flappy.vectorPipes"));
+    }
+
+    /**
+     * Must be called on the JavaFX application thread when using sprites
+     */
+    public PipeRenderer(boolean useSprites) {
+        this.sprites = useSprites ? new PipeSprites() : null;
+    }
+
+    /**
+     * Render the pipe pair with attractive styling
+     *
+     * @param alpha interpolation between the last two simulation steps
+     */
+    public void render(GraphicsContext gc, Pipe pipe, double canvasHeight, double alpha) {
+        double x = pipe.getRenderX(alpha);
+        if (sprites != null) {
+            drawCalls += sprites.draw(gc, x, pipe.getGapY(), pipe.getGapSize(), canvasHeight);
+        } else {
+            renderVector(gc, x, pipe.getGapY(), pipe.getGapSize(), canvasHeight);
+        }
+    }
+
+    /**
+     * Draw the pipe pair shape by shape (the original look, and the fallback)
+     */
+    private void renderVector(GraphicsContext gc, double x, double gapY, double gapSize, double canvasHeight) {
+        double pipeWidth = Pipe.getWidth();
+        double capHeight = Pipe.getCapHeight();
+
+        gc.setFill(RenderResources.PIPE_BODY);
+        gc.setStroke(RenderResources.PIPE_OUTLINE);
+        gc.setLineWidth(3);
+
+        // Top pipe body
+        double topPipeHeight = gapY - gapSize / 2;
+        gc.fillRect(x, 0, pipeWidth, topPipeHeight);
+        gc.strokeRect(x, 0, pipeWidth, topPipeHeight);
+
+        // Top pipe cap
+        gc.fillRect(x - 5, topPipeHeight - capHeight, pipeWidth + 10, capHeight);
+        gc.strokeRect(x - 5, topPipeHeight - capHeight, pipeWidth + 10, capHeight);
+
+        // Bottom pipe body
+        double bottomPipeY = gapY + gapSize / 2;
+        double bottomPipeHeight = canvasHeight - bottomPipeY - capHeight; // Ends at the ground
+        gc.fillRect(x, bottomPipeY + capHeight, pipeWidth, bottomPipeHeight);
+        gc.strokeRect(x, bottomPipeY + capHeight, pipeWidth, bottomPipeHeight);
+
+        // Bottom pipe cap
+        gc.fillRect(x - 5, bottomPipeY, pipeWidth + 10, capHeight);
+        gc.strokeRect(x - 5, bottomPipeY, pipeWidth + 10, capHeight);
+
+        // Add highlights for depth
+        gc.setFill(RenderResources.PIPE_HIGHLIGHT);
+        gc.fillRect(x + 5, 0, 10, topPipeHeight);
+        gc.fillRect(x + 5, bottomPipeY + capHeight, 10, bottomPipeHeight);
+        drawCalls += 14;
+    }
+
+    /**
+     * Canvas calls issued so far (fills, strokes, images and paint changes)
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    public boolean isUsingSprites() {
+        return sprites != null;
+    }
+}
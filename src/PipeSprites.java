@@ -0,0 +1,93 @@
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Pipe artwork rasterized once into images: a body slice that is stretched
+ * to any height and the two caps. Drawing a pipe pair then takes four
+ * drawImage calls instead of a dozen fills and strokes.
+ *
+ * Must be created on the JavaFX application thread (uses Canvas snapshots).
+ */
+public class PipeSprites {
+    private static final double LINE_WIDTH = 3;
+    private static final double PAD = 2; // Room for the half of the outline outside the shape
+    private static final double CAP_OVERHANG = 5;
+    private static final double BODY_SLICE_HEIGHT = 4;
+
+    private final Image body;
+    private final Image topCap;
+    private final Image bottomCap;
+
+    public PipeSprites() {
+        double width = Pipe.getWidth();
+        double capWidth = width + CAP_OVERHANG * 2;
+        double capHeight = Pipe.getCapHeight();
+
+        // Body: gradient, side outlines and highlight; uniform top to bottom
+        Canvas canvas = new Canvas(width + PAD * 2, BODY_SLICE_HEIGHT);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setFill(RenderResources.PIPE_BODY);
+        gc.fillRect(PAD, 0, width, BODY_SLICE_HEIGHT);
+        gc.setStroke(RenderResources.PIPE_OUTLINE);
+        gc.setLineWidth(LINE_WIDTH);
+        gc.strokeLine(PAD, 0, PAD, BODY_SLICE_HEIGHT);
+        gc.strokeLine(PAD + width, 0, PAD + width, BODY_SLICE_HEIGHT);
+        gc.setFill(RenderResources.PIPE_HIGHLIGHT);
+        gc.fillRect(PAD + 5, 0, 10, BODY_SLICE_HEIGHT);
+        body = snapshot(canvas);
+
+        // Bottom cap: filled and outlined
+        canvas = new Canvas(capWidth + PAD * 2, capHeight + PAD * 2);
+        gc = canvas.getGraphicsContext2D();
+        drawCap(gc, capWidth, capHeight);
+        bottomCap = snapshot(canvas);
+
+        // Top cap: the body highlight runs down over it
+        canvas = new Canvas(capWidth + PAD * 2, capHeight + PAD * 2);
+        gc = canvas.getGraphicsContext2D();
+        drawCap(gc, capWidth, capHeight);
+        gc.setFill(RenderResources.PIPE_HIGHLIGHT);
+        gc.fillRect(PAD + CAP_OVERHANG + 5, 0, 10, PAD + capHeight);
+        topCap = snapshot(canvas);
+    }
+
+    private static void drawCap(GraphicsContext gc, double capWidth, double capHeight) {
+        gc.setFill(RenderResources.PIPE_BODY);
+        gc.fillRect(PAD, PAD, capWidth, capHeight);
+        gc.setStroke(RenderResources.PIPE_OUTLINE);
+        gc.setLineWidth(LINE_WIDTH);
+        gc.strokeRect(PAD, PAD, capWidth, capHeight);
+    }
+
+    private static Image snapshot(Canvas canvas) {
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(params, null);
+    }
+
+    /**
+     * Draw a pipe pair with its left edge at x
+     *
+     * @return number of draw calls issued
+     */
+    public int draw(GraphicsContext gc, double x, double gapY, double gapSize, double groundY) {
+        double capHeight = Pipe.getCapHeight();
+        double bodyX = x - PAD;
+        double bodyWidth = body.getWidth();
+        double capX = x - CAP_OVERHANG - PAD;
+
+        double topPipeHeight = gapY - gapSize / 2;
+        double bottomPipeY = gapY + gapSize / 2;
+        double bottomBodyY = bottomPipeY + capHeight;
+
+        gc.drawImage(body, bodyX, 0, bodyWidth, topPipeHeight);
+        gc.drawImage(topCap, capX, topPipeHeight - capHeight - PAD);
+        gc.drawImage(body, bodyX, bottomBodyY, bodyWidth, groundY - bottomBodyY);
+        gc.drawImage(bottomCap, capX, bottomPipeY - PAD);
+        return 4;
+    }
+}
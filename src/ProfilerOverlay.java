@@ -0,0 +1,73 @@
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * Draws the {@link FrameProfiler} statistics as a HUD in the top-left corner
+ * (toggled with F3). The text is rebuilt a few times a second so drawing
+ * the HUD itself barely shows up in the numbers.
+ */
+public class ProfilerOverlay {
+    private static final int REFRESH_FRAMES = 20;
+    private static final double LINE_HEIGHT = 15;
+    private static final double PADDING = 8;
+    private static final double WIDTH = 330;
+
+    private final FrameProfiler profiler;
+    private final String[] lines;
+    private int framesUntilRefresh;
+    private boolean visible;
+
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        this.lines = new String[FrameProfiler.getPhases().length + 2];
+    }
+
+    /**
+     * Show or hide the HUD; statistics restart each time it opens
+     */
+    public void toggle() {
+        visible = !visible;
+        if (visible) {
+            profiler.resetStats();
+            framesUntilRefresh = 0;
+        }
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    public void render(GraphicsContext gc) {
+        if (!visible) {
+            return;
+        }
+        if (--framesUntilRefresh <= 0) {
+            refresh();
+            framesUntilRefresh = REFRESH_FRAMES;
+        }
+
+        gc.setFill(RenderResources.HUD_PANEL);
+        gc.fillRect(0, 0, WIDTH, PADDING * 2 + LINE_HEIGHT * lines.length);
+
+        gc.setFont(RenderResources.HUD_FONT);
+        gc.setFill(RenderResources.HUD_TEXT);
+        gc.setTextAlign(TextAlignment.LEFT);
+        for (int i = 0; i < lines.length; i++) {
+            gc.fillText(lines[i], PADDING, PADDING + LINE_HEIGHT * (i + 1) - 3);
+        }
+    }
+
+    private void refresh() {
+        lines[0] = String.format("%-17s %7s %7s %7s", "ms (" + profiler.getStatsFrameCount() + " fr)",
+                "p50", "p99", "max");
+        FrameProfiler.Phase[] phases = FrameProfiler.getPhases();
+        for (int i = 0; i < phases.length; i++) {
+            FrameProfiler.Phase phase = phases[i];
+            lines[i + 1] = String.format("%-17s %7.2f %7.2f %7.2f", phase.getLabel(),
+                    profiler.getPercentile(phase, 50) / 1e6,
+                    profiler.getPercentile(phase, 99) / 1e6,
+                    profiler.getMax(phase) / 1e6);
+        }
+        lines[lines.length - 1] = "F3 hide • F4 save CSV";
+    }
+}
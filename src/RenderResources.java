@@ -0,0 +1,135 @@
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+
+/**
+ * Paints, fonts, shapes and text created once and shared by every renderer,
+ * so drawing a frame doesn't allocate (GC pauses show up as visible hitches).
+ *
+ * Only touch this class once the JavaFX toolkit is running.
+ */
+public final class RenderResources {
+
+    private RenderResources() {
+    }
+
+    // ===== BACKGROUND =====
+
+    public static final LinearGradient SKY = new LinearGradient(
+            0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
+            new Stop(0, Color.rgb(135, 206, 250)),
+            new Stop(1, Color.rgb(0, 191, 255)));
+
+    public static final LinearGradient GROUND = new LinearGradient(
+            0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
+            new Stop(0, Color.rgb(139, 69, 19)),
+            new Stop(1, Color.rgb(101, 67, 33)));
+
+    // ===== PIPES =====
+
+    public static final LinearGradient PIPE_BODY = new LinearGradient(
+            0, 0, 1, 0, true, CycleMethod.NO_CYCLE,
+            new Stop(0, Color.rgb(50, 205, 50)), // Lime green
+            new Stop(0.5, Color.rgb(34, 139, 34)), // Forest green
+            new Stop(1, Color.rgb(0, 100, 0)) // Dark green
+    );
+    public static final Color PIPE_OUTLINE = Color.rgb(0, 80, 0);
+    public static final Color PIPE_HIGHLIGHT = Color.rgb(100, 255, 100, 0.3);
+
+    // ===== BIRD =====
+
+    public static final LinearGradient BIRD_BODY = new LinearGradient(
+            0, 0, 0, 1, true, CycleMethod.NO_CYCLE,
+            new Stop(0, Color.rgb(255, 215, 0)), // Gold
+            new Stop(0.5, Color.rgb(255, 165, 0)), // Orange
+            new Stop(1, Color.rgb(255, 140, 0)) // Dark Orange
+    );
+    public static final Color BIRD_FACE = Color.rgb(255, 215, 0);
+    public static final Color BEAK = Color.rgb(255, 100, 0);
+
+    // Beak triangle relative to the bird centre (callers must not modify)
+    public static final double[] BEAK_X = {
+            Bird.getBirdRadius(), Bird.getBirdRadius() + 10, Bird.getBirdRadius() };
+    public static final double[] BEAK_Y = { -3, 0, 3 };
+
+    // ===== OVERLAYS AND TEXT =====
+
+    public static final Color MENU_SHADE = Color.rgb(0, 0, 0, 0.5);
+    public static final Color GAME_OVER_SHADE = Color.rgb(0, 0, 0, 0.6);
+    public static final Color SETTINGS_SHADE = Color.rgb(0, 0, 0, 0.7);
+    public static final Color TITLE_ORANGE = Color.rgb(255, 140, 0);
+    public static final Color HINT_GREY = Color.rgb(200, 200, 200);
+
+    public static final Font TITLE_FONT = Font.font("Arial", FontWeight.BOLD, 72);
+    public static final Font GAME_OVER_FONT = Font.font("Arial", FontWeight.BOLD, 64);
+    public static final Font SCORE_FONT = Font.font("Arial", FontWeight.BOLD, 48);
+    public static final Font FINAL_SCORE_FONT = Font.font("Arial", FontWeight.BOLD, 36);
+    public static final Font HIGH_SCORE_FONT = Font.font("Arial", FontWeight.BOLD, 28);
+    public static final Font PROMPT_FONT = Font.font("Arial", FontWeight.NORMAL, 24);
+    public static final Font MENU_HIGH_SCORE_FONT = Font.font("Arial", FontWeight.BOLD, 20);
+    public static final Font HINT_FONT = Font.font("Arial", FontWeight.NORMAL, 14);
+
+    // ===== PROFILER HUD =====
+
+    public static final Color HUD_PANEL = Color.rgb(0, 0, 0, 0.7);
+    public static final Color HUD_TEXT = Color.rgb(180, 255, 180);
+    public static final Font HUD_FONT = Font.font("Monospaced", FontWeight.NORMAL, 12);
+
+    // ===== SETTINGS MENU =====
+
+    public static final Color PANEL = Color.rgb(40, 40, 40, 0.95);
+    public static final Color ACCENT = Color.rgb(255, 215, 0);
+    public static final Color CELL = Color.rgb(60, 60, 60);
+    public static final Color WARNING_TEXT = Color.rgb(255, 100, 100);
+    public static final Color INFO_TEXT = Color.rgb(220, 220, 220);
+
+    public static final Font HEADING_FONT = Font.font("Arial", FontWeight.BOLD, 36);
+    public static final Font SECTION_FONT = Font.font("Arial", FontWeight.BOLD, 20);
+    public static final Font BODY_FONT = Font.font("Arial", FontWeight.NORMAL, 16);
+    public static final Font BOLD_HINT_FONT = Font.font("Arial", FontWeight.BOLD, 14);
+    public static final Font CAPTION_FONT = Font.font("Arial", FontWeight.NORMAL, 10);
+
+    // ===== NUMBERS =====
+
+    private static final String[] NUMBERS = new String[1000];
+
+    /**
+     * Decimal text for a score, cached for the values a run normally reaches
+     */
+    public static String number(int value) {
+        if (value < 0 || value >= NUMBERS.length) {
+            return String.valueOf(value);
+        }
+        String text = NUMBERS[value];
+        if (text == null) {
+            text = String.valueOf(value);
+            NUMBERS[value] = text;
+        }
+        return text;
+    }
+
+    /**
+     * "Prefix: value" text that is only rebuilt when the value changes
+     */
+    public static final class CachedText {
+        private final String prefix;
+        private int value;
+        private String text;
+
+        public CachedText(String prefix) {
+            this.prefix = prefix;
+            this.value = Integer.MIN_VALUE;
+        }
+
+        public String of(int newValue) {
+            if (text == null || newValue != value) {
+                value = newValue;
+                text = prefix + newValue;
+            }
+            return text;
+        }
+    }
+}
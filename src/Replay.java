@@ -0,0 +1,317 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A recorded run: its seed, the ticks at which the bird flapped, how it
+ * ended, the avatar it was flown with, and a state checksum every
+ * {@link #KEYFRAME_INTERVAL} ticks.
+ *
+ * Jump ticks are stored as deltas from the previous jump, each as a varint
+ * (7 bits per byte), so a typical flap costs a single byte.
+ */
+public class Replay {
+    public static final int KEYFRAME_INTERVAL = 5 * GameSimulation.TICKS_PER_SECOND;
+
+    private static final int MAGIC = 0x46425250; // "FBRP"
+    private static final int VERSION = 3; // 2 added the cause of death, 3 the avatar
+    private static final GameSimulation.DeathCause[] DEATH_CAUSES = GameSimulation.DeathCause.values();
+
+    private final long runSeed;
+    private final long ticks;
+    private final int score;
+    private final GameSimulation.DeathCause deathCause;
+    private final int deathPipe;
+    private final byte[] jumps;
+    private final int jumpCount;
+    private final long[] checksums; // checksums[k] is taken after tick (k + 1) * KEYFRAME_INTERVAL
+    private final String avatar; // Empty if unknown
+
+    Replay(long runSeed, long ticks, int score, GameSimulation.DeathCause deathCause, int deathPipe,
+            byte[] jumps, int jumpCount, long[] checksums) {
+        this(runSeed, ticks, score, deathCause, deathPipe, jumps, jumpCount, checksums, "");
+    }
+
+    private Replay(long runSeed, long ticks, int score, GameSimulation.DeathCause deathCause, int deathPipe,
+            byte[] jumps, int jumpCount, long[] checksums, String avatar) {
+        this.runSeed = runSeed;
+        this.ticks = ticks;
+        this.score = score;
+        this.deathCause = deathCause;
+        this.deathPipe = deathPipe;
+        this.jumps = jumps;
+        this.jumpCount = jumpCount;
+        this.checksums = checksums;
+        this.avatar = avatar;
+    }
+
+    /**
+     * The same run, labelled with the avatar it was flown with
+     */
+    public Replay withAvatar(String avatar) {
+        return new Replay(runSeed, ticks, score, deathCause, deathPipe, jumps, jumpCount, checksums, avatar);
+    }
+
+    /**
+     * Name of the avatar the run was flown with, or "" if not recorded
+     */
+    public String getAvatar() {
+        return avatar;
+    }
+
+    public long getRunSeed() {
+        return runSeed;
+    }
+
+    /**
+     * Length of the run in simulation ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public GameSimulation.DeathCause getDeathCause() {
+        return deathCause;
+    }
+
+    /**
+     * See {@link GameSimulation#getDeathPipe()}
+     */
+    public int getDeathPipe() {
+        return deathPipe;
+    }
+
+    public int getJumpCount() {
+        return jumpCount;
+    }
+
+    /**
+     * Encoded size of the jump list, in bytes
+     */
+    public int getJumpBytes() {
+        return jumps.length;
+    }
+
+    int getChecksumCount() {
+        return checksums.length;
+    }
+
+    long getChecksum(int keyframe) {
+        return checksums[keyframe];
+    }
+
+    /**
+     * Identifies the run by its seed and flaps, so the same recording
+     * submitted twice can be spotted
+     */
+    public long fingerprint() {
+        long hash = SimRandom.mix(runSeed);
+        for (byte b : jumps) {
+            hash = SimRandom.mix(SimRandom.step(hash) ^ (b & 0xFF));
+        }
+        return hash;
+    }
+
+    /**
+     * Cursor over the jump ticks, in order
+     */
+    public JumpReader jumps() {
+        return new JumpReader();
+    }
+
+    // ===== VARINTS =====
+
+    /**
+     * Append a varint, growing the buffer if needed
+     *
+     * @return the buffer (possibly a larger copy)
+     */
+    static byte[] writeVarint(byte[] buffer, int[] length, long value) {
+        if (length[0] + 10 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2 + 10);
+        }
+        int pos = length[0];
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        length[0] = pos;
+        return buffer;
+    }
+
+    /**
+     * Reads jump ticks one at a time. Its position can be saved and restored
+     * so playback can seek to a keyframe.
+     */
+    public class JumpReader {
+        private int position;
+        private long lastTick;
+        private long nextTick = -1;
+
+        private JumpReader() {
+            decodeNext();
+        }
+
+        /**
+         * Tick of the next jump, or -1 when there are no more
+         */
+        public long peek() {
+            return nextTick;
+        }
+
+        public void advance() {
+            decodeNext();
+        }
+
+        int getPosition() {
+            return position;
+        }
+
+        long getNextTick() {
+            return nextTick;
+        }
+
+        /**
+         * Return to a position saved with {@link #getPosition}/{@link #getNextTick}
+         */
+        void seek(int position, long nextTick) {
+            this.position = position;
+            this.nextTick = nextTick;
+            this.lastTick = nextTick;
+        }
+
+        private void decodeNext() {
+            if (position >= jumps.length) {
+                nextTick = -1;
+                return;
+            }
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = jumps[position++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            lastTick += delta;
+            nextTick = lastTick;
+        }
+    }
+
+    // ===== FILES =====
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(jumps.length + checksums.length * 8 + 32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(runSeed);
+            out.writeLong(ticks);
+            out.writeInt(score);
+            out.writeByte(deathCause.ordinal());
+            out.writeInt(deathPipe);
+            out.writeInt(jumpCount);
+            out.writeInt(jumps.length);
+            out.write(jumps);
+            out.writeInt(checksums.length);
+            for (long checksum : checksums) {
+                out.writeLong(checksum);
+            }
+            out.writeUTF(avatar);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Can't happen in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IOException if the data isn't a replay this version can read
+     */
+    public static Replay fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a replay file");
+            }
+            int version = in.readByte();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            long runSeed = in.readLong();
+            long ticks = in.readLong();
+            int score = in.readInt();
+            GameSimulation.DeathCause deathCause = GameSimulation.DeathCause.NONE;
+            int deathPipe = 0;
+            if (version >= 2) {
+                int cause = in.readByte();
+                if (cause < 0 || cause >= DEATH_CAUSES.length) {
+                    throw new IOException("Corrupt replay");
+                }
+                deathCause = DEATH_CAUSES[cause];
+                deathPipe = in.readInt();
+            }
+            int jumpCount = in.readInt();
+            byte[] jumps = new byte[checkLength(in.readInt(), 1, data.length)];
+            in.readFully(jumps);
+            checkJumps(jumps, jumpCount);
+            long[] checksums = new long[checkLength(in.readInt(), 8, data.length)];
+            for (int i = 0; i < checksums.length; i++) {
+                checksums[i] = in.readLong();
+            }
+            String avatar = version >= 3 ? in.readUTF() : "";
+            return new Replay(runSeed, ticks, score, deathCause, deathPipe, jumps, jumpCount, checksums, avatar);
+        }
+    }
+
+    /**
+     * Reject lengths the data can't hold, rather than allocating them
+     */
+    private static int checkLength(int count, int bytesEach, int available) throws IOException {
+        if (count < 0 || (long) count * bytesEach > available) {
+            throw new IOException("Corrupt replay");
+        }
+        return count;
+    }
+
+    /**
+     * Reject jump lists that aren't exactly jumpCount whole varints, so
+     * playback never reads past the end
+     */
+    private static void checkJumps(byte[] jumps, int jumpCount) throws IOException {
+        int count = 0;
+        int length = 0;
+        for (byte b : jumps) {
+            if (++length > 10) {
+                throw new IOException("Corrupt replay");
+            }
+            if ((b & 0x80) == 0) {
+                count++;
+                length = 0;
+            }
+        }
+        if (length != 0 || count != jumpCount) {
+            throw new IOException("Corrupt replay");
+        }
+    }
+
+    public void writeTo(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Files.write(file, toBytes());
+    }
+
+    public static Replay readFrom(Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+}
@@ -0,0 +1,549 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only archive of every finished run, queryable by score, duration
+ * and where the run died.
+ *
+ * Two files live in the archive folder:
+ * runs.dat - the encoded {@link Replay} of each run, one after another
+ * runs.idx - one fixed-width 32-byte entry per run (data offset, time,
+ * score, ticks, cause and pipe of death), read through memory mapping
+ * runs.key - the runs sorted by score and by duration, 8 bytes per run for
+ * each, saved on close
+ *
+ * Runs are appended on a background thread, data before index, so a crash
+ * can at worst leave unreferenced bytes at the end of runs.dat; a torn index
+ * entry is ignored on open. Queries scan the mapped index or use the sorted
+ * keys. Runs archived since the keys were last sorted are sorted on their
+ * own and merged in on the next query, so the keys are only built in full
+ * when runs.key is missing or doesn't match the index.
+ *
+ * Usage: java -cp out ReplayArchive [folder] top N | pipe N | longer SECONDS
+ * | play ID | generate N
+ */
+public class ReplayArchive implements AutoCloseable {
+    private static final int ENTRY_BYTES = 32;
+    private static final int OFFSET = 0; // long
+    private static final int TIME = 8; // long, epoch millis
+    private static final int SCORE = 16; // int
+    private static final int TICKS = 20; // int
+    private static final int DEATH_PIPE = 24; // int
+    private static final int DEATH_CAUSE = 28; // byte
+
+    // Index mapped in 32 MB segments, so it can grow past 2 GB
+    private static final int SEGMENT_ENTRIES = 1 << 20;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_ENTRIES * ENTRY_BYTES;
+
+    private static final GameSimulation.DeathCause[] CAUSES = GameSimulation.DeathCause.values();
+
+    private static final int KEYS_MAGIC = 0x4642524B; // "FBRK"
+
+    private final Path keysFile;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final ExecutorService writer;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private volatile int count; // Entries written and visible to queries
+    private long dataEnd;
+
+    // Ids with their sort key, (key << 32 | id); the first sortedCount are
+    // in order. Score ties are ordered by ticks, looked up in the index.
+    private long[] byScore = new long[0];
+    private long[] byTicks = new long[0];
+    private int sortedCount;
+
+    public ReplayArchive(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        data = FileChannel.open(folder.resolve("runs.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = FileChannel.open(folder.resolve("runs.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Drop a torn entry from an interrupted append
+        long entries = index.size() / ENTRY_BYTES;
+        if (entries * ENTRY_BYTES != index.size()) {
+            index.truncate(entries * ENTRY_BYTES);
+        }
+        if (entries > Integer.MAX_VALUE) {
+            throw new IOException("Archive index too large");
+        }
+        count = (int) entries;
+        dataEnd = count == 0 ? 0 : endOfRecord(count - 1);
+        keysFile = folder.resolve("runs.key");
+        loadKeys();
+
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "replay-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ===== WRITING =====
+
+    /**
+     * Queue a finished run to be archived (returns immediately)
+     *
+     * @return completes once the run is visible to queries, or failed to write
+     */
+    public CompletableFuture<Void> append(Replay replay) {
+        long time = System.currentTimeMillis();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(replay, time);
+            } catch (IOException e) {
+                System.err.println("✗ Failed to archive replay: " + e.getMessage());
+            }
+        }, writer);
+    }
+
+    private void write(Replay replay, long time) throws IOException {
+        byte[] bytes = replay.toBytes();
+        ByteBuffer record = ByteBuffer.allocate(4 + bytes.length);
+        record.putInt(bytes.length).put(bytes).flip();
+        long offset = dataEnd;
+        while (record.hasRemaining()) {
+            data.write(record, offset + record.position());
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putLong(OFFSET, offset)
+                .putLong(TIME, time)
+                .putInt(SCORE, replay.getScore())
+                .putInt(TICKS, (int) Math.min(Integer.MAX_VALUE, replay.getTicks()))
+                .putInt(DEATH_PIPE, replay.getDeathPipe())
+                .put(DEATH_CAUSE, (byte) replay.getDeathCause().ordinal());
+        long position = (long) count * ENTRY_BYTES;
+        while (entry.hasRemaining()) {
+            index.write(entry, position + entry.position());
+        }
+
+        dataEnd = offset + 4 + bytes.length;
+        count++;
+    }
+
+    /**
+     * Wait for queued appends to reach the files
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> {
+                data.force(false);
+                index.force(false);
+                return null;
+            }).get();
+        } catch (Exception e) {
+            System.err.println("✗ Failed to flush replay archive: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveKeys();
+        data.close();
+        index.close();
+    }
+
+    // ===== INDEX ACCESS =====
+
+    public int size() {
+        return count;
+    }
+
+    private ByteBuffer segmentFor(int id) {
+        int segment = id / SEGMENT_ENTRIES;
+        try {
+            while (segments.size() <= segment) {
+                segments.add(null);
+            }
+            MappedByteBuffer mapped = segments.get(segment);
+            long start = segment * SEGMENT_BYTES;
+            long needed = ((long) (id % SEGMENT_ENTRIES) + 1) * ENTRY_BYTES;
+            if (mapped == null || mapped.capacity() < needed) {
+                long length = Math.min(SEGMENT_BYTES, index.size() - start);
+                mapped = index.map(FileChannel.MapMode.READ_ONLY, start, length);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                segments.set(segment, mapped);
+            }
+            return mapped;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map replay index", e);
+        }
+    }
+
+    private static int slot(int id) {
+        return (id % SEGMENT_ENTRIES) * ENTRY_BYTES;
+    }
+
+    public int getScore(int id) {
+        return segmentFor(id).getInt(slot(id) + SCORE);
+    }
+
+    public int getTicks(int id) {
+        return segmentFor(id).getInt(slot(id) + TICKS);
+    }
+
+    public double getSeconds(int id) {
+        return (double) getTicks(id) / GameSimulation.TICKS_PER_SECOND;
+    }
+
+    public long getTime(int id) {
+        return segmentFor(id).getLong(slot(id) + TIME);
+    }
+
+    public int getDeathPipe(int id) {
+        return segmentFor(id).getInt(slot(id) + DEATH_PIPE);
+    }
+
+    public GameSimulation.DeathCause getDeathCause(int id) {
+        return CAUSES[segmentFor(id).get(slot(id) + DEATH_CAUSE)];
+    }
+
+    private long endOfRecord(int id) throws IOException {
+        long offset = segmentFor(id).getLong(slot(id) + OFFSET);
+        ByteBuffer length = ByteBuffer.allocate(4);
+        data.read(length, offset);
+        return offset + 4 + length.getInt(0);
+    }
+
+    /**
+     * Decode a run's full replay from the mapped data file
+     */
+    public synchronized Replay loadReplay(int id) throws IOException {
+        long offset = segmentFor(id).getLong(slot(id) + OFFSET);
+        MappedByteBuffer header = data.map(FileChannel.MapMode.READ_ONLY, offset, 4);
+        int length = header.getInt(0);
+        MappedByteBuffer record = data.map(FileChannel.MapMode.READ_ONLY, offset + 4, length);
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return Replay.fromBytes(bytes);
+    }
+
+    // ===== QUERIES =====
+
+    /**
+     * Ids of the best runs, highest score first (ties: longest first)
+     */
+    public synchronized int[] topByScore(int n) {
+        sortIfStale();
+        int found = Math.min(n, sortedCount);
+        int[] ids = new int[found];
+        for (int i = 0; i < found; i++) {
+            ids[i] = (int) byScore[sortedCount - 1 - i];
+        }
+        return ids;
+    }
+
+    /**
+     * Ids of the best runs archived at or after a time (epoch millis),
+     * highest score first
+     */
+    public synchronized int[] topByScoreSince(long since, int n) {
+        sortIfStale();
+        int[] ids = new int[Math.min(n, sortedCount)];
+        int found = 0;
+        for (int i = sortedCount - 1; i >= 0 && found < ids.length; i--) {
+            int id = (int) byScore[i];
+            if (getTime(id) >= since) {
+                ids[found++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, found);
+    }
+
+    /**
+     * Ids of runs that lasted longer than the given time, longest first
+     */
+    public synchronized int[] longerThan(double seconds, int limit) {
+        sortIfStale();
+        long minTicks = (long) Math.floor(seconds * GameSimulation.TICKS_PER_SECOND) + 1;
+        int first = lowerBound(byTicks, sortedCount, minTicks << 32);
+        int found = Math.min(limit, sortedCount - first);
+        int[] ids = new int[found];
+        for (int i = 0; i < found; i++) {
+            ids[i] = (int) byTicks[sortedCount - 1 - i];
+        }
+        return ids;
+    }
+
+    /**
+     * Number of runs that lasted longer than the given time
+     */
+    public synchronized int countLongerThan(double seconds) {
+        sortIfStale();
+        long minTicks = (long) Math.floor(seconds * GameSimulation.TICKS_PER_SECOND) + 1;
+        return sortedCount - lowerBound(byTicks, sortedCount, minTicks << 32);
+    }
+
+    /**
+     * Ids of runs that died at the given pipe, in archive order (a scan of
+     * the mapped index; 32 MB per million runs)
+     */
+    public synchronized int[] diedAtPipe(int pipe, int limit) {
+        int total = count;
+        int[] ids = new int[Math.min(limit, 1024)];
+        int found = 0;
+        for (int id = 0; id < total && found < limit; id++) {
+            ByteBuffer segment = segmentFor(id);
+            int slot = slot(id);
+            if (segment.getInt(slot + DEATH_PIPE) == pipe
+                    && segment.get(slot + DEATH_CAUSE) != GameSimulation.DeathCause.NONE.ordinal()) {
+                if (found == ids.length) {
+                    ids = Arrays.copyOf(ids, Math.min(limit, ids.length * 2));
+                }
+                ids[found++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, found);
+    }
+
+    // ===== SORTED KEYS =====
+
+    /**
+     * Merge the runs archived since the last query into the sorted keys
+     */
+    private void sortIfStale() {
+        int total = count;
+        if (total == sortedCount) {
+            return;
+        }
+        long[] addedScores = new long[total - sortedCount];
+        long[] addedTicks = new long[addedScores.length];
+        for (int i = 0; i < addedScores.length; i++) {
+            int id = sortedCount + i;
+            ByteBuffer segment = segmentFor(id);
+            int slot = slot(id);
+            addedScores[i] = (long) segment.getInt(slot + SCORE) << 32 | id;
+            addedTicks[i] = (long) segment.getInt(slot + TICKS) << 32 | id;
+        }
+        sortByScore(addedScores);
+        Arrays.parallelSort(addedTicks);
+
+        byScore = merge(byScore, sortedCount, addedScores, true);
+        byTicks = merge(byTicks, sortedCount, addedTicks, false);
+        sortedCount = total;
+    }
+
+    /**
+     * Sort by score, then ticks, then id
+     */
+    private void sortByScore(long[] keys) {
+        Arrays.parallelSort(keys);
+        for (int from = 0; from < keys.length;) {
+            int to = from + 1;
+            while (to < keys.length && keys[to] >> 32 == keys[from] >> 32) {
+                to++;
+            }
+            if (to - from > 1) {
+                long[] tied = new long[to - from];
+                for (int i = 0; i < tied.length; i++) {
+                    tied[i] = (long) getTicks((int) keys[from + i]) << 32 | (int) keys[from + i];
+                }
+                Arrays.sort(tied);
+                for (int i = 0; i < tied.length; i++) {
+                    tied[i] = (keys[from] >> 32) << 32 | (int) tied[i];
+                }
+                System.arraycopy(tied, 0, keys, from, tied.length);
+            }
+            from = to;
+        }
+    }
+
+    private int compareByScore(long a, long b) {
+        int order = Long.compare(a >> 32, b >> 32);
+        if (order == 0) {
+            order = Integer.compare(getTicks((int) a), getTicks((int) b));
+        }
+        return order != 0 ? order : Integer.compare((int) a, (int) b);
+    }
+
+    /**
+     * Merge added keys (sorted) into the first length of sorted, from the
+     * back so nothing already in place is copied twice
+     *
+     * @return sorted, or a larger copy of it
+     */
+    private long[] merge(long[] sorted, int length, long[] added, boolean scoreOrder) {
+        if (sorted.length < length + added.length) {
+            sorted = Arrays.copyOf(sorted, Math.max(length + added.length, sorted.length * 3 / 2));
+        }
+        int a = length - 1;
+        int b = added.length - 1;
+        for (int i = length + added.length - 1; b >= 0; i--) {
+            boolean takeOld = a >= 0 && (scoreOrder
+                    ? compareByScore(sorted[a], added[b]) > 0
+                    : sorted[a] > added[b]);
+            sorted[i] = takeOld ? sorted[a--] : added[b--];
+        }
+        return sorted;
+    }
+
+    /**
+     * Read the keys saved by the last close, if they match the index
+     */
+    private void loadKeys() {
+        if (!Files.exists(keysFile)) {
+            return;
+        }
+        try {
+            ByteBuffer keys = ByteBuffer.wrap(Files.readAllBytes(keysFile)).order(ByteOrder.LITTLE_ENDIAN);
+            int sorted = keys.remaining() >= 8 && keys.getInt() == KEYS_MAGIC ? keys.getInt() : -1;
+            if (sorted < 0 || sorted > count || keys.remaining() != sorted * 16L) {
+                System.err.println("⚠ Ignoring stale archive keys, rebuilding them");
+                return;
+            }
+            byScore = new long[sorted];
+            byTicks = new long[sorted];
+            keys.asLongBuffer().get(byScore).get(byTicks);
+            sortedCount = sorted;
+        } catch (IOException e) {
+            System.err.println("⚠ Couldn't read archive keys: " + e.getMessage());
+        }
+    }
+
+    private synchronized void saveKeys() {
+        sortIfStale();
+        ByteBuffer keys = ByteBuffer.allocate(8 + sortedCount * 16).order(ByteOrder.LITTLE_ENDIAN);
+        keys.putInt(KEYS_MAGIC).putInt(sortedCount);
+        keys.asLongBuffer().put(byScore, 0, sortedCount).put(byTicks, 0, sortedCount);
+        Path temp = keysFile.resolveSibling(keysFile.getFileName() + ".tmp");
+        try {
+            Files.write(temp, keys.array());
+            Files.move(temp, keysFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("✗ Failed to save archive keys: " + e.getMessage());
+        }
+    }
+
+    private static int lowerBound(long[] sorted, int length, long key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // ===== COMMAND LINE =====
+
+    public static void main(String[] args) throws Exception {
+        int arg = 0;
+        Path folder = Paths.get("replays", "archive");
+        if (args.length > 2 || (args.length == 2 && !isCommand(args[0]))) {
+            folder = Paths.get(args[arg++]);
+        }
+        if (args.length - arg < 2) {
+            System.out.println("Usage: java -cp out ReplayArchive [folder] "
+                    + "top N | pipe N | longer SECONDS | play ID | generate N");
+            return;
+        }
+        String command = args[arg];
+        String value = args[arg + 1];
+
+        try (ReplayArchive archive = new ReplayArchive(folder)) {
+            System.out.printf("%,d runs in %s%n", archive.size(), folder.toAbsolutePath());
+            long start = System.nanoTime();
+            int[] ids;
+            switch (command) {
+                case "top":
+                    ids = archive.topByScore(Integer.parseInt(value));
+                    break;
+                case "pipe":
+                    ids = archive.diedAtPipe(Integer.parseInt(value), 20);
+                    break;
+                case "longer":
+                    System.out.printf("%,d runs longer than %s s%n",
+                            archive.countLongerThan(Double.parseDouble(value)), value);
+                    ids = archive.longerThan(Double.parseDouble(value), 20);
+                    break;
+                case "play":
+                    playBack(archive, Integer.parseInt(value));
+                    return;
+                case "generate":
+                    generate(archive, Integer.parseInt(value));
+                    return;
+                default:
+                    System.out.println("Unknown command: " + command);
+                    return;
+            }
+            System.out.printf("Query took %.2f ms%n", (System.nanoTime() - start) / 1e6);
+            for (int id : ids) {
+                System.out.printf("  #%-9d score %4d  %7.1f s  %-7s at pipe %d%n", id, archive.getScore(id),
+                        archive.getSeconds(id), archive.getDeathCause(id), archive.getDeathPipe(id));
+            }
+        }
+    }
+
+    private static boolean isCommand(String arg) {
+        return arg.equals("top") || arg.equals("pipe") || arg.equals("longer") || arg.equals("play")
+                || arg.equals("generate");
+    }
+
+    private static void playBack(ReplayArchive archive, int id) throws IOException {
+        Replay replay = archive.loadReplay(id);
+        ReplayPlayer player = new ReplayPlayer(replay);
+        player.runToEnd();
+        System.out.printf("Run #%d: recorded score %d, replayed score %d, %s at pipe %d%n", id,
+                replay.getScore(), player.getSimulation().getScore(),
+                player.getSimulation().getDeathCause(), player.getSimulation().getDeathPipe());
+    }
+
+    /**
+     * Fill the archive with real runs from a noisy bot, to try queries at scale
+     */
+    private static void generate(ReplayArchive archive, int runs) {
+        GameSimulation simulation = new GameSimulation(System.nanoTime());
+        ReplayRecorder recorder = new ReplayRecorder();
+        recorder.setOnRunFinished(archive::append);
+        simulation.setRecorder(recorder);
+        Random random = new Random();
+
+        long start = System.nanoTime();
+        for (int run = 0; run < runs; run++) {
+            // Each bot misjudges its flaps by a different amount, so run lengths vary
+            int slack = 20 + random.nextInt(40);
+            simulation.start();
+            while (simulation.isPlaying()) {
+                Bird bird = simulation.getBird();
+                Pipe next = simulation.getPipes().nextUnscored();
+                double targetY = next != null ? next.getGapY() : GameSimulation.WORLD_HEIGHT / 2;
+                if (bird.getVelocity() >= 0 && bird.getY() > targetY + random.nextInt(slack)) {
+                    simulation.jump();
+                }
+                simulation.update();
+            }
+        }
+        archive.flush();
+        System.out.printf("Generated %,d runs in %.1f s%n", runs, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,163 @@
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a {@link Replay} back on its own {@link GameSimulation}, either one
+ * tick at a time alongside the renderer or headless as fast as possible.
+ *
+ * A snapshot is kept at every keyframe the playback passes, and the recorded
+ * checksum is checked there. Seeking restores the nearest keyframe at or
+ * before the target and steps forward from it (at most
+ * {@link Replay#KEYFRAME_INTERVAL} ticks), so long runs can be scrubbed
+ * instantly.
+ *
+ * Usage: java -cp out ReplayPlayer replays/last.rpl
+ */
+public class ReplayPlayer {
+    private final Replay replay;
+    private final GameSimulation simulation;
+    private final Replay.JumpReader jumps;
+    private GameEventListener listener;
+
+    // Keyframe k is the state at tick k * KEYFRAME_INTERVAL
+    private final List<SimSnapshot> keyframes = new ArrayList<>();
+    private final List<long[]> keyframeJumps = new ArrayList<>(); // Jump reader position, next jump tick
+    private int checksumMismatches;
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.simulation = new GameSimulation(0);
+        this.jumps = replay.jumps();
+        simulation.start(replay.getRunSeed());
+        saveKeyframe();
+    }
+
+    /**
+     * Receive the replayed run's events during normal playback (not while
+     * seeking)
+     */
+    public void setListener(GameEventListener listener) {
+        this.listener = listener;
+        simulation.setListener(listener);
+    }
+
+    /**
+     * Advance one tick, applying the recorded jumps
+     *
+     * @return false once the run is over
+     */
+    public boolean step() {
+        if (isFinished()) {
+            return false;
+        }
+        long tick = simulation.getTick();
+        while (jumps.peek() == tick) {
+            simulation.jump();
+            jumps.advance();
+        }
+        simulation.update();
+
+        long now = simulation.getTick();
+        if (now % Replay.KEYFRAME_INTERVAL == 0) {
+            int keyframe = (int) (now / Replay.KEYFRAME_INTERVAL);
+            if (keyframe - 1 < replay.getChecksumCount()
+                    && simulation.checksum() != replay.getChecksum(keyframe - 1)) {
+                checksumMismatches++;
+            }
+            if (keyframe == keyframes.size()) {
+                saveKeyframe();
+            }
+        }
+        return !isFinished();
+    }
+
+    private void saveKeyframe() {
+        SimSnapshot snapshot = new SimSnapshot();
+        simulation.saveTo(snapshot);
+        keyframes.add(snapshot);
+        keyframeJumps.add(new long[] { jumps.getPosition(), jumps.getNextTick() });
+    }
+
+    /**
+     * Jump to a tick (clamped to the run), silently
+     */
+    public void seek(long target) {
+        target = Math.max(0, Math.min(target, replay.getTicks()));
+        int keyframe = (int) Math.min(target / Replay.KEYFRAME_INTERVAL, keyframes.size() - 1);
+        if (target < simulation.getTick() || keyframe > simulation.getTick() / Replay.KEYFRAME_INTERVAL) {
+            simulation.restoreFrom(keyframes.get(keyframe));
+            long[] position = keyframeJumps.get(keyframe);
+            jumps.seek((int) position[0], position[1]);
+        }
+
+        simulation.setListener(null);
+        while (simulation.getTick() < target && step()) {
+            // Fast-forward headless
+        }
+        simulation.setListener(listener);
+    }
+
+    /**
+     * Play the rest of the run headless, as fast as possible
+     */
+    public void runToEnd() {
+        simulation.setListener(null);
+        while (step()) {
+            // Fast-forward headless
+        }
+        simulation.setListener(listener);
+    }
+
+    public boolean isFinished() {
+        return !simulation.isPlaying() || simulation.getTick() >= replay.getTicks();
+    }
+
+    public GameSimulation getSimulation() {
+        return simulation;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public long getTick() {
+        return simulation.getTick();
+    }
+
+    /**
+     * Keyframes where the replayed state differed from the recording
+     * (non-zero means the rules changed since the run was recorded)
+     */
+    public int getChecksumMismatches() {
+        return checksumMismatches;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java -cp out ReplayPlayer <replay file>");
+            return;
+        }
+        Replay replay = Replay.readFrom(Paths.get(args[0]));
+        System.out.printf("Run seed %016x: %,d ticks, %,d jumps in %,d bytes, score %d%n",
+                replay.getRunSeed(), replay.getTicks(), replay.getJumpCount(), replay.getJumpBytes(),
+                replay.getScore());
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        long start = System.nanoTime();
+        player.runToEnd();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double realTime = (double) replay.getTicks() / GameSimulation.TICKS_PER_SECOND;
+        System.out.printf("Played back in %.2f ms (%,.0fx real time)%n", seconds * 1e3, realTime / seconds);
+
+        boolean matches = player.getSimulation().getScore() == replay.getScore()
+                && player.getTick() == replay.getTicks() && player.getChecksumMismatches() == 0;
+        System.out.println(matches ? "✓ Replay matches the recording"
+                : "✗ Replay diverged: score " + player.getSimulation().getScore() + ", "
+                        + player.getChecksumMismatches() + " checksum mismatches");
+
+        start = System.nanoTime();
+        player.seek(replay.getTicks() / 2);
+        System.out.printf("Seek to the middle took %.3f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+}
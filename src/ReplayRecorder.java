@@ -0,0 +1,77 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Records the runs of a {@link GameSimulation} (see
+ * {@link GameSimulation#setRecorder}) as {@link Replay}s.
+ *
+ * Recording a jump or a tick doesn't allocate; the buffers are reused from
+ * run to run and only copied into a Replay when the run ends.
+ */
+public class ReplayRecorder {
+    private byte[] jumps = new byte[256];
+    private final int[] jumpLength = new int[1];
+    private int jumpCount;
+    private long lastJumpTick;
+
+    private long[] checksums = new long[64];
+    private int checksumCount;
+
+    private long runSeed;
+    private boolean recording;
+    private Replay lastReplay;
+    private Consumer<Replay> onRunFinished;
+
+    /**
+     * Called with each finished run, on the thread that steps the simulation
+     */
+    public void setOnRunFinished(Consumer<Replay> onRunFinished) {
+        this.onRunFinished = onRunFinished;
+    }
+
+    void begin(long runSeed) {
+        this.runSeed = runSeed;
+        jumpLength[0] = 0;
+        jumpCount = 0;
+        lastJumpTick = 0;
+        checksumCount = 0;
+        recording = true;
+    }
+
+    void recordJump(long tick) {
+        if (!recording) {
+            return;
+        }
+        jumps = Replay.writeVarint(jumps, jumpLength, tick - lastJumpTick);
+        lastJumpTick = tick;
+        jumpCount++;
+    }
+
+    void afterStep(GameSimulation simulation) {
+        if (!recording) {
+            return;
+        }
+        if (simulation.getTick() % Replay.KEYFRAME_INTERVAL == 0) {
+            if (checksumCount == checksums.length) {
+                checksums = Arrays.copyOf(checksums, checksums.length * 2);
+            }
+            checksums[checksumCount++] = simulation.checksum();
+        }
+        if (!simulation.isPlaying()) {
+            recording = false;
+            lastReplay = new Replay(runSeed, simulation.getTick(), simulation.getScore(),
+                    simulation.getDeathCause(), simulation.getDeathPipe(),
+                    Arrays.copyOf(jumps, jumpLength[0]), jumpCount, Arrays.copyOf(checksums, checksumCount));
+            if (onRunFinished != null) {
+                onRunFinished.accept(lastReplay);
+            }
+        }
+    }
+
+    /**
+     * The most recently finished run, or null if none has finished yet
+     */
+    public Replay getLastReplay() {
+        return lastReplay;
+    }
+}
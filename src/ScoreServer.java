@@ -0,0 +1,377 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Central leaderboard for a fleet of cabinets, over plain HTTP.
+ *
+ * POST /scores?avatar=NAME with a {@link Replay} as the body submits a run.
+ * The replay is played back before the score is accepted, so a cabinet
+ * can't claim a score its inputs don't reach. Score and duration come from
+ * the replay itself. The same recording (same seed and flaps) is only
+ * accepted once while it's queued or on the board.
+ * GET /top?n=10 lists the best runs, one per line: rank, score, seconds,
+ * avatar.
+ * GET /stats shows how many submissions were accepted and rejected.
+ *
+ * Each request runs on its own virtual thread. Accepted runs are queued and
+ * merged into the sorted top list in batches by one thread, which publishes
+ * a new immutable list for readers and saves it to disk every few seconds.
+ *
+ * Usage: java -cp out ScoreServer [port] [snapshot file]
+ */
+public class ScoreServer {
+    public static final int DEFAULT_PORT = 8787;
+    public static final int TOP_SIZE = 1000;
+
+    private static final long MERGE_MILLIS = 50;
+    private static final long SNAPSHOT_MILLIS = 5000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final long MAX_TICKS = 3600L * GameSimulation.TICKS_PER_SECOND; // An hour
+    private static final int MAX_NAME_LENGTH = 64;
+    private static final int SNAPSHOT_MAGIC = 0x46425453; // "FBTS"
+
+    private static final Comparator<Entry> BEST_FIRST = Comparator.comparingInt((Entry e) -> -e.score)
+            .thenComparingLong(e -> e.ticks)
+            .thenComparingLong(e -> e.time);
+
+    private final Path snapshotFile;
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private volatile Entry[] top = new Entry[0];
+    // Fingerprints of the queued runs and the board. A copy of a run that has
+    // dropped off the board ranks no higher than it did, so it needn't be kept.
+    private final Set<Long> seen = ConcurrentHashMap.newKeySet();
+    private boolean dirty; // Only touched by the merge thread
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private HttpServer http;
+    private ScheduledExecutorService merger;
+
+    /**
+     * One run on the board
+     */
+    static final class Entry {
+        final String avatar;
+        final int score;
+        final long ticks;
+        final long time;
+        final long fingerprint; // See Replay.fingerprint()
+
+        Entry(String avatar, int score, long ticks, long time, long fingerprint) {
+            this.avatar = avatar;
+            this.score = score;
+            this.ticks = ticks;
+            this.time = time;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public ScoreServer(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public void start(int port) throws IOException {
+        loadSnapshot();
+
+        // Small responses otherwise wait on delayed ACKs (~40 ms each); read
+        // when the first server is created
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        http = HttpServer.create(new InetSocketAddress(port), 1024);
+        http.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        http.createContext("/scores", this::handleSubmit);
+        http.createContext("/top", this::handleTop);
+        http.createContext("/stats", this::handleStats);
+
+        merger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "score-merge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        merger.scheduleWithFixedDelay(this::mergePending, MERGE_MILLIS, MERGE_MILLIS, TimeUnit.MILLISECONDS);
+        merger.scheduleWithFixedDelay(this::saveSnapshot, SNAPSHOT_MILLIS, SNAPSHOT_MILLIS, TimeUnit.MILLISECONDS);
+
+        http.start();
+        System.out.println("✓ Score server listening on port " + http.getAddress().getPort());
+    }
+
+    public void stop() {
+        http.stop(0);
+        merger.shutdown();
+        try {
+            merger.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mergePending();
+        saveSnapshot();
+    }
+
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    // ===== REQUESTS =====
+
+    private void handleSubmit(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "POST a replay\n");
+                return;
+            }
+            String avatar = queryParam(exchange, "avatar", "Default");
+            if (avatar.isEmpty() || avatar.length() > MAX_NAME_LENGTH) {
+                rejected.increment();
+                respond(exchange, 400, "Bad avatar name\n");
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                rejected.increment();
+                respond(exchange, 413, "Replay too large\n");
+                return;
+            }
+
+            Replay replay;
+            try {
+                replay = Replay.fromBytes(body);
+            } catch (IOException | RuntimeException e) {
+                rejected.increment();
+                respond(exchange, 400, "Not a replay: " + e.getMessage() + "\n");
+                return;
+            }
+            boolean valid;
+            try {
+                valid = verify(replay);
+            } catch (RuntimeException e) {
+                valid = false;
+            }
+            if (!valid) {
+                rejected.increment();
+                respond(exchange, 422, "Replay doesn't reproduce the score\n");
+                return;
+            }
+            long fingerprint = replay.fingerprint();
+            if (!seen.add(fingerprint)) {
+                rejected.increment();
+                respond(exchange, 409, "Run already submitted\n");
+                return;
+            }
+
+            pending.add(new Entry(avatar, replay.getScore(), replay.getTicks(), System.currentTimeMillis(),
+                    fingerprint));
+            accepted.increment();
+            respond(exchange, 202, "Accepted\n");
+        }
+    }
+
+    /**
+     * Play the run back and check it ends the way the cabinet says
+     */
+    static boolean verify(Replay replay) {
+        if (replay.getTicks() <= 0 || replay.getTicks() > MAX_TICKS || replay.getScore() < 0) {
+            return false;
+        }
+        ReplayPlayer player = new ReplayPlayer(replay);
+        player.runToEnd();
+        GameSimulation simulation = player.getSimulation();
+        return player.getChecksumMismatches() == 0
+                && player.getTick() == replay.getTicks()
+                && simulation.getScore() == replay.getScore()
+                && !simulation.isPlaying();
+    }
+
+    private void handleTop(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int n;
+            try {
+                n = Math.max(1, Math.min(TOP_SIZE, Integer.parseInt(queryParam(exchange, "n", "10"))));
+            } catch (NumberFormatException e) {
+                respond(exchange, 400, "n must be a number\n");
+                return;
+            }
+            Entry[] board = top;
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < Math.min(n, board.length); i++) {
+                Entry entry = board[i];
+                text.append(i + 1).append('\t')
+                        .append(entry.score).append('\t')
+                        .append(String.format("%.1f", (double) entry.ticks / GameSimulation.TICKS_PER_SECOND))
+                        .append('\t').append(entry.avatar).append('\n');
+            }
+            respond(exchange, 200, text.toString());
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            respond(exchange, 200, "accepted " + accepted.sum() + "\nrejected " + rejected.sum()
+                    + "\npending " + pending.size() + "\nboard " + top.length + "\n");
+        }
+    }
+
+    private static String queryParam(HttpExchange exchange, String name, String fallback) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return fallback;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return fallback;
+    }
+
+    /**
+     * @return the body, or null if it's larger than the limit
+     */
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            if (body.size() + read > MAX_BODY_BYTES) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // ===== TOP LIST =====
+
+    /**
+     * Fold the queued runs into the top list (merge thread only)
+     */
+    private void mergePending() {
+        List<Entry> batch = new ArrayList<>();
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            batch.add(entry);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        batch.sort(BEST_FIRST);
+
+        // Both lists are sorted, so one merge pass keeps the best TOP_SIZE
+        Entry[] current = top;
+        Entry[] merged = new Entry[Math.min(TOP_SIZE, current.length + batch.size())];
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (b == batch.size() || (a < current.length && BEST_FIRST.compare(current[a], batch.get(b)) <= 0)) {
+                merged[i] = current[a++];
+            } else {
+                merged[i] = batch.get(b++);
+            }
+        }
+        top = merged;
+        while (a < current.length) {
+            seen.remove(current[a++].fingerprint);
+        }
+        while (b < batch.size()) {
+            seen.remove(batch.get(b++).fingerprint);
+        }
+        dirty = true;
+    }
+
+    // ===== SNAPSHOTS =====
+
+    private void saveSnapshot() {
+        if (!dirty) {
+            return;
+        }
+        Entry[] board = top;
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Path dir = snapshotFile.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(board.length);
+                for (Entry entry : board) {
+                    out.writeUTF(entry.avatar);
+                    out.writeInt(entry.score);
+                    out.writeLong(entry.ticks);
+                    out.writeLong(entry.time);
+                    out.writeLong(entry.fingerprint);
+                }
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+        } catch (IOException e) {
+            System.err.println("✗ Failed to save score snapshot: " + e.getMessage());
+        }
+    }
+
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshotFile))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("not a score snapshot");
+            }
+            int count = in.readInt();
+            if (count < 0 || count > TOP_SIZE) {
+                throw new IOException("corrupt score snapshot (" + count + " entries)");
+            }
+            Entry[] board = new Entry[count];
+            for (int i = 0; i < board.length; i++) {
+                board[i] = new Entry(in.readUTF(), in.readInt(), in.readLong(), in.readLong(), in.readLong());
+                seen.add(board[i].fingerprint);
+            }
+            Arrays.sort(board, BEST_FIRST);
+            top = board;
+            System.out.println("✓ Loaded " + board.length + " scores from " + snapshotFile);
+        } catch (IOException e) {
+            System.err.println("⚠ Couldn't load score snapshot: " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Path snapshot = args.length > 1 ? Paths.get(args[1]) : Paths.get("scores", "server-top.dat");
+        ScoreServer server = new ScoreServer(snapshot);
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    }
+}
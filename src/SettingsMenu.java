@@ -1,10 +1,9 @@
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,9 +19,24 @@ public class SettingsMenu {
     private static final double BUTTON_SIZE = 80;
     private static final double BUTTON_SPACING = 20;
 
+    // Avatar picker: one page of cells, centred, with page arrows either side
+    private static final int PAGE_SIZE = 5;
+    private static final double CELL_PITCH = BUTTON_SIZE + BUTTON_SPACING;
+    private static final double GRID_WIDTH = PAGE_SIZE * CELL_PITCH - BUTTON_SPACING;
+    private static final double GRID_OFFSET_X = (MENU_WIDTH - GRID_WIDTH) / 2; // From the panel's left
+    private static final double GRID_OFFSET_Y = 125; // From the panel's top
+    private static final double ARROW_WIDTH = 30;
+
     private AvatarManager avatarManager;
     private SoundManager soundManager;
 
+    // Names shortened to fit under a thumbnail, rebuilt when the avatar list changes
+    private final List<String> displayNames = new ArrayList<>();
+    private int displayNamesVersion = -1;
+    private int page;
+    private String pageLabel; // "Page 2 / 9", rebuilt when the page or page count changes
+    private long pageLabelKey = -1;
+
     public SettingsMenu(double canvasWidth, double canvasHeight,
             AvatarManager avatarManager, SoundManager soundManager) {
         this.canvasWidth = canvasWidth;
@@ -33,11 +47,20 @@ public class SettingsMenu {
     }
 
     public void toggle() {
-        isOpen = !isOpen;
+        if (isOpen) {
+            close();
+        } else {
+            open();
+        }
     }
 
+    /**
+     * Open on the page that holds the current avatar
+     */
     public void open() {
         isOpen = true;
+        page = avatarManager.getCurrentAvatarIndex() / PAGE_SIZE;
+        avatarManager.prefetch(page * PAGE_SIZE, PAGE_SIZE);
     }
 
     public void close() {
@@ -48,114 +71,179 @@ public class SettingsMenu {
         return isOpen;
     }
 
+    /**
+     * Changes whenever what {@link #render} draws changes
+     */
+    public long getContentKey() {
+        if (!isOpen) {
+            return 0;
+        }
+        long key = CanvasLayer.key(avatarManager.getCurrentAvatarIndex(), avatarManager.getAvatarCount());
+        key = CanvasLayer.key(key, page);
+        key = CanvasLayer.key(key, avatarManager.getListVersion());
+        key = CanvasLayer.key(key, avatarManager.getImageGeneration());
+        return CanvasLayer.key(key, avatarManager.isLoading() ? 1 : 2);
+    }
+
     public void render(GraphicsContext gc) {
         if (!isOpen) {
             return;
         }
 
-        gc.setFill(Color.rgb(0, 0, 0, 0.7));
+        gc.setFill(RenderResources.SETTINGS_SHADE);
         gc.fillRect(0, 0, canvasWidth, canvasHeight);
 
         double menuX = (canvasWidth - MENU_WIDTH) / 2;
         double menuY = (canvasHeight - MENU_HEIGHT) / 2;
 
-        gc.setFill(Color.rgb(40, 40, 40, 0.95));
+        gc.setFill(RenderResources.PANEL);
         gc.fillRoundRect(menuX, menuY, MENU_WIDTH, MENU_HEIGHT, 20, 20);
 
-        gc.setStroke(Color.rgb(255, 215, 0));
+        gc.setStroke(RenderResources.ACCENT);
         gc.setLineWidth(3);
         gc.strokeRoundRect(menuX, menuY, MENU_WIDTH, MENU_HEIGHT, 20, 20);
 
-        gc.setFill(Color.rgb(255, 215, 0));
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 36));
+        gc.setFill(RenderResources.ACCENT);
+        gc.setFont(RenderResources.HEADING_FONT);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.fillText("⚙ SETTINGS", canvasWidth / 2, menuY + 50);
 
-        renderAvatarSection(gc, menuX, menuY + 90);
+        renderAvatarSection(gc, menuX, menuY);
         renderSoundInfo(gc, menuX, menuY + 260);
 
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.NORMAL, 14));
-        gc.fillText("Press S-Close • 1-Danger • 2-Safe • 3-GameOver • A-Avatar",
+        gc.setFont(RenderResources.HINT_FONT);
+        gc.fillText("Press S-Close • ◀ ▶ Page • 1-Danger • 2-Safe • 3-GameOver • A-Avatar",
                 canvasWidth / 2, menuY + MENU_HEIGHT - 20);
     }
 
-    private void renderAvatarSection(GraphicsContext gc, double menuX, double startY) {
+    /**
+     * Draw the current page of avatars from their pre-cropped thumbnails
+     * (one drawImage per cell, no clip)
+     */
+    private void renderAvatarSection(GraphicsContext gc, double menuX, double menuY) {
+        double startY = menuY + 90;
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        gc.setFont(RenderResources.SECTION_FONT);
         gc.setTextAlign(TextAlignment.LEFT);
         gc.fillText("👤 Select Avatar:", menuX + 30, startY);
 
-        List<Image> avatars = avatarManager.getAllAvatars();
-        List<String> names = avatarManager.getAllAvatarNames();
-
-        if (avatars.isEmpty()) {
-            gc.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
-            gc.setFill(Color.rgb(255, 100, 100));
-            gc.fillText("No avatars loaded", menuX + 30, startY + 40);
+        int count = avatarManager.getAvatarCount();
+        if (count == 0) {
+            gc.setFont(RenderResources.BODY_FONT);
+            gc.setFill(RenderResources.WARNING_TEXT);
+            gc.fillText(avatarManager.isLoading() ? "Loading avatars..." : "No avatars loaded",
+                    menuX + 30, startY + 40);
             return;
         }
 
-        double startX = menuX + 30;
-        double currentX = startX;
-        double currentY = startY + 35;
+        int pages = getPageCount();
+        page = Math.min(page, pages - 1); // Avatars may have been removed
+        if (pages > 1) {
+            gc.setFont(RenderResources.CAPTION_FONT);
+            gc.setFill(RenderResources.INFO_TEXT);
+            gc.setTextAlign(TextAlignment.RIGHT);
+            gc.fillText(getPageLabel(pages), menuX + MENU_WIDTH - 30, startY);
+        }
 
-        for (int i = 0; i < avatars.size(); i++) {
-            if (i > 0 && i % 5 == 0) {
-                currentX = startX;
-                currentY += BUTTON_SIZE + BUTTON_SPACING + 20;
-            }
+        List<String> labels = getDisplayNames(avatarManager.getAllAvatarNames());
+        double gridX = menuX + GRID_OFFSET_X;
+        double gridY = menuY + GRID_OFFSET_Y;
+        int first = page * PAGE_SIZE;
+        int last = Math.min(count, first + PAGE_SIZE);
+
+        gc.setFont(RenderResources.CAPTION_FONT);
+        gc.setTextAlign(TextAlignment.CENTER);
+        for (int i = first; i < last; i++) {
+            double cellX = gridX + (i - first) * CELL_PITCH;
 
             if (i == avatarManager.getCurrentAvatarIndex()) {
-                gc.setFill(Color.rgb(255, 215, 0));
-                gc.fillRoundRect(currentX - 5, currentY - 5,
-                        BUTTON_SIZE + 10, BUTTON_SIZE + 10, 10, 10);
+                gc.setFill(RenderResources.ACCENT);
+                gc.fillRoundRect(cellX - 5, gridY - 5, BUTTON_SIZE + 10, BUTTON_SIZE + 10, 10, 10);
             }
 
-            gc.setFill(Color.rgb(60, 60, 60));
-            gc.fillRoundRect(currentX, currentY, BUTTON_SIZE, BUTTON_SIZE, 8, 8);
-
-            gc.save();
-            gc.beginPath();
-            gc.arc(currentX + BUTTON_SIZE / 2, currentY + BUTTON_SIZE / 2,
-                    BUTTON_SIZE / 2 - 5, BUTTON_SIZE / 2 - 5, 0, 360);
-            gc.closePath();
-            gc.clip();
-            gc.drawImage(avatars.get(i), currentX + 5, currentY + 5,
-                    BUTTON_SIZE - 10, BUTTON_SIZE - 10);
-            gc.restore();
+            gc.setFill(RenderResources.CELL);
+            gc.fillRoundRect(cellX, gridY, BUTTON_SIZE, BUTTON_SIZE, 8, 8);
+            Image thumbnail = avatarManager.getThumbnail(i); // Null until decoded
+            if (thumbnail != null) {
+                gc.drawImage(thumbnail, cellX + 5, gridY + 5,
+                        AvatarManager.THUMBNAIL_SIZE, AvatarManager.THUMBNAIL_SIZE);
+            }
 
-            gc.setFont(Font.font("Arial", FontWeight.NORMAL, 10));
             gc.setFill(Color.WHITE);
-            gc.setTextAlign(TextAlignment.CENTER);
-            String displayName = names.get(i);
-            if (displayName.length() > 10) {
-                displayName = displayName.substring(0, 10) + "..";
-            }
-            gc.fillText(displayName, currentX + BUTTON_SIZE / 2, currentY + BUTTON_SIZE + 15);
+            gc.fillText(labels.get(i), cellX + BUTTON_SIZE / 2, gridY + BUTTON_SIZE + 15);
+        }
+
+        // Neighbouring pages decode in the background, so flipping is instant
+        avatarManager.prefetch(first + PAGE_SIZE, PAGE_SIZE);
+        avatarManager.prefetch(first - PAGE_SIZE, PAGE_SIZE);
 
-            currentX += BUTTON_SIZE + BUTTON_SPACING;
+        if (pages > 1) {
+            gc.setFont(RenderResources.HEADING_FONT);
+            gc.setFill(page > 0 ? RenderResources.ACCENT : RenderResources.CELL);
+            gc.fillText("◀", gridX - GRID_OFFSET_X / 2, gridY + BUTTON_SIZE / 2 + 10);
+            gc.setFill(page < pages - 1 ? RenderResources.ACCENT : RenderResources.CELL);
+            gc.fillText("▶", gridX + GRID_WIDTH + GRID_OFFSET_X / 2, gridY + BUTTON_SIZE / 2 + 10);
         }
     }
 
     private void renderSoundInfo(GraphicsContext gc, double menuX, double startY) {
         gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 20));
+        gc.setFont(RenderResources.SECTION_FONT);
         gc.setTextAlign(TextAlignment.LEFT);
         gc.fillText("🔊 Sound Categories:", menuX + 30, startY);
 
-        gc.setFont(Font.font("Arial", FontWeight.NORMAL, 16));
-        gc.setFill(Color.rgb(220, 220, 220));
+        gc.setFont(RenderResources.BODY_FONT);
+        gc.setFill(RenderResources.INFO_TEXT);
         double textY = startY + 40;
         gc.fillText("Press 1: Danger Sound (near pipes)", menuX + 50, textY);
         gc.fillText("Press 2: Safe Sound (passed safely)", menuX + 50, textY + 30);
         gc.fillText("Press 3: GameOver Sound", menuX + 50, textY + 60);
 
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 14));
+        gc.setFont(RenderResources.BOLD_HINT_FONT);
         gc.setFill(Color.GOLD);
         gc.fillText("Auto: High Altitude • Every 5 Pillars", menuX + 50, textY + 100);
     }
 
+    /**
+     * Avatar names shortened to fit under a thumbnail (cached between frames)
+     */
+    private List<String> getDisplayNames(List<String> names) {
+        if (displayNamesVersion != avatarManager.getListVersion()) {
+            displayNamesVersion = avatarManager.getListVersion();
+            displayNames.clear();
+            for (String name : names) {
+                displayNames.add(name.length() > 10 ? name.substring(0, 10) + ".." : name);
+            }
+        }
+        return displayNames;
+    }
+
+    // ===== PAGING =====
+
+    public int getPageCount() {
+        return Math.max(1, (avatarManager.getAvatarCount() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    private String getPageLabel(int pages) {
+        long key = (long) page << 32 | pages;
+        if (key != pageLabelKey) {
+            pageLabel = "Page " + (page + 1) + " / " + pages;
+            pageLabelKey = key;
+        }
+        return pageLabel;
+    }
+
+    public void nextPage() {
+        page = Math.min(page + 1, getPageCount() - 1);
+    }
+
+    public void previousPage() {
+        page = Math.max(page - 1, 0);
+    }
+
+    // ===== INPUT =====
+
     public boolean handleClick(double mouseX, double mouseY) {
         if (!isOpen) {
             return false;
@@ -164,34 +252,44 @@ public class SettingsMenu {
         double menuX = (canvasWidth - MENU_WIDTH) / 2;
         double menuY = (canvasHeight - MENU_HEIGHT) / 2;
 
-        return handleAvatarClick(mouseX, mouseY, menuX, menuY + 125);
+        return handleAvatarClick(mouseX - menuX - GRID_OFFSET_X, mouseY - menuY - GRID_OFFSET_Y);
     }
 
-    private boolean handleAvatarClick(double mouseX, double mouseY, double menuX, double startY) {
-        List<Image> avatars = avatarManager.getAllAvatars();
-        if (avatars.isEmpty()) {
+    /**
+     * Pick the cell or arrow under the mouse straight from the grid
+     * arithmetic, without walking the avatars
+     *
+     * @param x mouse position relative to the first cell on the page
+     * @param y mouse position relative to the top of the cells
+     */
+    private boolean handleAvatarClick(double x, double y) {
+        if (y < 0 || y > BUTTON_SIZE) {
             return false;
         }
-
-        double startX = menuX + 30;
-        double currentX = startX;
-        double currentY = startY;
-
-        for (int i = 0; i < avatars.size(); i++) {
-            if (i > 0 && i % 5 == 0) {
-                currentX = startX;
-                currentY += BUTTON_SIZE + BUTTON_SPACING + 20;
+        if (x < 0) {
+            if (x >= -ARROW_WIDTH - BUTTON_SPACING) {
+                previousPage();
+                return true;
             }
-
-            if (mouseX >= currentX && mouseX <= currentX + BUTTON_SIZE &&
-                    mouseY >= currentY && mouseY <= currentY + BUTTON_SIZE) {
-                avatarManager.switchToAvatar(i);
+            return false;
+        }
+        if (x > GRID_WIDTH) {
+            if (x <= GRID_WIDTH + BUTTON_SPACING + ARROW_WIDTH) {
+                nextPage();
                 return true;
             }
-
-            currentX += BUTTON_SIZE + BUTTON_SPACING;
+            return false;
         }
 
-        return false;
+        int column = (int) (x / CELL_PITCH);
+        if (x - column * CELL_PITCH > BUTTON_SIZE) {
+            return false; // In the gap between cells
+        }
+        int index = page * PAGE_SIZE + column;
+        if (index >= avatarManager.getAvatarCount()) {
+            return false;
+        }
+        avatarManager.switchToAvatar(index);
+        return true;
     }
 }
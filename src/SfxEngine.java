@@ -0,0 +1,377 @@
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Low-latency sound effect player: clips are decoded to PCM in memory once
+ * and mixed in software through a fixed pool of voices on one audio line.
+ *
+ * A clip can overlap itself, each category has a voice limit, and when no
+ * voice is free a new sound steals the oldest voice of equal or lower
+ * priority. Trigger-to-output latency is measured for every voice.
+ *
+ * javax.sound reads WAV/AIFF/AU but not AAC, so the shipped .m4a effects
+ * are decoded by {@link AacDecoder}.
+ */
+public class SfxEngine {
+
+    /**
+     * Effect categories with their voice limit and stealing priority
+     */
+    public enum Category {
+        DANGER(2, 1), SAFE(2, 1), HIGH_ALTITUDE(1, 2), MILESTONE(1, 2), GAME_OVER(2, 3);
+
+        private final int maxVoices;
+        private final int priority;
+
+        Category(int maxVoices, int priority) {
+            this.maxVoices = maxVoices;
+            this.priority = priority;
+        }
+    }
+
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+
+    private static final int VOICES = 16;
+    private static final int BLOCK_FRAMES = 256; // ~5.8 ms per mix block
+    private static final int LINE_BUFFER_FRAMES = BLOCK_FRAMES * 4;
+    private static final int MAX_PENDING = 32;
+
+    private final List<short[]> clips = new ArrayList<>(); // Interleaved stereo PCM
+    private final Voice[] voices = new Voice[VOICES];
+
+    // Triggers handed from game threads to the mixer thread
+    private final Object pendingLock = new Object();
+    private final int[] pendingClip = new int[MAX_PENDING];
+    private final Category[] pendingCategory = new Category[MAX_PENDING];
+    private final float[] pendingVolume = new float[MAX_PENDING];
+    private final long[] pendingTime = new long[MAX_PENDING];
+    private int pendingCount;
+
+    private SourceDataLine line;
+    private Thread mixerThread;
+    private volatile boolean running;
+
+    // Latency statistics (written by the mixer thread)
+    private volatile long latencySamples;
+    private volatile long latencyTotalNanos;
+    private volatile long latencyMaxNanos;
+
+    public SfxEngine() {
+        for (int i = 0; i < VOICES; i++) {
+            voices[i] = new Voice();
+        }
+    }
+
+    /**
+     * Open the audio line and start the mixer thread
+     *
+     * @return false if no audio output is available
+     */
+    public synchronized boolean start() {
+        if (running) {
+            return true;
+        }
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, LINE_BUFFER_FRAMES * FORMAT.getFrameSize());
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            System.err.println("✗ Low-latency audio unavailable: " + e.getMessage());
+            line = null;
+            return false;
+        }
+
+        running = true;
+        mixerThread = new Thread(this::mixLoop, "sfx-mixer");
+        mixerThread.setDaemon(true);
+        mixerThread.setPriority(Thread.MAX_PRIORITY);
+        mixerThread.start();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Decode an .m4a/.mp4 (AAC-LC) or WAV/AIFF/AU file to in-memory PCM
+     *
+     * @return clip id, or -1 if the file can't be decoded
+     */
+    public int load(File file) {
+        try (AudioInputStream source = open(file)) {
+            AudioFormat sourceFormat = source.getFormat();
+            AudioFormat pcm = new AudioFormat(sourceFormat.getSampleRate(), 16,
+                    sourceFormat.getChannels(), true, false);
+            AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source);
+            try (AudioInputStream converted = convert(decoded, pcm)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = converted.read(buffer)) > 0) {
+                    bytes.write(buffer, 0, read);
+                }
+                short[] samples = toStereoSamples(bytes.toByteArray(), converted.getFormat().getChannels());
+                synchronized (clips) {
+                    clips.add(samples);
+                    return clips.size() - 1;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("✗ Failed to decode " + file.getName() + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static AudioInputStream open(File file) throws Exception {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".m4a") || name.endsWith(".mp4")) {
+            return AacDecoder.decode(file);
+        }
+        return AudioSystem.getAudioInputStream(file);
+    }
+
+    /**
+     * Bring decoded PCM to the mixer's sample rate
+     *
+     * @throws IllegalArgumentException if the rate can't be converted
+     */
+    private static AudioInputStream convert(AudioInputStream stream, AudioFormat pcm) {
+        if (pcm.getSampleRate() == SAMPLE_RATE) {
+            return stream;
+        }
+        AudioFormat target = new AudioFormat(SAMPLE_RATE, 16, pcm.getChannels(), true, false);
+        return AudioSystem.getAudioInputStream(target, stream);
+    }
+
+    private static short[] toStereoSamples(byte[] data, int channels) {
+        int frames = data.length / (2 * channels);
+        short[] samples = new short[frames * CHANNELS];
+        for (int f = 0; f < frames; f++) {
+            int base = f * channels * 2;
+            short left = (short) ((data[base] & 0xFF) | (data[base + 1] << 8));
+            short right = channels > 1 ? (short) ((data[base + 2] & 0xFF) | (data[base + 3] << 8)) : left;
+            samples[f * 2] = left;
+            samples[f * 2 + 1] = right;
+        }
+        return samples;
+    }
+
+    /**
+     * Stop a clip and free its PCM. Its id isn't reused; playing it again
+     * does nothing.
+     */
+    public void unload(int clip) {
+        if (clip < 0) {
+            return;
+        }
+        stop(clip);
+        synchronized (clips) {
+            clips.set(clip, null);
+        }
+    }
+
+    /**
+     * Queue a clip to start on the next mix block (cheap; safe from any thread)
+     */
+    public void play(int clip, Category category, double volume) {
+        if (!running || clip < 0) {
+            return;
+        }
+        synchronized (pendingLock) {
+            if (pendingCount == MAX_PENDING) {
+                return; // Mixer is far behind; drop rather than block the caller
+            }
+            pendingClip[pendingCount] = clip;
+            pendingCategory[pendingCount] = category;
+            pendingVolume[pendingCount] = (float) volume;
+            pendingTime[pendingCount] = System.nanoTime();
+            pendingCount++;
+        }
+    }
+
+    /**
+     * Stop every voice playing the given clip
+     */
+    public void stop(int clip) {
+        synchronized (pendingLock) {
+            for (Voice voice : voices) {
+                if (voice.clip == clip) {
+                    voice.stopRequested = true;
+                }
+            }
+        }
+    }
+
+    private void mixLoop() {
+        int[] mix = new int[BLOCK_FRAMES * CHANNELS];
+        byte[] out = new byte[BLOCK_FRAMES * FORMAT.getFrameSize()];
+        long blockNanos = (long) (BLOCK_FRAMES * 1e9 / SAMPLE_RATE);
+
+        while (running) {
+            startPendingVoices(blockNanos);
+
+            Arrays.fill(mix, 0);
+            for (Voice voice : voices) {
+                if (voice.active) {
+                    mixVoice(voice, mix);
+                }
+            }
+
+            for (int i = 0; i < mix.length; i++) {
+                int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                out[i * 2] = (byte) sample;
+                out[i * 2 + 1] = (byte) (sample >> 8);
+            }
+            line.write(out, 0, out.length); // Blocks while the line buffer is full
+        }
+    }
+
+    private void startPendingVoices(long blockNanos) {
+        synchronized (pendingLock) {
+            for (Voice voice : voices) {
+                if (voice.stopRequested) {
+                    voice.active = false;
+                    voice.clip = -1;
+                    voice.stopRequested = false;
+                }
+            }
+            for (int i = 0; i < pendingCount; i++) {
+                short[] samples;
+                synchronized (clips) {
+                    samples = clips.get(pendingClip[i]);
+                }
+                Voice voice = samples != null ? allocateVoice(pendingCategory[i]) : null;
+                if (voice == null) {
+                    continue; // Unloaded since it was queued, or no voice free
+                }
+                voice.active = true;
+                voice.clip = pendingClip[i];
+                voice.samples = samples;
+                voice.position = 0;
+                voice.volume = pendingVolume[i];
+                voice.category = pendingCategory[i];
+                voice.startedAt = pendingTime[i];
+
+                // The sound is audible once the buffered audio ahead of it has played
+                long queuedNanos = (long) ((line.getBufferSize() - line.available())
+                        / (double) FORMAT.getFrameSize() * 1e9 / SAMPLE_RATE);
+                recordLatency(System.nanoTime() - pendingTime[i] + queuedNanos + blockNanos / 2);
+            }
+            pendingCount = 0;
+        }
+    }
+
+    /**
+     * Pick a voice for a new sound, stealing one if needed
+     */
+    private Voice allocateVoice(Category category) {
+        int inCategory = 0;
+        Voice oldestInCategory = null;
+        Voice free = null;
+        Voice victim = null;
+
+        for (Voice voice : voices) {
+            if (!voice.active) {
+                if (free == null) {
+                    free = voice;
+                }
+                continue;
+            }
+            if (voice.category == category) {
+                inCategory++;
+                if (oldestInCategory == null || voice.startedAt < oldestInCategory.startedAt) {
+                    oldestInCategory = voice;
+                }
+            }
+            if (voice.category.priority <= category.priority
+                    && (victim == null || voice.category.priority < victim.category.priority
+                            || (voice.category.priority == victim.category.priority
+                                    && voice.startedAt < victim.startedAt))) {
+                victim = voice;
+            }
+        }
+
+        if (inCategory >= category.maxVoices) {
+            return oldestInCategory;
+        }
+        return free != null ? free : victim;
+    }
+
+    private static void mixVoice(Voice voice, int[] mix) {
+        short[] samples = voice.samples;
+        int remaining = samples.length - voice.position;
+        int count = Math.min(remaining, mix.length);
+        float volume = voice.volume;
+        for (int i = 0; i < count; i++) {
+            mix[i] += (int) (samples[voice.position + i] * volume);
+        }
+        voice.position += count;
+        if (voice.position >= samples.length) {
+            voice.active = false;
+            voice.clip = -1;
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        latencySamples++;
+        latencyTotalNanos += nanos;
+        if (nanos > latencyMaxNanos) {
+            latencyMaxNanos = nanos;
+        }
+    }
+
+    /**
+     * Average and worst trigger-to-output latency so far, for logging
+     */
+    public String getLatencySummary() {
+        long samples = latencySamples;
+        if (samples == 0) {
+            return "no effects played";
+        }
+        return String.format("%d effects, avg %.1f ms, max %.1f ms",
+                samples, latencyTotalNanos / 1e6 / samples, latencyMaxNanos / 1e6);
+    }
+
+    /**
+     * Stop the mixer and release the audio line
+     */
+    public void dispose() {
+        running = false;
+        if (mixerThread != null) {
+            try {
+                mixerThread.join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (line != null) {
+            line.stop();
+            line.close();
+        }
+    }
+
+    /**
+     * One mixing slot
+     */
+    private static class Voice {
+        private boolean active;
+        private boolean stopRequested;
+        private int clip = -1;
+        private short[] samples;
+        private int position;
+        private float volume;
+        private Category category;
+        private long startedAt;
+    }
+}
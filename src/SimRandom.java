@@ -0,0 +1,51 @@
+/**
+ * SplitMix64 random generator for the simulation. Unlike java.util.Random
+ * its whole state is one long, so it can be saved in replay keyframes and
+ * state snapshots and restored exactly.
+ */
+public class SimRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public SimRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * Uniform in [0, 1)
+     */
+    public double nextDouble() {
+        return toDouble(nextLong());
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * SplitMix64 output function. Also used by {@link BatchSimulator}, which
+     * keeps one generator state per game in a plain long array.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    static double toDouble(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    static long step(long state) {
+        return state + GOLDEN_GAMMA;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Complete state of a {@link GameSimulation} in flat primitive arrays.
+ *
+ * Filled by {@link GameSimulation#saveTo} and applied with
+ * {@link GameSimulation#restoreFrom}. A snapshot can be reused: saving into
+ * it again overwrites it and only allocates if there are more pipes than
+ * ever before.
+ */
+public class SimSnapshot {
+    // Indices into longs
+    static final int TICK = 0;
+    static final int LAST_PIPE_TICK = 1;
+    static final int RNG_STATE = 2;
+    static final int RUN_SEED = 3;
+    static final int LONG_COUNT = 4;
+
+    // Indices into ints
+    static final int STATE = 0;
+    static final int SCORE = 1;
+    static final int HIGH_SCORE = 2;
+    static final int PIPE_COUNTER = 3;
+    static final int LAST_MILESTONE = 4;
+    static final int FLAGS = 5; // bit 0 = wasInDanger, bit 1 = wasTooHigh
+    static final int PIPE_COUNT = 6;
+    static final int SCORED_COUNT = 7;
+    static final int DEATH_CAUSE = 8;
+    static final int DEATH_PIPE = 9;
+    static final int INT_COUNT = 10;
+
+    // Indices into bird
+    static final int BIRD_X = 0;
+    static final int BIRD_Y = 1;
+    static final int BIRD_VELOCITY = 2;
+    static final int BIRD_ROTATION = 3;
+    static final int BIRD_PREV_Y = 4;
+    static final int BIRD_PREV_ROTATION = 5;
+    static final int BIRD_COUNT = 6;
+
+    // Per pipe: x, prevX, gapY in pipeValues and the pipe index in pipeIndex
+    static final int PIPE_STRIDE = 3;
+
+    final long[] longs = new long[LONG_COUNT];
+    final int[] ints = new int[INT_COUNT];
+    final double[] bird = new double[BIRD_COUNT];
+    double[] pipeValues = new double[8 * PIPE_STRIDE];
+    int[] pipeIndex = new int[8];
+
+    /**
+     * Make room for at least this many pipes
+     */
+    void ensurePipeCapacity(int pipes) {
+        if (pipeIndex.length < pipes) {
+            int capacity = Math.max(pipes, pipeIndex.length * 2);
+            pipeValues = new double[capacity * PIPE_STRIDE];
+            pipeIndex = new int[capacity];
+        }
+    }
+
+    /**
+     * Simulation step this snapshot was taken at
+     */
+    public long getTick() {
+        return longs[TICK];
+    }
+}
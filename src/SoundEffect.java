@@ -0,0 +1,78 @@
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+
+/**
+ * One sound effect slot: played through the low-latency {@link SfxEngine}
+ * when its PCM could be decoded, otherwise through a JavaFX MediaPlayer
+ */
+public class SoundEffect {
+    private final SfxEngine engine;
+    private final int clip;
+    private final SfxEngine.Category category;
+    private final MediaPlayer player;
+    private double volume;
+
+    private SoundEffect(SfxEngine engine, int clip, SfxEngine.Category category, MediaPlayer player,
+            double volume) {
+        this.engine = engine;
+        this.clip = clip;
+        this.category = category;
+        this.player = player;
+        this.volume = volume;
+    }
+
+    /**
+     * Effect mixed from pre-decoded PCM (can overlap itself)
+     */
+    public static SoundEffect pcm(SfxEngine engine, int clip, SfxEngine.Category category, double volume) {
+        return new SoundEffect(engine, clip, category, null, volume);
+    }
+
+    /**
+     * Effect played by restarting a MediaPlayer
+     */
+    public static SoundEffect media(MediaPlayer player, double volume) {
+        player.setVolume(volume);
+        return new SoundEffect(null, -1, null, player, volume);
+    }
+
+    public void play() {
+        if (player == null) {
+            engine.play(clip, category, volume);
+        } else {
+            player.stop();
+            player.seek(Duration.ZERO);
+            player.play();
+        }
+    }
+
+    public void stop() {
+        if (player == null) {
+            engine.stop(clip);
+        } else {
+            player.stop();
+        }
+    }
+
+    public void setVolume(double volume) {
+        this.volume = volume;
+        if (player != null) {
+            player.setVolume(volume);
+        }
+    }
+
+    public boolean isLowLatency() {
+        return player == null;
+    }
+
+    /**
+     * Release the effect's audio (its PCM, or its player)
+     */
+    public void dispose() {
+        if (player != null) {
+            player.dispose();
+        } else {
+            engine.unload(clip);
+        }
+    }
+}
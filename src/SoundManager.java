@@ -1,40 +1,82 @@
+import javafx.application.Platform;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
-import javafx.util.Duration;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
- * Advanced sound manager with multiple switchable sound categories
+ * Advanced sound manager with multiple switchable sound categories.
+ *
+ * Every effect file the game knows about has a slot. When a file in
+ * resources/sounds changes while the game runs, only its slot is reloaded
+ * (see {@link #fileChanged}) and its category list is swapped in whole.
  */
 public class SoundManager {
     // Background music
     private MediaPlayer backgroundMusic;
 
+    // Pre-decoded, low-latency effect mixer
+    private final SfxEngine sfxEngine;
+
+    // Plays effects on its own thread; the play methods only raise events
+    private final AudioDispatcher dispatcher;
+
+    /**
+     * One sound file the game knows about, and the effect loaded from it
+     */
+    private static final class Slot {
+        final String path;
+        final String name;
+        final SfxEngine.Category category;
+        final double volume;
+        SoundEffect effect; // JavaFX thread only
+
+        Slot(String path, String name, SfxEngine.Category category, double volume) {
+            this.path = path;
+            this.name = name;
+            this.category = category;
+            this.volume = volume;
+        }
+    }
+
+    // Every effect by file name without extension, e.g. "danger1"
+    private final Map<String, Slot> slots = new LinkedHashMap<>();
+
+    // Effects are published on the JavaFX thread (a new immutable list each
+    // time) and played on the audio thread
     // Game over sounds (2 options)
-    private List<MediaPlayer> gameOverSounds;
-    private int currentGameOverIndex;
+    private volatile List<SoundEffect> gameOverSounds = List.of();
+    private volatile int currentGameOverIndex;
 
     // Danger/close call sounds (2 options)
-    private List<MediaPlayer> dangerSounds;
-    private int currentDangerIndex;
+    private volatile List<SoundEffect> dangerSounds = List.of();
+    private volatile int currentDangerIndex;
 
     // Safe/relief sounds (2 options)
-    private List<MediaPlayer> safeSounds;
-    private int currentSafeIndex;
+    private volatile List<SoundEffect> safeSounds = List.of();
+    private volatile int currentSafeIndex;
 
     // Special sounds
-    private MediaPlayer highAltitudeSound;
-    private MediaPlayer milestoneSound;
+    private volatile SoundEffect highAltitudeSound;
+    private volatile SoundEffect milestoneSound;
+
+    private volatile boolean soundEnabled;
+    private boolean musicRequested; // Start the music as soon as it finishes loading
 
-    private boolean soundEnabled;
+    private static final String MUSIC_PATH = "resources/sounds/background.mp4";
+    private static final String MUSIC_NAME = "background";
 
     private static final double BACKGROUND_VOLUME = 0.08; // Very low background music (8%)
     private static final double EFFECT_VOLUME = 0.7; // Meme sounds (70%)
 
-    // Cooldown tracking
+    // Cooldown tracking (audio thread only)
     private long lastDangerSound;
     private long lastSafeSound;
     private long lastHighAltitudeSound;
@@ -43,9 +85,7 @@ public class SoundManager {
     private static final long HIGH_ALTITUDE_COOLDOWN = 5_000_000_000L; // 5 seconds
 
     public SoundManager() {
-        this.gameOverSounds = new ArrayList<>();
-        this.dangerSounds = new ArrayList<>();
-        this.safeSounds = new ArrayList<>();
+        this.sfxEngine = new SfxEngine();
         this.currentGameOverIndex = 0;
         this.currentDangerIndex = 0;
         this.currentSafeIndex = 0;
@@ -53,100 +93,196 @@ public class SoundManager {
         this.lastDangerSound = 0;
         this.lastSafeSound = 0;
         this.lastHighAltitudeSound = 0;
+        this.dispatcher = new AudioDispatcher(this::playNow);
+
+        addSlot("resources/sounds/gameover1.m4a", "Game Over Sound 1", SfxEngine.Category.GAME_OVER, EFFECT_VOLUME);
+        addSlot("resources/sounds/gameover2.m4a", "Game Over Sound 2", SfxEngine.Category.GAME_OVER, EFFECT_VOLUME);
+        addSlot("resources/sounds/danger1.m4a", "Danger Sound 1", SfxEngine.Category.DANGER, EFFECT_VOLUME);
+        addSlot("resources/sounds/danger2.m4a", "Danger Sound 2", SfxEngine.Category.DANGER, EFFECT_VOLUME);
+        addSlot("resources/sounds/safe1.m4a", "Safe Sound 1", SfxEngine.Category.SAFE, EFFECT_VOLUME);
+        addSlot("resources/sounds/safe2.m4a", "Safe Sound 2", SfxEngine.Category.SAFE, EFFECT_VOLUME);
+
+        // Special sounds (max volume for high altitude)
+        addSlot("resources/sounds/high_altitude.m4a", "High Altitude Sound", SfxEngine.Category.HIGH_ALTITUDE, 1.0);
+        addSlot("resources/sounds/milestone.m4a", "Milestone Sound", SfxEngine.Category.MILESTONE, EFFECT_VOLUME);
+    }
 
-        loadSounds();
+    private void addSlot(String path, String name, SfxEngine.Category category, double volume) {
+        slots.put(baseName(path), new Slot(path, name, category, volume));
+    }
+
+    private static String baseName(String fileName) {
+        return new File(fileName).getName().replaceAll("\\.[^.]+$", "");
     }
 
     /**
-     * Load all sound files
+     * Load all sound files on background workers, one file per task.
+     * Each sound is handed to the JavaFX thread once it is ready, so the game
+     * can start (silently) before loading finishes.
+     *
+     * @return completes when every sound has been loaded and published
      */
-    private void loadSounds() {
-        try {
-            // Load background music (MP4 video file - JavaFX can extract audio)
-            loadBackgroundMusic("resources/sounds/background.mp4");
+    public CompletableFuture<Void> loadSoundsAsync(Executor executor) {
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+
+        // Background music (MP4 video file - JavaFX can extract audio)
+        loads.add(CompletableFuture
+                .supplyAsync(() -> loadBackgroundMusic(MUSIC_PATH), executor)
+                .thenAccept(player -> Platform.runLater(() -> installMusic(player))));
+
+        // Effects publish one by one; each category keeps its slot order
+        for (Slot slot : slots.values()) {
+            loads.add(CompletableFuture
+                    .supplyAsync(() -> loadSingleSound(slot), executor)
+                    .thenAccept(sound -> Platform.runLater(() -> install(slot, sound))));
+        }
 
-            // Load game over sounds
-            loadSound(gameOverSounds, "resources/sounds/gameover1.m4a", "Game Over Sound 1");
-            loadSound(gameOverSounds, "resources/sounds/gameover2.m4a", "Game Over Sound 2");
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0]));
+    }
 
-            // Load danger sounds
-            loadSound(dangerSounds, "resources/sounds/danger1.m4a", "Danger Sound 1");
-            loadSound(dangerSounds, "resources/sounds/danger2.m4a", "Danger Sound 2");
+    // ===== HOT RELOAD =====
 
-            // Load safe sounds
-            loadSound(safeSounds, "resources/sounds/safe1.m4a", "Safe Sound 1");
-            loadSound(safeSounds, "resources/sounds/safe2.m4a", "Safe Sound 2");
+    /**
+     * A file in the sounds folder was added, changed or removed (called on
+     * the asset watcher's thread, which does the decoding). Only the matching
+     * sound is reloaded; a sound whose file is gone is dropped.
+     */
+    public void fileChanged(Path file, boolean exists) {
+        String name = baseName(file.getFileName().toString());
+        if (name.equals(MUSIC_NAME)) {
+            MediaPlayer player = loadBackgroundMusic(MUSIC_PATH);
+            Platform.runLater(() -> installMusic(player));
+            return;
+        }
+        Slot slot = slots.get(name);
+        if (slot == null) {
+            return;
+        }
+        // Loads whichever of the WAV and the .m4a is still there
+        SoundEffect sound = loadSingleSound(slot);
+        Platform.runLater(() -> install(slot, sound));
+    }
 
-            // Load special sounds
-            highAltitudeSound = loadSingleSound("resources/sounds/high_altitude.m4a", "High Altitude Sound");
-            if (highAltitudeSound != null) {
-                highAltitudeSound.setVolume(1.0); // Max volume for this specific sound
+    /**
+     * Put a freshly loaded effect in its slot and free the one it replaces
+     * (JavaFX thread only)
+     */
+    private void install(Slot slot, SoundEffect sound) {
+        SoundEffect old = slot.effect;
+        slot.effect = sound;
+        publish(slot.category);
+        if (old != null) {
+            old.dispose();
+        }
+    }
+
+    /**
+     * Hand the audio thread a new list of a category's effects
+     */
+    private void publish(SfxEngine.Category category) {
+        List<SoundEffect> effects = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            if (slot.category == category && slot.effect != null) {
+                effects.add(slot.effect);
             }
-            milestoneSound = loadSingleSound("resources/sounds/milestone.m4a", "Milestone Sound");
+        }
+        List<SoundEffect> published = List.copyOf(effects);
+        SoundEffect first = published.isEmpty() ? null : published.get(0);
+
+        switch (category) {
+            case GAME_OVER:
+                gameOverSounds = published;
+                currentGameOverIndex = clampIndex(currentGameOverIndex, published);
+                break;
+            case DANGER:
+                dangerSounds = published;
+                currentDangerIndex = clampIndex(currentDangerIndex, published);
+                break;
+            case SAFE:
+                safeSounds = published;
+                currentSafeIndex = clampIndex(currentSafeIndex, published);
+                break;
+            case HIGH_ALTITUDE:
+                highAltitudeSound = first;
+                break;
+            case MILESTONE:
+                milestoneSound = first;
+                break;
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error loading sounds: " + e.getMessage());
-            e.printStackTrace();
+    private static int clampIndex(int index, List<SoundEffect> sounds) {
+        return Math.max(0, Math.min(index, sounds.size() - 1));
+    }
+
+    /**
+     * Swap in new background music, carrying on playing if it was
+     * (JavaFX thread only)
+     */
+    private void installMusic(MediaPlayer player) {
+        MediaPlayer old = backgroundMusic;
+        backgroundMusic = player;
+        if (old != null) {
+            old.dispose();
+        }
+        if (musicRequested) {
+            playBackgroundMusic();
         }
     }
 
     /**
      * Load background music
      */
-    private void loadBackgroundMusic(String path) {
+    private MediaPlayer loadBackgroundMusic(String path) {
         File bgFile = new File(path);
         if (bgFile.exists()) {
             try {
                 Media bgMedia = new Media(bgFile.toURI().toString());
-                backgroundMusic = new MediaPlayer(bgMedia);
-                backgroundMusic.setCycleCount(MediaPlayer.INDEFINITE);
-                backgroundMusic.setVolume(BACKGROUND_VOLUME);
+                MediaPlayer player = new MediaPlayer(bgMedia);
+                player.setCycleCount(MediaPlayer.INDEFINITE);
+                player.setVolume(BACKGROUND_VOLUME);
                 System.out.println("✓ Background music loaded: " + path);
+                return player;
             } catch (Exception e) {
                 System.err.println("✗ Failed to load background music: " + e.getMessage());
             }
         } else {
             System.out.println("✗ Background music not found: " + bgFile.getAbsolutePath());
         }
+        return null;
     }
 
     /**
-     * Load a sound into a list
+     * Load a single sound effect. A WAV with the same name replaces the .m4a;
+     * either is decoded for the low-latency engine. If the engine has no
+     * audio line or can't decode the file, the effect falls back to a
+     * MediaPlayer, with a warning.
      */
-    private void loadSound(List<MediaPlayer> list, String path, String name) {
-        File file = new File(path);
-        if (file.exists()) {
-            try {
-                Media media = new Media(file.toURI().toString());
-                MediaPlayer player = new MediaPlayer(media);
-                player.setVolume(EFFECT_VOLUME);
-                list.add(player);
-                System.out.println("✓ " + name + " loaded");
-            } catch (Exception e) {
-                System.err.println("✗ Failed to load " + name + ": " + e.getMessage());
+    private SoundEffect loadSingleSound(Slot slot) {
+        String name = slot.name;
+        File file = new File(slot.path.replaceAll("\\.[^.]+$", "") + ".wav");
+        if (!file.exists()) {
+            file = new File(slot.path);
+        }
+        if (!file.exists()) {
+            System.out.println("✗ " + name + " not found: " + slot.path);
+            return null;
+        }
+        if (sfxEngine.start()) {
+            int clip = sfxEngine.load(file);
+            if (clip >= 0) {
+                System.out.println("✓ " + name + " loaded (low latency)");
+                return SoundEffect.pcm(sfxEngine, clip, slot.category, slot.volume);
             }
-        } else {
-            System.out.println("✗ " + name + " not found: " + path);
         }
-    }
 
-    /**
-     * Load a single sound file
-     */
-    private MediaPlayer loadSingleSound(String path, String name) {
-        File file = new File(path);
-        if (file.exists()) {
-            try {
-                Media media = new Media(file.toURI().toString());
-                MediaPlayer player = new MediaPlayer(media);
-                player.setVolume(EFFECT_VOLUME);
-                System.out.println("✓ " + name + " loaded");
-                return player;
-            } catch (Exception e) {
-                System.err.println("✗ Failed to load " + name + ": " + e.getMessage());
-            }
-        } else {
-            System.out.println("✗ " + name + " not found: " + path);
+        try {
+            Media media = new Media(file.toURI().toString());
+            MediaPlayer player = new MediaPlayer(media);
+            System.out.println("⚠ " + name + " plays through MediaPlayer, with extra delay");
+            return SoundEffect.media(player, slot.volume);
+        } catch (Exception e) {
+            System.err.println("✗ Failed to load " + name + ": " + e.getMessage());
         }
         return null;
     }
@@ -155,6 +291,7 @@ public class SoundManager {
      * Start background music
      */
     public void playBackgroundMusic() {
+        musicRequested = true;
         if (backgroundMusic != null && soundEnabled) {
             backgroundMusic.play();
         }
@@ -164,6 +301,7 @@ public class SoundManager {
      * Stop background music
      */
     public void stopBackgroundMusic() {
+        musicRequested = false;
         if (backgroundMusic != null) {
             backgroundMusic.stop();
         }
@@ -173,106 +311,103 @@ public class SoundManager {
      * Play game over sound (when bird collides)
      */
     public void playGameOverSound() {
-        if (!soundEnabled || gameOverSounds.isEmpty())
-            return;
-
-        try {
-            MediaPlayer sound = gameOverSounds.get(currentGameOverIndex);
-            sound.stop();
-            sound.seek(Duration.ZERO);
-            sound.play();
-        } catch (Exception e) {
-            System.err.println("Error playing game over sound: " + e.getMessage());
-        }
+        dispatcher.trigger(AudioDispatcher.Event.GAME_OVER);
     }
 
     /**
      * Play danger sound (when close to pillar or ground) with cooldown
      */
     public void playDangerSound() {
-        long now = System.nanoTime();
-        if (!soundEnabled || dangerSounds.isEmpty())
-            return;
-        if (now - lastDangerSound < DANGER_COOLDOWN)
-            return;
-
-        try {
-            MediaPlayer sound = dangerSounds.get(currentDangerIndex);
-            sound.stop();
-            sound.seek(Duration.ZERO);
-            sound.play();
-            lastDangerSound = now;
-        } catch (Exception e) {
-            System.err.println("Error playing danger sound: " + e.getMessage());
-        }
+        dispatcher.trigger(AudioDispatcher.Event.DANGER);
     }
 
     /**
      * Play safe sound (when passing obstacle safely) with cooldown
      */
     public void playSafeSound() {
-        long now = System.nanoTime();
-        if (!soundEnabled || safeSounds.isEmpty())
-            return;
-        if (now - lastSafeSound < SAFE_COOLDOWN)
-            return;
-
-        try {
-            MediaPlayer sound = safeSounds.get(currentSafeIndex);
-            sound.stop();
-            sound.seek(Duration.ZERO);
-            sound.play();
-            lastSafeSound = now;
-        } catch (Exception e) {
-            System.err.println("Error playing safe sound: " + e.getMessage());
-        }
+        dispatcher.trigger(AudioDispatcher.Event.SAFE);
     }
 
     /**
      * Play high altitude sound (when bird goes too high) with cooldown
      */
     public void playHighAltitudeSound() {
-        long now = System.nanoTime();
-        if (!soundEnabled || highAltitudeSound == null)
-            return;
-        if (now - lastHighAltitudeSound < HIGH_ALTITUDE_COOLDOWN)
-            return;
-
-        try {
-            highAltitudeSound.stop();
-            highAltitudeSound.seek(Duration.ZERO);
-            highAltitudeSound.play();
-            lastHighAltitudeSound = now;
-        } catch (Exception e) {
-            System.err.println("Error playing high altitude sound: " + e.getMessage());
-        }
+        dispatcher.trigger(AudioDispatcher.Event.HIGH_ALTITUDE);
     }
 
     /**
      * Play milestone sound (every 5 pillars)
      */
     public void playMilestoneSound() {
-        if (!soundEnabled || milestoneSound == null)
+        dispatcher.trigger(AudioDispatcher.Event.MILESTONE);
+    }
+
+    /**
+     * Send the sounds raised this frame to the audio thread.
+     * Call once per frame, after the game update.
+     */
+    public void flushEvents() {
+        dispatcher.flush();
+    }
+
+    /**
+     * Play one effect, applying its cooldown (audio thread only)
+     */
+    private void playNow(AudioDispatcher.Event event) {
+        if (!soundEnabled)
             return;
 
-        try {
-            milestoneSound.stop();
-            milestoneSound.seek(Duration.ZERO);
-            milestoneSound.play();
-        } catch (Exception e) {
-            System.err.println("Error playing milestone sound: " + e.getMessage());
+        long now = System.nanoTime();
+        switch (event) {
+            case GAME_OVER:
+                playFrom(gameOverSounds, currentGameOverIndex);
+                break;
+            case DANGER:
+                if (now - lastDangerSound >= DANGER_COOLDOWN && playFrom(dangerSounds, currentDangerIndex)) {
+                    lastDangerSound = now;
+                }
+                break;
+            case SAFE:
+                if (now - lastSafeSound >= SAFE_COOLDOWN && playFrom(safeSounds, currentSafeIndex)) {
+                    lastSafeSound = now;
+                }
+                break;
+            case HIGH_ALTITUDE:
+                SoundEffect highAltitude = highAltitudeSound;
+                if (highAltitude != null && now - lastHighAltitudeSound >= HIGH_ALTITUDE_COOLDOWN) {
+                    highAltitude.play();
+                    lastHighAltitudeSound = now;
+                }
+                break;
+            case MILESTONE:
+                SoundEffect milestone = milestoneSound;
+                if (milestone != null) {
+                    milestone.play();
+                }
+                break;
         }
     }
 
+    /**
+     * @return false if the category has no sounds (yet)
+     */
+    private static boolean playFrom(List<SoundEffect> sounds, int index) {
+        if (index >= sounds.size())
+            return false;
+        sounds.get(index).play();
+        return true;
+    }
+
     // ===== SOUND SWITCHING METHODS =====
 
     /**
      * Switch game over sound
      */
     public void switchGameOverSound() {
-        if (gameOverSounds.isEmpty())
+        List<SoundEffect> sounds = gameOverSounds;
+        if (sounds.isEmpty())
             return;
-        currentGameOverIndex = (currentGameOverIndex + 1) % gameOverSounds.size();
+        currentGameOverIndex = (currentGameOverIndex + 1) % sounds.size();
         System.out.println("Switched to Game Over Sound " + (currentGameOverIndex + 1));
     }
 
@@ -280,9 +415,10 @@ public class SoundManager {
      * Switch danger sound
      */
     public void switchDangerSound() {
-        if (dangerSounds.isEmpty())
+        List<SoundEffect> sounds = dangerSounds;
+        if (sounds.isEmpty())
             return;
-        currentDangerIndex = (currentDangerIndex + 1) % dangerSounds.size();
+        currentDangerIndex = (currentDangerIndex + 1) % sounds.size();
         System.out.println("Switched to Danger Sound " + (currentDangerIndex + 1));
         playDangerSound();
     }
@@ -291,9 +427,10 @@ public class SoundManager {
      * Switch safe sound
      */
     public void switchSafeSound() {
-        if (safeSounds.isEmpty())
+        List<SoundEffect> sounds = safeSounds;
+        if (sounds.isEmpty())
             return;
-        currentSafeIndex = (currentSafeIndex + 1) % safeSounds.size();
+        currentSafeIndex = (currentSafeIndex + 1) % sounds.size();
         System.out.println("Switched to Safe Sound " + (currentSafeIndex + 1));
         playSafeSound();
     }
@@ -348,46 +485,27 @@ public class SoundManager {
      */
     public void stopAll() {
         stopBackgroundMusic();
-        for (MediaPlayer sound : gameOverSounds) {
-            if (sound != null)
-                sound.stop();
-        }
-        for (MediaPlayer sound : dangerSounds) {
-            if (sound != null)
-                sound.stop();
-        }
-        for (MediaPlayer sound : safeSounds) {
-            if (sound != null)
-                sound.stop();
+        for (Slot slot : slots.values()) {
+            if (slot.effect != null)
+                slot.effect.stop();
         }
-        if (highAltitudeSound != null)
-            highAltitudeSound.stop();
-        if (milestoneSound != null)
-            milestoneSound.stop();
     }
 
     /**
      * Cleanup resources
      */
     public void dispose() {
+        dispatcher.shutdown();
         stopAll();
+        if (sfxEngine.isRunning()) {
+            System.out.println("Sound effect latency: " + sfxEngine.getLatencySummary());
+        }
+        sfxEngine.dispose();
         if (backgroundMusic != null)
             backgroundMusic.dispose();
-        for (MediaPlayer sound : gameOverSounds) {
-            if (sound != null)
-                sound.dispose();
-        }
-        for (MediaPlayer sound : dangerSounds) {
-            if (sound != null)
-                sound.dispose();
-        }
-        for (MediaPlayer sound : safeSounds) {
-            if (sound != null)
-                sound.dispose();
+        for (Slot slot : slots.values()) {
+            if (slot.effect != null)
+                slot.effect.dispose();
         }
-        if (highAltitudeSound != null)
-            highAltitudeSound.dispose();
-        if (milestoneSound != null)
-            milestoneSound.dispose();
     }
 }